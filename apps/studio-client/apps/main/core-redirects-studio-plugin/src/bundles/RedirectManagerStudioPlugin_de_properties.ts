@@ -46,6 +46,7 @@ ResourceBundleUtil.override(RedirectManagerStudioPlugin_properties, {
   redirectmanager_editor_field_type_invalid: "Ungültiger Wert",
   redirectmanager_editor_field_parameters: "Parameter",
   redirectmanager_editor_field_description: "Beschreibung",
+  redirectmanager_editor_field_priority: "Priorität",
   redirectmanager_editor_field_sourceType: "Quell-Url-Type",
   redirectmanager_editor_field_sourceType_plain: "Plain",
   redirectmanager_editor_field_sourceType_regex: "Regulärer Ausdruck",
@@ -96,12 +97,15 @@ ResourceBundleUtil.override(RedirectManagerStudioPlugin_properties, {
   redirectmanager_editor_actions_csvupload_example_header_sourceParameters_text: "The Url-Parameter der Quell-Url oder [], Beispiel: [{\"name\": \"parameterName\", \"value\": \"value\", \"operator\": \"EQUALS\"}]",
   redirectmanager_editor_actions_csvupload_example_header_targetParameters_title: "Ziel-Url Parameter:",
   redirectmanager_editor_actions_csvupload_example_header_targetParameters_text: "Die Url-Parameter, die an die Ziel-Url angehangen werden sollen or [], Beispiel: [{\"name\": \"parameterName\", \"value\": \"value\"}]",
+  redirectmanager_editor_actions_csvupload_example_header_priority_title: "Priorität:",
+  redirectmanager_editor_actions_csvupload_example_header_priority_text: "Eine optionale Zahl, passen mehrere Redirects auf eine Anfrage, gewinnt der mit der höchsten Priorität",
   redirectmanager_editor_actions_csvupload_tooltip: "Klicken Sie hier, um eine Liste von Redirects über einen CSV Upload anzulegen.",
   redirectmanager_editor_actions_csvupload_text: "Upload",
   redirectmanager_editor_actions_csvupload_dropin_title: "Redirect CSV Import",
   redirectmanager_editor_actions_csvupload_dropin_label: "Datei hierhin ziehen..",
   redirectmanager_editor_actions_csvupload_upload_button_text: "Upload",
   redirectmanager_editor_actions_csvupload_upload_inProgress_text: "Umleitungen werden importiert...",
+  redirectmanager_editor_actions_csvupload_upload_progress_text: "Umleitungen werden importiert... {0} Einträge verarbeitet",
   redirectmanager_editor_actions_csvupload_cancel_button_text: "Abbrechen",
   redirectmanager_editor_actions_csvupload_upload_failed_title: "Import failed",
   redirectmanager_editor_actions_csvupload_upload_failed_msg: "Beim anlegen der Weiterleitungen ist ein Fehler aufgetreten:",
@@ -126,6 +130,7 @@ ResourceBundleUtil.override(RedirectManagerStudioPlugin_properties, {
   redirectmanager_editor_actions_csvupload_import_error_redirectType_invalid: "Der Wert für 'redirectType' darf entweder 'ALWAYS' oder 'AFTER_NOT_FOUND' sein.",
   redirectmanager_editor_actions_csvupload_import_error_creation_failure: "Die Umleitung konnte nicht erstellt werden.",
   redirectmanager_editor_actions_csvupload_import_error_description_invalid: "Die Beschreibung ist ungültig. Sie darf nur 1024 Zeichen lang sein.",
+  redirectmanager_editor_actions_csvupload_import_error_priority_invalid: "Die Priorität muss eine ganze Zahl sein.",
   redirectmanager_editor_actions_csvupload_import_error_duplicate_source: "Der Csv-Import enthält die Quell-Url mit den gleichen Parametern mehrmals.",
   redirectmanager_editor_actions_csvupload_import_error_parsing_failure: "Die Umleitung konnte nicht erstellt werden, da die Quell- oder Ziel-Parameter nicht gelesen werden konnten.",
   redirectmanager_editor_error_source_invalid: "Der Wert für die Quelle darf nicht leer sein und muss mit einem '/' beginnen.",
@@ -136,6 +141,7 @@ ResourceBundleUtil.override(RedirectManagerStudioPlugin_properties, {
   redirectmanager_editor_error_target_both: "Es sollte ein \"Ziel-Inhalt\" oder eine \"Ziel-Url\" verwendet werden, nicht beide.",
   redirectmanager_editor_error_target_url_invalid: "Die Ziel-Url ist ungültig.",
   redirectmanager_editor_error_description_invalid: "Die Beschreibung ist ungültig. Sie darf nur 1024 Zeichen lang sein.",
+  redirectmanager_editor_error_priority_invalid: "Die Priorität muss eine ganze Zahl sein.",
   redirectmanager_editor_grid_search_label: "Filter:",
   redirectmanager_editor_grid_search_empty_text: "Suchbegriff eingeben",
   redirectmanager_editor_grid_site_selector_label: "Umleitung der Seite:",
@@ -49,6 +49,7 @@ interface RedirectManagerStudioPlugin_properties {
   redirectmanager_editor_field_type_invalid: string;
   redirectmanager_editor_field_parameters: string;
   redirectmanager_editor_field_description: string;
+  redirectmanager_editor_field_priority: string;
   redirectmanager_editor_field_sourceType: string;
   redirectmanager_editor_field_sourceType_plain: string;
   redirectmanager_editor_field_sourceType_regex: string;
@@ -111,12 +112,15 @@ interface RedirectManagerStudioPlugin_properties {
   redirectmanager_editor_actions_csvupload_example_header_sourceParameters_text: string;
   redirectmanager_editor_actions_csvupload_example_header_targetParameters_title: string;
   redirectmanager_editor_actions_csvupload_example_header_targetParameters_text: string;
+  redirectmanager_editor_actions_csvupload_example_header_priority_title: string;
+  redirectmanager_editor_actions_csvupload_example_header_priority_text: string;
   redirectmanager_editor_actions_csvupload_dropin_title: string;
   redirectmanager_editor_actions_csvupload_tooltip: string;
   redirectmanager_editor_actions_csvupload_text: string;
   redirectmanager_editor_actions_csvupload_dropin_label: string;
   redirectmanager_editor_actions_csvupload_upload_button_text: string;
   redirectmanager_editor_actions_csvupload_upload_inProgress_text: string;
+  redirectmanager_editor_actions_csvupload_upload_progress_text: string;
   redirectmanager_editor_actions_csvupload_cancel_button_text: string;
   redirectmanager_editor_actions_csvupload_upload_failed_title: string;
   redirectmanager_editor_actions_csvupload_upload_failed_msg: string;
@@ -141,6 +145,7 @@ interface RedirectManagerStudioPlugin_properties {
   redirectmanager_editor_actions_csvupload_import_error_redirectType_invalid: string;
   redirectmanager_editor_actions_csvupload_import_error_creation_failure: string;
   redirectmanager_editor_actions_csvupload_import_error_description_invalid: string;
+  redirectmanager_editor_actions_csvupload_import_error_priority_invalid: string;
   redirectmanager_editor_actions_csvupload_import_error_duplicate_source: string;
   redirectmanager_editor_actions_csvupload_import_error_parsing_failure: string;
   redirectmanager_editor_error_source_invalid: string;
@@ -151,6 +156,7 @@ interface RedirectManagerStudioPlugin_properties {
   redirectmanager_editor_error_target_both: string;
   redirectmanager_editor_error_target_url_invalid: string;
   redirectmanager_editor_error_description_invalid: string;
+  redirectmanager_editor_error_priority_invalid: string;
   redirectmanager_editor_grid_search_label: string;
   redirectmanager_editor_grid_search_empty_text: string;
   redirectmanager_editor_grid_site_selector_label: string;
@@ -196,6 +202,7 @@ const RedirectManagerStudioPlugin_properties: RedirectManagerStudioPlugin_proper
   redirectmanager_editor_field_type_invalid: "Invalid value",
   redirectmanager_editor_field_parameters: "Parameters",
   redirectmanager_editor_field_description: "Description",
+  redirectmanager_editor_field_priority: "Priority",
   redirectmanager_editor_field_sourceType: "Source-Type",
   redirectmanager_editor_field_sourceType_plain: "Plain",
   redirectmanager_editor_field_sourceType_regex: "Regular Expression",
@@ -240,8 +247,8 @@ const RedirectManagerStudioPlugin_properties: RedirectManagerStudioPlugin_proper
   redirectmanager_editor_help_targetUrl_title: "Help",
   redirectmanager_editor_help_source_text: "The url to be redirected e.g. /products/old-product. It should not contain fragments (#anchor). Query-parameters (e.g. ?param=value) will automatically removed und copied into the \"Source Parameters\" field. If you do not see this field, ask your Administrator to activate that feature.<br/>For multi-language countries, leave out the language prefix, so e.g. type /old-link instead of /fr/old-link for french speaking Switzerland.",
   redirectmanager_editor_help_targetUrl_text: "The target url of this redirect. Consider linking a CoreMedia-Document in the field \"Target Link\" instead, because the redirectTarget will never produce a 404 in that case.",
-  redirectmanager_editor_actions_csvupload_example_header: "Active;Source URL Type;Source URL;Target Link;Target Url;Redirect Type;Description;Source Parameters;Target Parameters",
-  redirectmanager_editor_actions_csvupload_example: "TRUE;REGEX;/sourceUrl;/Sites/Chef Corp./Aurora B2C Page;;AFTER_NOT_FOUND;description;[{\"name\": \"parameterName\", \"value\": \"value\", \"operator\": \"EQUALS\"}];[{\"name\": \"parameterName\", \"value\": \"value\"}]",
+  redirectmanager_editor_actions_csvupload_example_header: "Active;Source URL Type;Source URL;Target Link;Target Url;Redirect Type;Description;Source Parameters;Target Parameters;Priority",
+  redirectmanager_editor_actions_csvupload_example: "TRUE;REGEX;/sourceUrl;/Sites/Chef Corp./Aurora B2C Page;;AFTER_NOT_FOUND;description;[{\"name\": \"parameterName\", \"value\": \"value\", \"operator\": \"EQUALS\"}];[{\"name\": \"parameterName\", \"value\": \"value\"}];0",
   redirectmanager_editor_actions_csvupload_example_header_active_title: "Active:",
   redirectmanager_editor_actions_csvupload_example_header_active_text: "TRUE or FALSE",
   redirectmanager_editor_actions_csvupload_example_header_sourceUrlType_title: "Source URL Type:",
@@ -258,12 +265,15 @@ const RedirectManagerStudioPlugin_properties: RedirectManagerStudioPlugin_proper
   redirectmanager_editor_actions_csvupload_example_header_sourceParameters_text: "the source parameters or [], example: [{\"name\": \"parameterName\", \"value\": \"value\", \"operator\": \"EQUALS\"}]",
   redirectmanager_editor_actions_csvupload_example_header_targetParameters_title: "Target Parameters:",
   redirectmanager_editor_actions_csvupload_example_header_targetParameters_text: "the target parameters or [], example: [{\"name\": \"parameterName\", \"value\": \"value\"}]",
+  redirectmanager_editor_actions_csvupload_example_header_priority_title: "Priority:",
+  redirectmanager_editor_actions_csvupload_example_header_priority_text: "an optional number, if several redirects match a request, the one with the highest priority wins",
   redirectmanager_editor_actions_csvupload_dropin_title: "Redirect CSV import",
   redirectmanager_editor_actions_csvupload_tooltip: "Click here to create a list of redirects by uploading a CSV file",
   redirectmanager_editor_actions_csvupload_text: "Upload",
   redirectmanager_editor_actions_csvupload_dropin_label: "Drop file here...",
   redirectmanager_editor_actions_csvupload_upload_button_text: "Upload",
   redirectmanager_editor_actions_csvupload_upload_inProgress_text: "Import in progress...",
+  redirectmanager_editor_actions_csvupload_upload_progress_text: "Import in progress... {0} entries processed",
   redirectmanager_editor_actions_csvupload_cancel_button_text: "Cancel",
   redirectmanager_editor_actions_csvupload_upload_failed_title: "Upload failed",
   redirectmanager_editor_actions_csvupload_upload_failed_msg: "The following error occured:",
@@ -288,6 +298,7 @@ const RedirectManagerStudioPlugin_properties: RedirectManagerStudioPlugin_proper
   redirectmanager_editor_actions_csvupload_import_error_redirectType_invalid: "The value for'redirectType' should be'ALWAYS' or'AFTER_NOT_FOUND'.",
   redirectmanager_editor_actions_csvupload_import_error_creation_failure: "The redirect could not be created.",
   redirectmanager_editor_actions_csvupload_import_error_description_invalid: "The description is invalid, only 1024 chars are allowed.",
+  redirectmanager_editor_actions_csvupload_import_error_priority_invalid: "The priority must be a whole number.",
   redirectmanager_editor_actions_csvupload_import_error_duplicate_source: "The import contains this source with the same source parameters multiple times.",
   redirectmanager_editor_actions_csvupload_import_error_parsing_failure: "The redirect could not be created because the source or target parameters could not be read.",
   redirectmanager_editor_error_source_invalid: "The value for the source must not be empty and must start with '/'.",
@@ -298,6 +309,7 @@ const RedirectManagerStudioPlugin_properties: RedirectManagerStudioPlugin_proper
   redirectmanager_editor_error_target_both: "Use a either a \"Target Link\" or a \"Target Url\", bot not both.",
   redirectmanager_editor_error_target_url_invalid: "The target-Url is invalid.",
   redirectmanager_editor_error_description_invalid: "The description is invalid, only 1024 chars are allowed.",
+  redirectmanager_editor_error_priority_invalid: "The priority must be a whole number.",
   redirectmanager_editor_grid_search_label: "Filter Redirects:",
   redirectmanager_editor_grid_search_empty_text: "Enter search term",
   redirectmanager_editor_grid_site_selector_label: "Redirects for Site:",
@@ -57,6 +57,10 @@ abstract class Redirect extends RemoteBean {
 
   abstract isImported(): boolean;
 
+  abstract getPriority(): number;
+
+  abstract setPriority(priority: number): void;
+
   abstract getSourceType(): string;
 
   abstract setSourceType(sourceType: string): void;
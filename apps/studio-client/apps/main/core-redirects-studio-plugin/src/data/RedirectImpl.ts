@@ -58,6 +58,8 @@ class RedirectImpl extends RemoteBeanImpl implements Redirect {
 
   static readonly IMPORTED: string = "imported";
 
+  static readonly PRIORITY: string = "priority";
+
   static readonly SITE_ID: string = "siteId";
 
   static readonly SOURCE_PARAMETERS: string = "sourceParameters";
@@ -79,6 +81,7 @@ class RedirectImpl extends RemoteBeanImpl implements Redirect {
     RedirectImpl.TARGET_LINK_NAME,
     RedirectImpl.DESCRIPTION,
     RedirectImpl.IMPORTED,
+    RedirectImpl.PRIORITY,
     RedirectImpl.SITE_ID,
     RedirectImpl.SOURCE_PARAMETERS,
     RedirectImpl.TARGET_PARAMETERS,
@@ -161,6 +164,14 @@ class RedirectImpl extends RemoteBeanImpl implements Redirect {
     return this.get(RedirectImpl.IMPORTED);
   }
 
+  getPriority(): number {
+    return this.get(RedirectImpl.PRIORITY);
+  }
+
+  setPriority(priority: number): void {
+    this.set(RedirectImpl.PRIORITY, priority);
+  }
+
   getSourceType(): string {
     return this.get(RedirectImpl.SOURCE_TYPE);
   }
@@ -25,6 +25,7 @@ import FieldContainer from "@jangaroo/ext-ts/form/FieldContainer";
 import Checkbox from "@jangaroo/ext-ts/form/field/Checkbox";
 import ComboBox from "@jangaroo/ext-ts/form/field/ComboBox";
 import DisplayField from "@jangaroo/ext-ts/form/field/Display";
+import NumberField from "@jangaroo/ext-ts/form/field/Number";
 import TextArea from "@jangaroo/ext-ts/form/field/TextArea";
 import FitLayout from "@jangaroo/ext-ts/layout/container/Fit";
 import Config from "@jangaroo/runtime/Config";
@@ -273,6 +274,27 @@ class RedirectEditPanel extends RedirectEditPanelBase {
 
             Config(FormSpacerElement, { height: "10px" }),
 
+            Config(NumberField, {
+              fieldLabel: RedirectManagerStudioPlugin_properties.redirectmanager_editor_field_priority,
+              allowDecimals: false,
+              width: 300,
+              ...ConfigUtils.append({
+                plugins: [
+                  Config(BindPropertyPlugin, {
+                    bidirectional: true,
+                    bindTo: RedirectEditPanelBase.getBindTo(config.localModel, RedirectImpl.PRIORITY),
+                  }),
+                ],
+              }),
+            }),
+
+            Config(ErrorFieldContainer, {
+              errorMessagesVE: config.errorMessagesVE,
+              propertyName: RedirectImpl.PRIORITY,
+            }),
+
+            Config(FormSpacerElement, { height: "10px" }),
+
             Config(TextArea, {
               fieldLabel: RedirectManagerStudioPlugin_properties.redirectmanager_editor_field_description,
               ...ConfigUtils.append({
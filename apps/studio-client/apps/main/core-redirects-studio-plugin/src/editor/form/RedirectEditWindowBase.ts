@@ -116,6 +116,7 @@ class RedirectEditWindowBase extends Window {
       model.set(RedirectImpl.SOURCE_TYPE, this.#redirect.getSourceType());
       model.set(RedirectImpl.REDIRECT_TYPE, this.#redirect.getRedirectType());
       model.set(RedirectImpl.CREATION_DATE, this.#redirect.getCreationDate());
+      model.set(RedirectImpl.PRIORITY, this.#redirect.getPriority());
       model.set(RedirectImpl.SOURCE_PARAMETERS, [].concat(this.#redirect.getSourceParameters()));
       model.set(RedirectImpl.TARGET_PARAMETERS, [].concat(this.#redirect.getTargetParameters()));
     } else {
@@ -125,6 +126,7 @@ class RedirectEditWindowBase extends Window {
       model.set(RedirectImpl.SOURCE_TYPE, RedirectEditWindowBase.#SOURCE_TYPE_DEFAULT);
       model.set(RedirectImpl.REDIRECT_TYPE, RedirectImpl.REDIRECT_TYPE_404);
       model.set(RedirectImpl.CREATION_DATE, new Date());
+      model.set(RedirectImpl.PRIORITY, 0);
       model.set(RedirectImpl.SOURCE_PARAMETERS, []);
       model.set(RedirectImpl.TARGET_PARAMETERS, []);
     }
@@ -182,6 +184,7 @@ class RedirectEditWindowBase extends Window {
       this.#redirect.setSource(model.get(RedirectImpl.SOURCE));
       this.#redirect.setSourceType(model.get(RedirectImpl.SOURCE_TYPE));
       this.#redirect.setRedirectType(model.get(RedirectImpl.REDIRECT_TYPE));
+      this.#redirect.setPriority(model.get(RedirectImpl.PRIORITY));
       this.#redirect.setSourceParameters(model.get(RedirectImpl.SOURCE_PARAMETERS));
       this.#redirect.setTargetParameters(model.get(RedirectImpl.TARGET_PARAMETERS));
     } else {
@@ -199,6 +202,7 @@ class RedirectEditWindowBase extends Window {
         model.get(RedirectImpl.REDIRECT_TYPE),
         model.get(RedirectImpl.SOURCE_PARAMETERS),
         model.get(RedirectImpl.TARGET_PARAMETERS),
+        model.get(RedirectImpl.PRIORITY),
       );
     }
     this.close();
@@ -36,6 +36,7 @@ import RedirectImpl from "../../data/RedirectImpl";
 import RedirectsOverviewGridBase from "./RedirectsOverviewGridBase";
 import RedirectCreationDateColumn from "./columns/RedirectCreationDateColumn";
 import RedirectParametersColumn from "./columns/RedirectParametersColumn";
+import RedirectPriorityColumn from "./columns/RedirectPriorityColumn";
 import RedirectSourceColumn from "./columns/RedirectSourceColumn";
 import RedirectStatusColumn from "./columns/RedirectStatusColumn";
 import RedirectTargetColumn from "./columns/RedirectTargetColumn";
@@ -213,6 +214,7 @@ class RedirectsOverviewGrid extends RedirectsOverviewGridBase {
         Config(RedirectTargetColumn),
         Config(RedirectCreationDateColumn),
         Config(RedirectTypeColumn),
+        Config(RedirectPriorityColumn),
         Config(RedirectParametersColumn, {
           header: RedirectManagerStudioPlugin_properties.redirectmanager_editor_field_sourceParameters,
           dataIndex: RedirectImpl.SOURCE_PARAMETERS,
@@ -161,6 +161,19 @@ class RedirectUploadProgressDialog extends RedirectUploadProgressDialogBase {
         ...{ enableFocusableContainer: false },
         items: [
           Config(Fill),
+          Config(Button, {
+            text: RedirectManagerStudioPlugin_properties.redirectmanager_editor_actions_csvupload_cancel_button_text,
+            scale: "small",
+            handler: bind(this, this.cancelImport),
+            ui: ButtonSkin.FOOTER_SECONDARY.getSkin(),
+            plugins: [
+              Config(BindPropertyPlugin, {
+                componentProperty: "hidden",
+                bindTo: this.getUploadInProgressVE(),
+                transformer: RedirectUploadProgressDialogBase.hiddenValueTransformer,
+              }),
+            ],
+          }),
           Config(Button, {
             text: Editor_properties.dialog_defaultCloseButton_text,
             scale: "small",
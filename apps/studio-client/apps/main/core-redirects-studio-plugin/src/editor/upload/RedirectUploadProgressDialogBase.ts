@@ -19,6 +19,7 @@ import ValueExpressionFactory from "@coremedia/studio-client.client-core/data/Va
 import StudioDialog from "@coremedia/studio-client.ext.base-components/dialogs/StudioDialog";
 import FileWrapper from "@coremedia/studio-client.main.editor-components/sdk/upload/FileWrapper";
 import ProgressBar from "@jangaroo/ext-ts/ProgressBar";
+import StringUtil from "@jangaroo/ext-ts/String";
 import TimerEvent from "@jangaroo/jooflash-core/flash/events/TimerEvent";
 import Timer from "@jangaroo/jooflash-core/flash/utils/Timer";
 import { as, bind } from "@jangaroo/runtime";
@@ -53,6 +54,10 @@ class RedirectUploadProgressDialogBase extends StudioDialog {
 
   #timer: Timer = null;
 
+  #progressText: string = RedirectManagerStudioPlugin_properties.redirectmanager_editor_actions_csvupload_upload_inProgress_text;
+
+  #jobId: string = null;
+
   #fileWrapper: FileWrapper = null;
 
   get fileWrapper(): FileWrapper {
@@ -76,7 +81,7 @@ class RedirectUploadProgressDialogBase extends StudioDialog {
   constructor(config: Config<RedirectUploadProgressDialog> = null) {
     super(config);
     this.#initProgressBar();
-    RedirectsUtil.uploadRedirects(config.selectedSiteIdVE.getValue(), config.fileWrapper, bind(this, this.#uploadSuccessHandler), bind(this, this.#uploadErrorHandler));
+    RedirectsUtil.uploadRedirects(config.selectedSiteIdVE.getValue(), config.fileWrapper, bind(this, this.#uploadSuccessHandler), bind(this, this.#uploadErrorHandler), bind(this, this.#uploadProgressHandler));
   }
 
   /**
@@ -94,9 +99,23 @@ class RedirectUploadProgressDialogBase extends StudioDialog {
    */
   #updateProgressBar(e: TimerEvent): void {
     if (this.#progressBar.getValue() >= 1) {
-      this.#progressBar.updateProgress(0, RedirectManagerStudioPlugin_properties.redirectmanager_editor_actions_csvupload_upload_inProgress_text, true);
+      this.#progressBar.updateProgress(0, this.#progressText, true);
     } else {
-      this.#progressBar.updateProgress(this.#progressBar.getValue() + 0.05, RedirectManagerStudioPlugin_properties.redirectmanager_editor_actions_csvupload_upload_inProgress_text, true);
+      this.#progressBar.updateProgress(this.#progressBar.getValue() + 0.05, this.#progressText, true);
+    }
+  }
+
+  #uploadProgressHandler(jobId: string, processed: number): void {
+    this.#jobId = jobId;
+    this.#progressText = StringUtil.format(RedirectManagerStudioPlugin_properties.redirectmanager_editor_actions_csvupload_upload_progress_text, processed);
+  }
+
+  /**
+   * Cancels the running import. The dialog shows the redirects, which have been imported until then.
+   */
+  protected cancelImport(): void {
+    if (this.#jobId) {
+      RedirectsUtil.cancelImport(this.#selectedSiteIdVE.getValue(), this.#jobId);
     }
   }
 
@@ -140,6 +140,10 @@ class RedirectUploadWindow extends RedirectUploadWindowBase {
               title: RedirectManagerStudioPlugin_properties.redirectmanager_editor_actions_csvupload_example_header_targetParameters_title,
               text: RedirectManagerStudioPlugin_properties.redirectmanager_editor_actions_csvupload_example_header_targetParameters_text,
             }),
+            Config(RedirectCsvHeaderDescriptionContainer, {
+              title: RedirectManagerStudioPlugin_properties.redirectmanager_editor_actions_csvupload_example_header_priority_title,
+              text: RedirectManagerStudioPlugin_properties.redirectmanager_editor_actions_csvupload_example_header_priority_text,
+            }),
           ],
         }),
         Config(Container, {
@@ -56,6 +56,10 @@ class RedirectsUtil {
 
   static readonly #DEFAULT_UPLOAD_SIZE: int = 67108864;
 
+  static readonly #IMPORT_POLL_INTERVAL: int = 1000;
+
+  static readonly #IMPORT_RESULT_LIMIT: int = 1000;
+
   /**
    * Returns true, if the redirect the linked content is loaded.
    * @param redirect the redirect.
@@ -79,7 +83,7 @@ class RedirectsUtil {
    */
   static createRedirect(siteId: string, active: boolean, targetLink: Content, targetUrl: string,
     description: string, source: string, sourceType: string, redirectType: string,
-    sourceParameters: Array<any>, targetParameters: Array<any>): void {
+    sourceParameters: Array<any>, targetParameters: Array<any>, priority: number): void {
     const rsm = new RemoteServiceMethod("redirects/" + siteId + "/" + RedirectsUtil.#CREATE_URI_SEGMENT, "POST", true);
     rsm.request({
       active: active,
@@ -91,6 +95,7 @@ class RedirectsUtil {
       redirectType: redirectType,
       sourceParameters: sourceParameters,
       targetParameters: targetParameters,
+      priority: priority,
     },
     (rsmr: RemoteServiceMethodResponse): void =>
       NotificationUtil.showInfo(RedirectManagerStudioPlugin_properties.redirectmanager_editor_actions_new_success_text)
@@ -171,17 +176,20 @@ class RedirectsUtil {
   }
 
   /**
-   * Uploads a csv and imports all redirects.
+   * Uploads a csv and imports all redirects. The import runs in the background on the server, its progress is polled
+   * until it is finished.
    *
    * @param siteId the site id.
    * @param fileWrapper the file
    * @param success callback function for success
    * @param error callback function for error
+   * @param progress callback function for the progress, called with the job id and the number of processed entries
    */
   static uploadRedirects(siteId: string,
     fileWrapper: FileWrapper,
     success: AnyFunction,
-    error: AnyFunction): void {
+    error: AnyFunction,
+    progress: AnyFunction = null): void {
 
     const upldr = new Uploader({
       maxFileSize: RedirectsUtil.#DEFAULT_UPLOAD_SIZE,
@@ -191,13 +199,10 @@ class RedirectsUtil {
     });
 
     upldr.addListener("uploadcomplete", (_uploader: Uploader, response: XMLHttpRequest): void => {
-      BeanFactoryImpl.resolveBeans(JSON.decode(response.responseText));
-
       //Hack for html4 upload.
       if (response.status === 200) {
-        const importResponse = JSON.decode(response.responseText);
-        const created = as(BeanFactoryImpl.resolveBeans(importResponse.created), Array);
-        success.call(null, new RedirectImportResponse(created, importResponse.errorMessages));
+        const jobId: string = JSON.decode(response.responseText).jobId;
+        RedirectsUtil.#pollImportJob(siteId, jobId, success, error, progress);
       } else {
         error.call(null, response.statusText + " (code " + response.status + ")");
       }
@@ -216,6 +221,83 @@ class RedirectsUtil {
     upldr.upload(file);
   }
 
+  /**
+   * Cancels a running import. The redirects, which have already been imported, are kept.
+   *
+   * @param siteId the site id.
+   * @param jobId the id of the import job.
+   */
+  static cancelImport(siteId: string, jobId: string): void {
+    const rsm = new RemoteServiceMethod("redirects/" + siteId + "/imports/" + jobId, "DELETE");
+    rsm.request(null, null,
+      (rsmr: RemoteServiceMethodResponse): void =>
+        NotificationUtil.showError(RedirectManagerStudioPlugin_properties.redirectmanager_editor_actions_csvupload_upload_failed_msg + rsmr.getError()),
+    );
+  }
+
+  /**
+   * Requests the state of an import job, until the job is done.
+   */
+  static #pollImportJob(siteId: string,
+    jobId: string,
+    success: AnyFunction,
+    error: AnyFunction,
+    progress: AnyFunction): void {
+    RedirectsUtil.#requestImportJob(siteId, jobId, 0,
+      (job: any): void => {
+        if (job.done) {
+          RedirectsUtil.#collectImportResult(siteId, jobId, job, 0, [], [], success, error);
+        } else {
+          progress && progress.call(null, jobId, job.processed);
+          window.setTimeout((): void =>
+            RedirectsUtil.#pollImportJob(siteId, jobId, success, error, progress),
+          RedirectsUtil.#IMPORT_POLL_INTERVAL);
+        }
+      },
+      error);
+  }
+
+  /**
+   * Reads the result of a finished import job page by page, until all created redirects and error messages are read.
+   */
+  static #collectImportResult(siteId: string,
+    jobId: string,
+    job: any,
+    offset: int,
+    created: Array<any>,
+    errorMessages: Array<any>,
+    success: AnyFunction,
+    error: AnyFunction): void {
+    const allCreated = created.concat(job.created);
+    const allErrorMessages = errorMessages.concat(job.errorMessages);
+    const nextOffset = offset + RedirectsUtil.#IMPORT_RESULT_LIMIT;
+    // An empty page ends the paging, even if the counts are not reached
+    const pageEmpty = job.created.length === 0 && job.errorMessages.length === 0;
+    if (!pageEmpty && (allCreated.length < job.createdCount || allErrorMessages.length < job.failedCount)) {
+      RedirectsUtil.#requestImportJob(siteId, jobId, nextOffset,
+        (next: any): void =>
+          RedirectsUtil.#collectImportResult(siteId, jobId, next, nextOffset, allCreated, allErrorMessages, success, error),
+        error);
+    } else {
+      const resolved = as(BeanFactoryImpl.resolveBeans(allCreated), Array);
+      success.call(null, new RedirectImportResponse(resolved, allErrorMessages));
+    }
+  }
+
+  static #requestImportJob(siteId: string,
+    jobId: string,
+    offset: int,
+    callback: AnyFunction,
+    error: AnyFunction): void {
+    const rsm = new RemoteServiceMethod("redirects/" + siteId + "/imports/" + jobId, "GET");
+    rsm.request({ offset: offset, limit: RedirectsUtil.#IMPORT_RESULT_LIMIT },
+      (rsmr: RemoteServiceMethodResponse): void =>
+        callback.call(null, JSON.decode(rsmr.text)),
+      (rsmr: RemoteServiceMethodResponse): void =>
+        error.call(null, rsmr.getError()),
+    );
+  }
+
   /**
    * Creates a promise that validates a redirect and returns a validation result.
    *
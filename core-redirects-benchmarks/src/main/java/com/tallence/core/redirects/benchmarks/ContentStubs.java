@@ -0,0 +1,142 @@
+/*
+ * Copyright 2019 Tallence AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tallence.core.redirects.benchmarks;
+
+import com.coremedia.cap.content.Content;
+import com.coremedia.cap.multisite.Site;
+import com.coremedia.cap.struct.Struct;
+import com.tallence.core.redirects.cae.model.Redirect;
+import com.tallence.core.redirects.model.RedirectParameter;
+import com.tallence.core.redirects.model.RedirectSourceParameter;
+import com.tallence.core.redirects.model.RedirectType;
+import com.tallence.core.redirects.model.SourceUrlType;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Stubs of the CoreMedia content API, so the benchmarks run without a content server.
+ */
+final class ContentStubs {
+
+  private ContentStubs() {
+  }
+
+  /**
+   * Creates a {@link Content} with the given id, which returns the given properties.
+   */
+  static Content content(int id, Map<String, Object> properties) {
+    String contentId = "coremedia:///cap/content/" + id;
+    return (Content) Proxy.newProxyInstance(ContentStubs.class.getClassLoader(), new Class[]{Content.class},
+            (proxy, method, args) -> {
+              switch (method.getName()) {
+                case "getId":
+                  return contentId;
+                case "getInt":
+                  return ((Number) properties.getOrDefault((String) args[0], 0)).intValue();
+                case "hashCode":
+                  return contentId.hashCode();
+                case "equals":
+                  return proxy == args[0];
+                case "toString":
+                  return contentId;
+                default:
+                  return method.getReturnType() == boolean.class ? Boolean.FALSE : properties.get((String) args[0]);
+              }
+            });
+  }
+
+  /**
+   * Creates a redirect with the given source, which links to a target content.
+   */
+  static Redirect redirect(int id, SourceUrlType sourceUrlType, String source) {
+    return redirect(id, sourceUrlType, source, Map.of());
+  }
+
+  /**
+   * Creates a redirect with the given source and source parameters (compared with EQUALS), which links to a target
+   * content.
+   */
+  static Redirect redirect(int id, SourceUrlType sourceUrlType, String source, Map<String, String> sourceParameters) {
+    Content target = content(id + 1, Map.of());
+    List<Struct> parameterStructs = sourceParameters.entrySet().stream()
+            .map(p -> struct(Map.of(
+                    RedirectParameter.STRUCT_PROPERTY_PARAMS_NAME, p.getKey(),
+                    RedirectParameter.STRUCT_PROPERTY_PARAMS_VALUE, p.getValue(),
+                    RedirectSourceParameter.STRUCT_PROPERTY_SOURCE_PARAMS_OPERATOR, RedirectSourceParameter.Operator.EQUALS.name())))
+            .collect(Collectors.toList());
+    return new Redirect(content(id, Map.of(
+            "sourceUrlType", sourceUrlType.name(),
+            "source", source,
+            "redirectType", RedirectType.ALWAYS.name(),
+            "targetLink", target,
+            RedirectParameter.PROPERTY_URL_PARAMS, struct(Map.of(
+                    RedirectSourceParameter.STRUCT_PROPERTY_SOURCE_PARAMS, parameterStructs)))), "");
+  }
+
+  /**
+   * Creates a {@link Struct} with the given properties. The type of the struct declares every property.
+   */
+  static Struct struct(Map<String, Object> properties) {
+    return (Struct) lenientProxy(Struct.class, properties);
+  }
+
+  private static Object lenientProxy(Class<?> type, Map<String, Object> properties) {
+    return Proxy.newProxyInstance(ContentStubs.class.getClassLoader(), new Class[]{type},
+            (proxy, method, args) -> {
+              Class<?> returnType = method.getReturnType();
+              if (method.getName().equals("hashCode")) {
+                return System.identityHashCode(proxy);
+              } else if (method.getName().equals("equals")) {
+                return proxy == args[0];
+              } else if (args != null && args.length == 1 && args[0] instanceof String
+                      && properties.containsKey((String) args[0])) {
+                return properties.get((String) args[0]);
+              } else if (returnType == boolean.class) {
+                return Boolean.FALSE;
+              } else if (returnType == int.class) {
+                return 0;
+              } else if (returnType.isInterface()) {
+                // e.g. the type and property descriptors of a struct
+                return lenientProxy(returnType, Map.of());
+              }
+              return null;
+            });
+  }
+
+  /**
+   * Creates a {@link Site} with the given id.
+   */
+  static Site site(String id) {
+    return (Site) Proxy.newProxyInstance(ContentStubs.class.getClassLoader(), new Class[]{Site.class},
+            (proxy, method, args) -> {
+              switch (method.getName()) {
+                case "getId":
+                  return id;
+                case "hashCode":
+                  return id.hashCode();
+                case "equals":
+                  return proxy == args[0];
+                case "toString":
+                  return id;
+                default:
+                  return null;
+              }
+            });
+  }
+}
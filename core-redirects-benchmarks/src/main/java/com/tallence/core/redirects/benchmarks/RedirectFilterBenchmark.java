@@ -0,0 +1,160 @@
+/*
+ * Copyright 2019 Tallence AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tallence.core.redirects.benchmarks;
+
+import com.coremedia.blueprint.common.contentbeans.CMLinkable;
+import com.coremedia.cap.content.Content;
+import com.coremedia.cap.multisite.Site;
+import com.coremedia.objectserver.beans.ContentBeanFactory;
+import com.coremedia.objectserver.web.links.LinkFormatter;
+import com.tallence.core.redirects.cae.filter.RedirectFilter;
+import com.tallence.core.redirects.cae.filter.RedirectMatchingServiceImpl;
+import com.tallence.core.redirects.cae.service.SiteRedirects;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link RedirectFilter#doFilter}, including the building of the location of a redirect in
+ * {@code sendPermanentRedirect}. The link building of the CAE is stubbed by a {@link LinkFormatter}, which only
+ * concatenates the link, so the benchmark measures the overhead of the filter. Compare the location cache sizes 0
+ * (disabled) and 10000 to see the effect of the location cache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedirectFilterBenchmark {
+
+  private static final int PLAIN_REDIRECTS = 10000;
+  private static final int PATTERN_REDIRECTS = 1000;
+
+  @Param({"0", "10000"})
+  private int locationCacheSize;
+
+  @Param({"0", "60"})
+  private long linkCacheTtl;
+
+  private RedirectFilter filter;
+  private RedirectFilter keepParamsFilter;
+  private final FilterChain chain = (request, response) -> {
+  };
+  private final MockHttpServletResponse response = new MockHttpServletResponse();
+  private MockHttpServletRequest miss;
+  private MockHttpServletRequest redirect;
+  private MockHttpServletRequest redirectWithParameters;
+
+  @Setup
+  public void setUp() throws IOException, ServletException {
+    Site site = ContentStubs.site("site");
+    SiteRedirects siteRedirects = SyntheticRedirects.build(site, PLAIN_REDIRECTS, PATTERN_REDIRECTS);
+    RedirectMatchingServiceImpl matchingService = new RedirectMatchingServiceImpl(s -> siteRedirects, null);
+    ContentBeanFactory contentBeanFactory = contentBeanFactory();
+    LinkFormatter linkFormatter = new ConcatenatingLinkFormatter();
+    filter = new RedirectFilter(contentBeanFactory, false, locationCacheSize, linkCacheTtl, matchingService,
+            linkFormatter);
+    keepParamsFilter = new RedirectFilter(contentBeanFactory, true, locationCacheSize, linkCacheTtl, matchingService,
+            linkFormatter);
+
+    miss = SyntheticRedirects.request(site, SyntheticRedirects.unknownPath(1));
+    redirect = SyntheticRedirects.request(site, SyntheticRedirects.plainPath(1));
+    redirectWithParameters = SyntheticRedirects.request(site, SyntheticRedirects.plainPath(1),
+            Map.of("utm_source", "newsletter", "utm_campaign", "spring sale"));
+
+    filter.doFilter(redirect, response, chain);
+    if (response.getHeader(HttpHeaders.LOCATION) == null) {
+      throw new IllegalStateException("No redirect for " + redirect.getPathInfo());
+    }
+  }
+
+  @Benchmark
+  public MockHttpServletResponse miss() throws IOException, ServletException {
+    filter.doFilter(miss, response, chain);
+    return response;
+  }
+
+  @Benchmark
+  public MockHttpServletResponse redirect() throws IOException, ServletException {
+    // The filter resets the response before the redirect
+    filter.doFilter(redirect, response, chain);
+    return response;
+  }
+
+  @Benchmark
+  public MockHttpServletResponse redirectWithParameters() throws IOException, ServletException {
+    keepParamsFilter.doFilter(redirectWithParameters, response, chain);
+    return response;
+  }
+
+  /**
+   * Creates {@link CMLinkable} stubs, which return the id of their content as {@link Object#toString()}.
+   */
+  private static ContentBeanFactory contentBeanFactory() {
+    return (ContentBeanFactory) Proxy.newProxyInstance(RedirectFilterBenchmark.class.getClassLoader(),
+            new Class[]{ContentBeanFactory.class}, (proxy, method, args) -> {
+              if (!method.getName().equals("createBeanFor")) {
+                throw new UnsupportedOperationException(method.getName());
+              }
+              Content content = (Content) args[0];
+              return Proxy.newProxyInstance(RedirectFilterBenchmark.class.getClassLoader(), new Class[]{CMLinkable.class},
+                      (bean, beanMethod, beanArgs) -> {
+                        switch (beanMethod.getName()) {
+                          case "getContent":
+                            return content;
+                          case "toString":
+                            return content.getId();
+                          case "hashCode":
+                            return content.hashCode();
+                          case "equals":
+                            return bean == beanArgs[0];
+                          default:
+                            throw new UnsupportedOperationException(beanMethod.getName());
+                        }
+                      });
+            });
+  }
+
+  private static class ConcatenatingLinkFormatter extends LinkFormatter {
+    @Override
+    public String formatLink(Object bean, String view, HttpServletRequest request, HttpServletResponse response,
+                             boolean forRedirect) {
+      String id = ((CMLinkable) bean).getContent().getId();
+      return SyntheticRedirects.ROOT_SEGMENT + "/target-" + id.substring(id.lastIndexOf('/') + 1);
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2019 Tallence AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tallence.core.redirects.benchmarks;
+
+import com.coremedia.cap.multisite.Site;
+import com.tallence.core.redirects.cae.filter.RedirectMatchingService;
+import com.tallence.core.redirects.cae.filter.RedirectMatchingServiceImpl;
+import com.tallence.core.redirects.cae.service.SiteRedirects;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link RedirectMatchingServiceImpl#getMatchingRedirect} for the different kinds of requests:
+ * <ul>
+ *   <li>Requests without a redirect, which are the vast majority of all requests. Run with the gc profiler
+ *   ({@code -prof gc}, default of {@link Benchmarks}) to verify, that a miss does not allocate any memory:
+ *   {@code gc.alloc.rate.norm} must be 0 B/op.</li>
+ *   <li>Requests with a plain, pattern or parameter redirect and requests, whose parameters do not match the
+ *   parameters of a redirect.</li>
+ * </ul>
+ * See {@link RedirectTrafficBenchmark} for mixed traffic.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedirectMatchingBenchmark {
+
+  @Param({"1000", "10000", "100000"})
+  private int plainRedirects;
+
+  @Param({"100", "1000", "10000"})
+  private int patternRedirects;
+
+  private RedirectMatchingService matchingService;
+  private MockHttpServletRequest filteredMiss;
+  private MockHttpServletRequest lookupMiss;
+  private MockHttpServletRequest parameterMismatch;
+  private MockHttpServletRequest plainHit;
+  private MockHttpServletRequest patternHit;
+  private MockHttpServletRequest parameterHit;
+
+  @Setup
+  public void setUp() {
+    Site site = ContentStubs.site("site");
+    SiteRedirects siteRedirects = SyntheticRedirects.build(site, plainRedirects, patternRedirects);
+    matchingService = new RedirectMatchingServiceImpl(s -> siteRedirects, null);
+
+    // Rejected by the source filter, without looking at the redirects
+    filteredMiss = SyntheticRedirects.request(site, SyntheticRedirects.unknownPath(1));
+    // Passes the source filter (the path shares the prefix of a pattern), but neither a plain redirect nor a pattern
+    // matches
+    lookupMiss = SyntheticRedirects.request(site, SyntheticRedirects.ROOT_SEGMENT + "/section-1/no-match");
+    // The plain redirect requires another value of the source parameter
+    int parameterIndex = SyntheticRedirects.PARAMETER_REDIRECT_INTERVAL;
+    parameterMismatch = SyntheticRedirects.request(site, SyntheticRedirects.plainPath(parameterIndex),
+            Map.of(SyntheticRedirects.CAMPAIGN_PARAMETER, "other", "page", "2"));
+
+    plainHit = SyntheticRedirects.request(site, SyntheticRedirects.plainPath(1));
+    patternHit = SyntheticRedirects.request(site, SyntheticRedirects.patternPath(patternRedirects / 2));
+    parameterHit = SyntheticRedirects.request(site, SyntheticRedirects.plainPath(parameterIndex),
+            Map.of(SyntheticRedirects.CAMPAIGN_PARAMETER, String.valueOf(parameterIndex), "page", "2"));
+
+    for (MockHttpServletRequest hit : new MockHttpServletRequest[]{plainHit, patternHit, parameterHit}) {
+      if (matchingService.getMatchingRedirect(hit).getRedirect() == null) {
+        throw new IllegalStateException("No redirect found for " + hit.getPathInfo());
+      }
+    }
+    if (matchingService.getMatchingRedirect(parameterMismatch).getRedirect() != null) {
+      throw new IllegalStateException("A redirect was found for " + parameterMismatch.getPathInfo());
+    }
+  }
+
+  @Benchmark
+  public RedirectMatchingService.Result filteredMiss() {
+    return matchingService.getMatchingRedirect(filteredMiss);
+  }
+
+  @Benchmark
+  public RedirectMatchingService.Result lookupMiss() {
+    return matchingService.getMatchingRedirect(lookupMiss);
+  }
+
+  @Benchmark
+  public RedirectMatchingService.Result parameterMismatch() {
+    return matchingService.getMatchingRedirect(parameterMismatch);
+  }
+
+  @Benchmark
+  public RedirectMatchingService.Result plainHit() {
+    return matchingService.getMatchingRedirect(plainHit);
+  }
+
+  @Benchmark
+  public RedirectMatchingService.Result patternHit() {
+    return matchingService.getMatchingRedirect(patternHit);
+  }
+
+  @Benchmark
+  public RedirectMatchingService.Result parameterHit() {
+    return matchingService.getMatchingRedirect(parameterHit);
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019 Tallence AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tallence.core.redirects.benchmarks;
+
+import com.coremedia.cap.multisite.Site;
+import com.tallence.core.redirects.cae.filter.RedirectMatchingService;
+import com.tallence.core.redirects.cae.filter.RedirectMatchingServiceImpl;
+import com.tallence.core.redirects.cae.service.SiteRedirects;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link RedirectMatchingServiceImpl#getMatchingRedirect} with mixed traffic: The given ratio of the
+ * requests has a plain, pattern or parameter redirect, the other requests have none. The requests are shuffled, so the
+ * branch predictor cannot learn the order.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedirectTrafficBenchmark {
+
+  private static final int PLAIN_REDIRECTS = 10000;
+  private static final int PATTERN_REDIRECTS = 1000;
+  private static final int REQUESTS = 1024;
+
+  @Param({"0.01", "0.1", "0.5"})
+  private double hitRatio;
+
+  private RedirectMatchingService matchingService;
+  private MockHttpServletRequest[] requests;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    Site site = ContentStubs.site("site");
+    SiteRedirects siteRedirects = SyntheticRedirects.build(site, PLAIN_REDIRECTS, PATTERN_REDIRECTS);
+    matchingService = new RedirectMatchingServiceImpl(s -> siteRedirects, null);
+
+    Random random = new Random(42);
+    int hits = (int) Math.round(REQUESTS * hitRatio);
+    List<MockHttpServletRequest> list = new ArrayList<>(REQUESTS);
+    for (int i = 0; i < REQUESTS; i++) {
+      list.add(i < hits ? hit(site, i, random) : miss(site, i, random));
+    }
+    Collections.shuffle(list, random);
+    requests = list.toArray(new MockHttpServletRequest[0]);
+  }
+
+  private static MockHttpServletRequest hit(Site site, int i, Random random) {
+    switch (i % 3) {
+      case 0:
+        int plain = 1 + random.nextInt(PLAIN_REDIRECTS - 1);
+        if (plain % SyntheticRedirects.PARAMETER_REDIRECT_INTERVAL == 0) {
+          plain++;
+        }
+        return SyntheticRedirects.request(site, SyntheticRedirects.plainPath(plain));
+      case 1:
+        return SyntheticRedirects.request(site, SyntheticRedirects.patternPath(random.nextInt(PATTERN_REDIRECTS)));
+      default:
+        int parameter = SyntheticRedirects.PARAMETER_REDIRECT_INTERVAL *
+                random.nextInt(PLAIN_REDIRECTS / SyntheticRedirects.PARAMETER_REDIRECT_INTERVAL);
+        return SyntheticRedirects.request(site, SyntheticRedirects.plainPath(parameter),
+                Map.of(SyntheticRedirects.CAMPAIGN_PARAMETER, String.valueOf(parameter)));
+    }
+  }
+
+  private static MockHttpServletRequest miss(Site site, int i, Random random) {
+    // Most misses are rejected by the source filter, some share the prefix of a pattern
+    return i % 4 == 0 ?
+            SyntheticRedirects.request(site, SyntheticRedirects.ROOT_SEGMENT + "/section-" + random.nextInt(PATTERN_REDIRECTS) + "/page") :
+            SyntheticRedirects.request(site, SyntheticRedirects.unknownPath(i));
+  }
+
+  @Benchmark
+  public RedirectMatchingService.Result mixed() {
+    MockHttpServletRequest request = requests[next];
+    next = (next + 1) & (REQUESTS - 1);
+    return matchingService.getMatchingRedirect(request);
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019 Tallence AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tallence.core.redirects.benchmarks;
+
+import com.coremedia.cap.multisite.Site;
+import com.tallence.core.redirects.cae.model.Redirect;
+import com.tallence.core.redirects.cae.service.SiteRedirects;
+import com.tallence.core.redirects.model.SourceUrlType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Benchmarks the updates of the {@link SiteRedirects} of a site:
+ * <ul>
+ *   <li>Building the redirects of a site from scratch, like it is done on the startup of the CAE.</li>
+ *   <li>Building them in parallel shards, which are merged at the end, like the bucket folders of the redirects are
+ *   read by the {@code UpdateSiteTask}.</li>
+ *   <li>A bulk update of an existing site, which replaces the given number of redirects with a changed source. Every
+ *   tenth change also changes the source type from plain to regex.</li>
+ * </ul>
+ * Both must scale linearly with the number of redirects and changes: The time per redirect must not grow with the size
+ * of the site.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SiteRedirectsUpdateBenchmark {
+
+  // The number of bucket folders: two hex characters
+  private static final int SHARDS = 256;
+
+  @Param({"10000", "100000"})
+  private int redirects;
+
+  @Param({"1000", "10000"})
+  private int changes;
+
+  private Site site;
+  private SiteRedirects siteRedirects;
+  private List<Redirect> changedRedirects;
+
+  @Setup
+  public void setUp() {
+    site = ContentStubs.site("site");
+    siteRedirects = SyntheticRedirects.build(site, redirects, redirects / 10);
+
+    // The changes are spread over all plain redirects of the site
+    int step = Math.max(1, redirects / changes);
+    changedRedirects = new ArrayList<>(changes);
+    for (int i = 0; i < changes; i++) {
+      int index = (i * step) % redirects;
+      changedRedirects.add(i % 10 == 0 ?
+              ContentStubs.redirect(2 * index, SourceUrlType.REGEX, SyntheticRedirects.ROOT_SEGMENT + "/moved-" + index + "/.*") :
+              ContentStubs.redirect(2 * index, SourceUrlType.PLAIN, SyntheticRedirects.ROOT_SEGMENT + "/moved/page-" + index));
+    }
+  }
+
+  @Benchmark
+  public SiteRedirects buildSite() {
+    return SyntheticRedirects.build(site, redirects, redirects / 10);
+  }
+
+  @Benchmark
+  public SiteRedirects buildSiteSharded() {
+    List<SiteRedirects.Builder> shards = IntStream.range(0, SHARDS).parallel()
+            .mapToObj(shard -> SyntheticRedirects.builder(site, redirects, redirects / 10, shard, SHARDS))
+            .toList();
+    SiteRedirects.Builder builder = SiteRedirects.builder(site.getId(), redirects + redirects / 10);
+    shards.forEach(builder::addAll);
+    return builder.build();
+  }
+
+  @Benchmark
+  public SiteRedirects bulkUpdate() {
+    SiteRedirects.Builder builder = siteRedirects.toBuilder();
+    changedRedirects.forEach(builder::addRedirect);
+    return builder.build();
+  }
+}
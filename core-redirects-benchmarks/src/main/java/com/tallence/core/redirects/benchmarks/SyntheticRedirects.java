@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 Tallence AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tallence.core.redirects.benchmarks;
+
+import com.coremedia.cap.multisite.Site;
+import com.coremedia.cap.multisite.SiteHelper;
+import com.tallence.core.redirects.cae.service.SiteRedirects;
+import com.tallence.core.redirects.model.SourceUrlType;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Map;
+
+/**
+ * Builds synthetic redirects of a site and the requests matching them.
+ * <ul>
+ *   <li>Plain redirect {@code i} has the source {@code /site/old/page-i}. Every tenth plain redirect additionally
+ *   requires the source parameter {@code campaign=i}.</li>
+ *   <li>Pattern redirect {@code i} has the source {@code /site/section-i/[a-z]+-[0-9]+\.html}.</li>
+ * </ul>
+ */
+final class SyntheticRedirects {
+
+  static final String ROOT_SEGMENT = "/site";
+  static final String CAMPAIGN_PARAMETER = "campaign";
+  static final int PARAMETER_REDIRECT_INTERVAL = 10;
+
+  private SyntheticRedirects() {
+  }
+
+  /**
+   * Creates the redirects of the given site.
+   */
+  static SiteRedirects build(Site site, int plainRedirects, int patternRedirects) {
+    return builder(site, plainRedirects, patternRedirects, 0, 1).build();
+  }
+
+  /**
+   * Returns a builder with the redirects of the given shard of the site: The redirects, whose index modulo the number
+   * of shards is the shard.
+   */
+  static SiteRedirects.Builder builder(Site site, int plainRedirects, int patternRedirects, int shard, int shards) {
+    SiteRedirects.Builder builder = SiteRedirects.builder(site.getId(), (plainRedirects + patternRedirects) / shards);
+    for (int i = shard; i < plainRedirects; i += shards) {
+      Map<String, String> sourceParameters = i % PARAMETER_REDIRECT_INTERVAL == 0 ?
+              Map.of(CAMPAIGN_PARAMETER, String.valueOf(i)) : Map.of();
+      builder.addRedirect(ContentStubs.redirect(2 * i, SourceUrlType.PLAIN, plainPath(i), sourceParameters));
+    }
+    for (int i = shard; i < patternRedirects; i += shards) {
+      builder.addRedirect(ContentStubs.redirect(2 * (plainRedirects + i), SourceUrlType.REGEX,
+              ROOT_SEGMENT + "/section-" + i + "/[a-z]+-[0-9]+\\.html"));
+    }
+    return builder;
+  }
+
+  /**
+   * Returns the source of the plain redirect with the given index.
+   */
+  static String plainPath(int i) {
+    return ROOT_SEGMENT + "/old/page-" + i;
+  }
+
+  /**
+   * Returns a path, which is matched by the pattern redirect with the given index.
+   */
+  static String patternPath(int i) {
+    return ROOT_SEGMENT + "/section-" + i + "/item-" + i + ".html";
+  }
+
+  /**
+   * Returns a path, which is rejected by the source filter of the redirects.
+   */
+  static String unknownPath(int i) {
+    return ROOT_SEGMENT + "/products/shoes/running-" + i;
+  }
+
+  /**
+   * Creates a GET request of the given site.
+   */
+  static MockHttpServletRequest request(Site site, String pathInfo) {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", pathInfo);
+    request.setPathInfo(pathInfo);
+    SiteHelper.setSiteToRequest(site, request);
+    return request;
+  }
+
+  /**
+   * Creates a GET request of the given site, with the given query parameters.
+   */
+  static MockHttpServletRequest request(Site site, String pathInfo, Map<String, String> parameters) {
+    MockHttpServletRequest request = request(site, pathInfo);
+    parameters.forEach(request::addParameter);
+    return request;
+  }
+}
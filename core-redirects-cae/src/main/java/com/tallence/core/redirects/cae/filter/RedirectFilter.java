@@ -18,26 +18,27 @@ package com.tallence.core.redirects.cae.filter;
 import com.coremedia.blueprint.common.contentbeans.CMLinkable;
 import com.coremedia.objectserver.beans.ContentBeanFactory;
 import com.coremedia.objectserver.web.links.LinkFormatter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.tallence.core.redirects.cae.filter.RedirectMatchingService.Result;
 import com.tallence.core.redirects.cae.model.Redirect;
 import com.tallence.core.redirects.model.RedirectTargetParameter;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.UriComponentsBuilder;
 
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
-
-import static org.springframework.web.util.UriUtils.encodeQueryParam;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Filter for the handling of redirects.
@@ -46,23 +47,48 @@ import static org.springframework.web.util.UriUtils.encodeQueryParam;
 public class RedirectFilter implements Filter {
 
   private static final Logger LOG = LoggerFactory.getLogger(RedirectFilter.class);
-  private static final Charset UTF8 = StandardCharsets.UTF_8;
+  private static final int DEFAULT_LOCATION_CACHE_SIZE = 10000;
 
   private final ContentBeanFactory contentBeanFactory;
   private final LinkFormatter linkFormatter;
   private final RedirectMatchingService redirectMatchingService;
   private final boolean keepSourceUrlParams;
 
+  // The request independent parts of the locations of the redirects with a target URL. Redirects are rebuilt, when
+  // they change, so the weak keys expire.
+  private final Cache<Redirect, RedirectLocation> urlLocationCache;
+  // The locations of the redirects with a target document per origin of the request (the link might contain the host).
+  // The link depends on the navigation of the target too (e.g. the segments of its parent channels), which is not
+  // tracked here, so the locations expire after a while. Null, if they are not cached.
+  @Nullable
+  private final Cache<Redirect, ConcurrentMap<String, RedirectLocation>> linkLocationCache;
+
+  public RedirectFilter(ContentBeanFactory contentBeanFactory,
+                        boolean keepSourceUrlParams,
+                        RedirectMatchingService redirectMatchingService,
+                        LinkFormatter linkFormatter) {
+    this(contentBeanFactory, keepSourceUrlParams, DEFAULT_LOCATION_CACHE_SIZE, 0, redirectMatchingService, linkFormatter);
+  }
+
   @Autowired
   public RedirectFilter(ContentBeanFactory contentBeanFactory,
                         @Value("${core.redirects.filter.keepParams:false}")
                         boolean keepSourceUrlParams,
+                        @Value("${core.redirects.filter.locationCacheSize:10000}")
+                        int locationCacheSize,
+                        @Value("${core.redirects.filter.linkCacheTtl:0}")
+                        long linkCacheTtl,
                         RedirectMatchingService redirectMatchingService,
                         LinkFormatter linkFormatter) {
     this.contentBeanFactory = contentBeanFactory;
     this.linkFormatter = linkFormatter;
     this.redirectMatchingService = redirectMatchingService;
     this.keepSourceUrlParams = keepSourceUrlParams;
+    this.urlLocationCache = CacheBuilder.newBuilder().weakKeys().maximumSize(locationCacheSize).build();
+    this.linkLocationCache = linkCacheTtl > 0
+            ? CacheBuilder.newBuilder().weakKeys().maximumSize(locationCacheSize)
+                    .expireAfterWrite(linkCacheTtl, TimeUnit.SECONDS).build()
+            : null;
   }
 
 
@@ -97,7 +123,7 @@ public class RedirectFilter implements Filter {
         Redirect redirect = wrapper.getRedirect();
         sendPermanentRedirect(request, response, redirect);
       } else {
-        // Write cached status code to response
+        // Write the held back status and data to the response, if it is not passed through already
         wrapper.writeOnSuper();
       }
     }
@@ -144,39 +170,67 @@ public class RedirectFilter implements Filter {
     response.setHeader(HttpHeaders.PRAGMA, "no-cache");
     response.setDateHeader(HttpHeaders.EXPIRES, 0);
 
-    String targetLink = Optional.ofNullable(target.getTarget())
-            .map(t -> contentBeanFactory.createBeanFor(t, CMLinkable.class))
-            .map(t -> linkFormatter.formatLink(t, null, request, response, true))
-            .orElse(target.getTargetUrl());
+    RedirectLocation location = getLocation(request, response, target);
+    if (location == null) {
+      LOG.error("Unable to build the link of the target of redirect {}", target);
+      return;
+    }
 
+    String targetLink;
     try {
-      targetLink = handleParameters(request, targetLink, target.getTargetParameters());
+      targetLink = location.toUrl(keepSourceUrlParams ? getKeptQuery(request, target.getTargetParameters()) : "");
     } catch (RuntimeException e) {
       LOG.warn("Error during handling query params [{}] of source url [{}]: [{}]. The query params will be ignored.",
               Arrays.toString(request.getParameterMap().entrySet().toArray()), request.getPathInfo(), e.getMessage());
+      targetLink = location.getLink();
     }
 
     response.setHeader(HttpHeaders.LOCATION, targetLink);
   }
 
-  private String handleParameters(HttpServletRequest request, String targetLink, List<RedirectTargetParameter> targetParameters) {
-    Map<String, String[]> parameterMap = Optional.ofNullable(request.getParameterMap()).orElse(Collections.emptyMap());
-    UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromUriString(targetLink);
-
-    if (keepSourceUrlParams && !parameterMap.isEmpty()) {
-      //Keep the request params if they are not already used by the targetParams of the redirect
-      parameterMap.entrySet().stream()
-              .filter(e -> targetParameters.stream().noneMatch(t -> t.getName().equalsIgnoreCase(e.getKey())))
-              .forEach(e -> mapUrlParam(uriBuilder, e));
+  /**
+   * Returns the request independent parts of the location of the given redirect, from the cache if possible.
+   */
+  @Nullable
+  private RedirectLocation getLocation(HttpServletRequest request, HttpServletResponse response, Redirect redirect) {
+    if (redirect.getTarget() == null) {
+      RedirectLocation location = urlLocationCache.getIfPresent(redirect);
+      if (location == null && redirect.getTargetUrl() != null) {
+        location = RedirectLocation.of(redirect.getTargetUrl(), redirect.getTargetParameters());
+        urlLocationCache.put(redirect, location);
+      }
+      return location;
     }
-    targetParameters.forEach(t -> uriBuilder.queryParam(t.getName(), encodeQueryParam(t.getValue(), UTF8)));
 
-    return uriBuilder.build(true).toString();
+    // Links to contents might be absolute, if the target is in another site
+    String origin = request.getScheme() + "://" + request.getServerName() + ":" + request.getServerPort();
+    ConcurrentMap<String, RedirectLocation> locations = linkLocationCache != null
+            ? linkLocationCache.getIfPresent(redirect) : null;
+    RedirectLocation location = locations != null ? locations.get(origin) : null;
+    if (location == null) {
+      String link = Optional.ofNullable(contentBeanFactory.createBeanFor(redirect.getTarget(), CMLinkable.class))
+              .map(t -> linkFormatter.formatLink(t, null, request, response, true))
+              .orElse(redirect.getTargetUrl());
+      if (link == null) {
+        return null;
+      }
+      location = RedirectLocation.of(link, redirect.getTargetParameters());
+      if (linkLocationCache != null) {
+        linkLocationCache.asMap().computeIfAbsent(redirect, r -> new ConcurrentHashMap<>()).put(origin, location);
+      }
+    }
+    return location;
   }
 
-  private void mapUrlParam(UriComponentsBuilder uriBuilder, Map.Entry<String, String[]> entry) {
-    Arrays.stream(entry.getValue())
-            .map(v -> encodeQueryParam(v, UTF8))
-            .forEach(v -> uriBuilder.queryParam(entry.getKey(), v));
+  /**
+   * Returns the encoded query of the request parameters, which are not overwritten by the target parameters.
+   */
+  private String getKeptQuery(HttpServletRequest request, List<RedirectTargetParameter> targetParameters) {
+    Map<String, String[]> parameterMap = Optional.ofNullable(request.getParameterMap()).orElse(Collections.emptyMap());
+    StringBuilder query = new StringBuilder();
+    parameterMap.entrySet().stream()
+            .filter(e -> targetParameters.stream().noneMatch(t -> t.getName().equalsIgnoreCase(e.getKey())))
+            .forEach(e -> Arrays.stream(e.getValue()).forEach(v -> RedirectLocation.appendQueryParam(query, e.getKey(), v)));
+    return query.toString();
   }
 }
@@ -18,32 +18,45 @@ package com.tallence.core.redirects.cae.filter;
 
 import com.tallence.core.redirects.cae.model.Redirect;
 
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
 import java.io.CharArrayWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.Writer;
 
 /**
  * Internal wrapper class to prevent to response from being committed too early.
  *
- * This wrapper stores all written data in internal variables and prevents them
- * from being written on the wire, so that the final response code can be checked
- * (in this case for a 404) and rewritten.
- * Otherwise, changing the response code would not be possible anymore, once
- * control is returned to the redirect filter.
+ * This wrapper holds back the status and the written data, until it is clear, that the response is not a 404, so that
+ * a 404 can still be rewritten into a redirect, once control is returned to the redirect filter.
+ * The response is passed through to the wrapped response, as soon as
+ * <ul>
+ *   <li>a status other than 404 is set (including errors and redirects) or</li>
+ *   <li>more data is written than the buffer size of the wrapped response, while the status is not 404. The servlet
+ *   container would commit the response at this point, too.</li>
+ * </ul>
+ * Only the data written before that point is buffered, both for {@link #getWriter()} and {@link #getOutputStream()}.
  */
 class RedirectHttpServletResponseWrapper extends HttpServletResponseWrapper {
+  private static final int DEFAULT_BUFFER_SIZE = 8192;
+
   private int tempStatus = 200;
   private String tempMsg;
-  private String tempLocation;
   private boolean isError;
-  private boolean isRedirect;
+  // True, once the status has been passed to the wrapped response
+  private boolean passThrough;
 
   // Reference to the redirect which this wrapper is used for
   private final Redirect redirect;
 
-  private CharArrayWriter writer = new CharArrayWriter();
+  private CharArrayWriter charBuffer;
+  private ByteArrayOutputStream byteBuffer;
+  private PrintWriter writer;
+  private ServletOutputStream outputStream;
 
   public RedirectHttpServletResponseWrapper(HttpServletResponse response, Redirect redirect) {
     super(response);
@@ -56,69 +69,240 @@ class RedirectHttpServletResponseWrapper extends HttpServletResponseWrapper {
 
   @Override
   public void setStatus(int sc) {
+    if (passThrough) {
+      super.setStatus(sc);
+      return;
+    }
     tempStatus = sc;
+    isError = false;
+    if (sc != HttpServletResponse.SC_NOT_FOUND) {
+      passThrough = true;
+      super.setStatus(sc);
+    }
   }
 
   @Override
   public int getStatus() {
-    return tempStatus;
+    return passThrough ? super.getStatus() : tempStatus;
   }
 
   @Override
-  public void sendError(int sc, String msg) {
+  public void sendError(int sc, String msg) throws IOException {
+    if (passThrough || sc != HttpServletResponse.SC_NOT_FOUND) {
+      passThrough = true;
+      discardBuffers();
+      super.sendError(sc, msg);
+      return;
+    }
     tempStatus = sc;
     tempMsg = msg;
     isError = true;
   }
 
   @Override
-  public void sendError(int sc) {
+  public void sendError(int sc) throws IOException {
+    if (passThrough || sc != HttpServletResponse.SC_NOT_FOUND) {
+      passThrough = true;
+      discardBuffers();
+      super.sendError(sc);
+      return;
+    }
     tempStatus = sc;
+    tempMsg = null;
     isError = true;
   }
 
   @Override
-  public void sendRedirect(String location) {
-    tempLocation = location;
-    isRedirect = true;
+  public void sendRedirect(String location) throws IOException {
+    passThrough = true;
+    discardBuffers();
+    super.sendRedirect(location);
   }
 
   @Override
   public PrintWriter getWriter() {
-    return new PrintWriter(writer);
+    if (writer == null) {
+      writer = new PrintWriter(new PassThroughWriter());
+    }
+    return writer;
   }
 
-  public String toString() {
-    return writer.toString();
+  @Override
+  public ServletOutputStream getOutputStream() {
+    if (outputStream == null) {
+      outputStream = new PassThroughOutputStream();
+    }
+    return outputStream;
   }
 
+  @Override
+  public void flushBuffer() throws IOException {
+    //Only flushed after the pass through. This will be called for HEAD requests from the
+    //jakarta.servlet.http.HttpServlet.NoBodyResponse
+    //But it commits the response, which we do not want before the status is known
+    if (passThrough) {
+      drainBuffers();
+      super.flushBuffer();
+    }
+  }
 
   @Override
-  public void flushBuffer() {
-    //Do nothing. This will be called for HEAD requests from the
-    //javax.servlet.http.HttpServlet.NoBodyResponse
-    //But it commits the response, which we do not want in the wrapper
+  public void resetBuffer() {
+    discardBuffers();
+    super.resetBuffer();
+  }
+
+  @Override
+  public void reset() {
+    discardBuffers();
+    if (!passThrough) {
+      tempStatus = 200;
+      tempMsg = null;
+      isError = false;
+    }
+    super.reset();
   }
 
   /**
-   * Writes the stored request on the wire (by writing the data on the super instance,
-   * which writes it to the original request to be sent).
+   * Writes the held back status and data on the wire (by writing the data on the super instance,
+   * which writes it to the original response to be sent).
    */
   public void writeOnSuper() throws IOException {
-    if (isError) {
-      if (tempMsg != null) {
-        super.sendError(tempStatus, tempMsg);
-      } else {
-        super.sendError(tempStatus);
+    if (!passThrough) {
+      passThrough = true;
+      if (isError) {
+        discardBuffers();
+        if (tempMsg != null) {
+          super.sendError(tempStatus, tempMsg);
+        } else {
+          super.sendError(tempStatus);
+        }
+        return;
       }
-    } else if (isRedirect) {
-      super.sendRedirect(tempLocation);
-    } else {
       super.setStatus(tempStatus);
-      String result = writer.toString();
-      super.getWriter().write(result);
     }
+    drainBuffers();
   }
 
+  /**
+   * Switches to the pass through, if the buffered data exceeds the buffer size and the status is not a 404.
+   */
+  private void checkBufferSize(int size) {
+    if (!passThrough && tempStatus != HttpServletResponse.SC_NOT_FOUND && !isError && size > getBufferLimit()) {
+      passThrough = true;
+      super.setStatus(tempStatus);
+    }
+  }
+
+  private int getBufferLimit() {
+    int bufferSize = super.getBufferSize();
+    return bufferSize > 0 ? bufferSize : DEFAULT_BUFFER_SIZE;
+  }
 
+  private void drainBuffers() throws IOException {
+    if (charBuffer != null && charBuffer.size() > 0) {
+      charBuffer.writeTo(super.getWriter());
+    }
+    if (byteBuffer != null && byteBuffer.size() > 0) {
+      byteBuffer.writeTo(super.getOutputStream());
+    }
+    charBuffer = null;
+    byteBuffer = null;
+  }
+
+  private void discardBuffers() {
+    charBuffer = null;
+    byteBuffer = null;
+  }
+
+  /**
+   * Buffers the written characters until the pass through, afterwards they are written on the wrapped writer.
+   */
+  private class PassThroughWriter extends Writer {
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+      boolean buffered = !passThrough;
+      if (buffered) {
+        if (charBuffer == null) {
+          charBuffer = new CharArrayWriter();
+        }
+        charBuffer.write(cbuf, off, len);
+        checkBufferSize(charBuffer.size());
+      }
+      if (passThrough) {
+        drainBuffers();
+        if (!buffered) {
+          RedirectHttpServletResponseWrapper.super.getWriter().write(cbuf, off, len);
+        }
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      if (passThrough) {
+        drainBuffers();
+        RedirectHttpServletResponseWrapper.super.getWriter().flush();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      // Closing would commit the response, it is completed by the filter
+      flush();
+    }
+  }
+
+  /**
+   * Buffers the written bytes until the pass through, afterwards they are written on the wrapped output stream.
+   */
+  private class PassThroughOutputStream extends ServletOutputStream {
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      boolean buffered = !passThrough;
+      if (buffered) {
+        if (byteBuffer == null) {
+          byteBuffer = new ByteArrayOutputStream();
+        }
+        byteBuffer.write(b, off, len);
+        checkBufferSize(byteBuffer.size());
+      }
+      if (passThrough) {
+        drainBuffers();
+        if (!buffered) {
+          RedirectHttpServletResponseWrapper.super.getOutputStream().write(b, off, len);
+        }
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      if (passThrough) {
+        drainBuffers();
+        RedirectHttpServletResponseWrapper.super.getOutputStream().flush();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      // Closing would commit the response, it is completed by the filter
+      flush();
+    }
+
+    @Override
+    public boolean isReady() {
+      return true;
+    }
+
+    @Override
+    public void setWriteListener(WriteListener writeListener) {
+      throw new UnsupportedOperationException("Non blocking IO is not supported for responses, which might be redirected");
+    }
+  }
 }
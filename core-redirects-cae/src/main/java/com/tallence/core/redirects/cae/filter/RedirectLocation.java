@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 Tallence AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tallence.core.redirects.cae.filter;
+
+import com.tallence.core.redirects.model.RedirectTargetParameter;
+
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.web.util.UriUtils.encodeQueryParam;
+
+/**
+ * The request independent parts of a redirect location: The link of the target and the encoded query of the
+ * {@link RedirectTargetParameter target parameters}. Request parameters, which are kept, are inserted in between.
+ */
+class RedirectLocation {
+
+  private final String link;
+  private final String targetQuery;
+  private final String fragment;
+
+  private RedirectLocation(String link, String targetQuery, String fragment) {
+    this.link = link;
+    this.targetQuery = targetQuery;
+    this.fragment = fragment;
+  }
+
+  /**
+   * @param link the already encoded link of the target, which might contain a query and a fragment.
+   */
+  static RedirectLocation of(String link, List<RedirectTargetParameter> targetParameters) {
+    int hash = link.indexOf('#');
+    StringBuilder targetQuery = new StringBuilder();
+    targetParameters.stream()
+            .filter(t -> t.getName() != null && t.getValue() != null)
+            .forEach(t -> appendQueryParam(targetQuery, t.getName(), t.getValue()));
+    return new RedirectLocation(hash < 0 ? link : link.substring(0, hash), targetQuery.toString(),
+            hash < 0 ? "" : link.substring(hash));
+  }
+
+  /**
+   * Appends the given parameter to the query, both name and value are encoded.
+   */
+  static void appendQueryParam(StringBuilder query, String name, String value) {
+    if (query.length() > 0) {
+      query.append('&');
+    }
+    query.append(encodeQueryParam(name, UTF_8)).append('=').append(encodeQueryParam(value, UTF_8));
+  }
+
+  /**
+   * Returns the link of the target without any parameters.
+   */
+  String getLink() {
+    return link + fragment;
+  }
+
+  /**
+   * Returns the location with the given (encoded) request query, followed by the target parameters.
+   */
+  String toUrl(CharSequence requestQuery) {
+    if (requestQuery.length() == 0 && targetQuery.isEmpty()) {
+      return getLink();
+    }
+    StringBuilder url = new StringBuilder(link.length() + requestQuery.length() + targetQuery.length() + fragment.length() + 2);
+    url.append(link);
+    appendQuery(url, requestQuery);
+    appendQuery(url, targetQuery);
+    return url.append(fragment).toString();
+  }
+
+  private static void appendQuery(StringBuilder url, CharSequence query) {
+    if (query.length() > 0) {
+      if (url.indexOf("?") < 0) {
+        url.append('?');
+      } else if (url.charAt(url.length() - 1) != '?' && url.charAt(url.length() - 1) != '&') {
+        url.append('&');
+      }
+      url.append(query);
+    }
+  }
+}
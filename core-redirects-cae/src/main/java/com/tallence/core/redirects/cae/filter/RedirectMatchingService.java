@@ -34,6 +34,8 @@ public interface RedirectMatchingService {
       NONE, SEND, WRAP
     }
 
+    private static final Result NONE = new Result(null, Action.NONE);
+
     private final Redirect redirect;
     private final Action action;
 
@@ -51,7 +53,7 @@ public interface RedirectMatchingService {
     }
 
     static Result none() {
-      return new Result(null, Action.NONE);
+      return NONE;
     }
 
     public Redirect getRedirect() {
@@ -16,13 +16,12 @@
 package com.tallence.core.redirects.cae.filter;
 
 import com.coremedia.blueprint.base.multisite.cae.SiteResolver;
-import com.coremedia.cap.content.Content;
 import com.coremedia.cap.multisite.Site;
 import com.coremedia.cap.multisite.SiteHelper;
 import com.tallence.core.redirects.cae.model.Redirect;
 import com.tallence.core.redirects.cae.service.RedirectService;
 import com.tallence.core.redirects.cae.service.SiteRedirects;
-import com.tallence.core.redirects.model.RedirectSourceParameter;
+import com.tallence.core.redirects.cae.service.util.LowerCasePath;
 import com.tallence.core.redirects.model.RedirectType;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
@@ -33,12 +32,6 @@ import org.springframework.util.StringUtils;
 
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.*;
-import java.util.function.Function;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-
-import static com.coremedia.cap.common.IdHelper.parseContentId;
-import static java.util.Map.Entry.comparingByKey;
 
 /**
  * Default Strategy to select a redirect in the {@link SiteRedirects} which matches the given request.
@@ -124,19 +117,23 @@ public class RedirectMatchingServiceImpl implements RedirectMatchingService {
       return Result.none();
     }
 
-    var pathInfo = request.getPathInfo().toLowerCase();
-    if (pathInfo.endsWith("/")) {
-      pathInfo = pathInfo.substring(0, pathInfo.length() - 1);
+    // Most requests have no redirect: Skip the lookups before creating any objects for them.
+    if (!redirects.mightHaveRedirect(request.getPathInfo())) {
+      return Result.none();
     }
 
-    var redirect = Optional.ofNullable(redirects.getPlainRedirects().get(pathInfo))
-            .map(list -> checkUrlParams(list, request)).orElse(null);
+    // The sources are matched in lower case and without a trailing slash, without a copy for the most paths.
+    var pathInfo = LowerCasePath.of(request.getPathInfo());
+
+    Redirect redirect = null;
+    var plainRedirects = redirects.findPlainRedirects(pathInfo);
+    if (plainRedirects != null) {
+      redirect = checkUrlParams(plainRedirects, request);
+    }
     if (redirect == null) {
-      for (Map.Entry<Pattern, List<Redirect>> patternRedirect : redirects.getPatternRedirects().entrySet()) {
-        if (patternRedirect.getKey().matcher(pathInfo).matches()) {
-          redirect = checkUrlParams(patternRedirect.getValue(), request);
-          break;
-        }
+      var patternRedirects = redirects.findPatternRedirects(pathInfo);
+      if (patternRedirects != null) {
+        redirect = checkUrlParams(patternRedirects, request);
       }
     }
     if (redirect != null) {
@@ -149,58 +146,30 @@ public class RedirectMatchingServiceImpl implements RedirectMatchingService {
    * Resolve a redirect in the given list.
    * A redirect is chosen, if all of its url parameters match the given request.
    *
-   * If more than one redirect match: Use the redirect with the highest number of (matching) sourceUrlParams.
+   * The list is sorted by the {@link SiteRedirects#MATCH_ORDER}, so the first matching redirect wins: The one with
+   * the highest number of (matching) sourceUrlParams and then the one with the highest
+   * {@link Redirect#getPriority() priority}.
    *
    * @param potentialRedirects redirects which match the request path.
    * @param request the request
    */
   protected Redirect checkUrlParams(@NonNull List<Redirect> potentialRedirects, HttpServletRequest request) {
 
-    final var requestParameterMap = request.getParameterMap();
-    List<Redirect> redirects = potentialRedirects.stream()
-            .filter(r -> r.getSourceParameters().stream().allMatch(s -> matchesSourceParam(s, requestParameterMap)))
-            .filter(r -> r.getTarget() == null || isTargetValid(r.getTarget()))
-            .collect(Collectors.toList());
-    if (redirects.size() <= 1) {
-      return redirects.size() == 1 ? redirects.get(0) : null;
-    }
-
-    //More than one potential redirect left: pick the one, with the highest amount of parameters.
-    //If more than one redirect has the same number of parameters: to be deterministic, pick the one with the lowest contentId
-    final var numberOfParams = redirects.stream()
-            .collect(Collectors.toMap(r -> r.getSourceParameters().size(), Function.identity(),
-                    (o, o2) -> parseContentId(o.getContentId()) < parseContentId(o2.getContentId()) ? o : o2));
-    return numberOfParams.entrySet()
-            .stream().max(comparingByKey())
-            .map(Map.Entry::getValue)
-            .orElse(null);
-  }
-
-  private boolean matchesSourceParam(RedirectSourceParameter sourceParameter, Map<String, String[]> requestParameterMap) {
-
-    if (!RedirectSourceParameter.Operator.EQUALS.equals(sourceParameter.getOperator())) {
-      LOG.error("No other operator than EQUALS is currently supported");
-      return false;
-    }
-
-    return Optional.ofNullable(requestParameterMap.get(sourceParameter.getName()))
-            .stream()
-            .flatMap(Arrays::stream)
-            .anyMatch(v -> v.equalsIgnoreCase(sourceParameter.getValue()));
-  }
-
-  /**
-   * Cannot use the {@link com.coremedia.blueprint.common.services.validation.ValidationService}
-   * because it does not work with content objects.
-   * @return true, if the target is valid
-   */
-  private boolean isTargetValid(Content targetLink) {
-    Calendar now = Calendar.getInstance();
-    Calendar validFrom = targetLink.getDate("validFrom");
-    if (validFrom != null && validFrom.after(now)) {
-      return false;
+    final long now = System.currentTimeMillis();
+    Map<String, String[]> requestParameterMap = null;
+    for (Redirect redirect : potentialRedirects) {
+      if (!redirect.getSourceParameters().isEmpty()) {
+        if (requestParameterMap == null) {
+          requestParameterMap = request.getParameterMap();
+        }
+        if (!redirect.matchesSourceParameters(requestParameterMap)) {
+          continue;
+        }
+      }
+      if (redirect.isTargetValid(now)) {
+        return redirect;
+      }
     }
-    Calendar validTo = targetLink.getDate("validTo");
-    return validTo == null || validTo.after(now);
+    return null;
   }
 }
@@ -22,9 +22,13 @@ import com.tallence.core.redirects.model.RedirectTargetParameter;
 import com.tallence.core.redirects.model.RedirectType;
 import com.tallence.core.redirects.model.SourceUrlType;
 import edu.umd.cs.findbugs.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.util.StringUtils;
 
+import java.util.Calendar;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 
@@ -34,6 +38,8 @@ import java.util.Objects;
  */
 public class Redirect {
 
+  private static final Logger LOG = LoggerFactory.getLogger(Redirect.class);
+
   public static final String NAME = "Redirect";
   public static final String TARGET_LINK = "targetLink";
   public static final String TARGET_URL = "targetUrl";
@@ -41,6 +47,9 @@ public class Redirect {
 
   private static final String SOURCE_URL_TYPE = "sourceUrlType";
   private static final String REDIRECT_TYPE = "redirectType";
+  private static final String PRIORITY = "priority";
+  private static final String VALID_FROM = "validFrom";
+  private static final String VALID_TO = "validTo";
 
   private final String contentId;
   private final SourceUrlType sourceUrlType;
@@ -48,24 +57,107 @@ public class Redirect {
   private final RedirectType redirectType;
   private final Content target;
   private final String targetUrl;
+  private final int priority;
+  // The validity of the target in epoch millis, captured when the redirect is built
+  private final long targetValidFrom;
+  private final long targetValidTo;
   private final List<RedirectSourceParameter> sourceParameters;
   private final List<RedirectTargetParameter> targetParameters;
 
+  // The names and values of the sourceParameters, which are compared with every request
+  private final String[] sourceParameterNames;
+  private final String[] sourceParameterValues;
+  private final boolean sourceParametersSupported;
+
   public Redirect(Content redirect, String rootSegment) {
-    contentId = redirect.getId();
-    sourceUrlType = SourceUrlType.asSourceUrlType(redirect.getString(SOURCE_URL_TYPE));
-    String sourcePath = redirect.getString(SOURCE_URL);
-    if (sourcePath.startsWith(rootSegment)) {
-      source = sourcePath;
-    } else {
-      source = rootSegment + sourcePath;
+    this(redirect.getId(),
+            SourceUrlType.asSourceUrlType(redirect.getString(SOURCE_URL_TYPE)),
+            withRootSegment(redirect.getString(SOURCE_URL), rootSegment),
+            RedirectType.asRedirectType(redirect.getString(REDIRECT_TYPE)),
+            redirect.getLink(TARGET_LINK),
+            redirect.getString(TARGET_URL),
+            redirect.getInt(PRIORITY),
+            targetValidity(redirect.getLink(TARGET_LINK), VALID_FROM, Long.MIN_VALUE),
+            targetValidity(redirect.getLink(TARGET_LINK), VALID_TO, Long.MAX_VALUE),
+            RedirectHelper.getSourceParameters(redirect),
+            RedirectHelper.getTargetParameters(redirect));
+  }
+
+  /**
+   * Creates a redirect from the already resolved properties, e.g. when it is read from a
+   * {@link com.tallence.core.redirects.cae.service.SiteRedirectsSnapshotStore snapshot}. The source must already
+   * contain the root segment of the site.
+   */
+  public Redirect(String contentId, SourceUrlType sourceUrlType, String source, RedirectType redirectType,
+                  @Nullable Content target, @Nullable String targetUrl, int priority,
+                  long targetValidFrom, long targetValidTo,
+                  List<RedirectSourceParameter> sourceParameters, List<RedirectTargetParameter> targetParameters) {
+    this.contentId = contentId;
+    this.sourceUrlType = sourceUrlType;
+    this.source = source;
+    this.redirectType = redirectType;
+    this.target = target;
+    this.targetUrl = targetUrl;
+    this.priority = priority;
+    this.targetValidFrom = targetValidFrom;
+    this.targetValidTo = targetValidTo;
+    this.sourceParameters = sourceParameters;
+    this.targetParameters = targetParameters;
+
+    sourceParameterNames = sourceParameters.stream().map(RedirectSourceParameter::getName).toArray(String[]::new);
+    sourceParameterValues = sourceParameters.stream().map(RedirectSourceParameter::getValue).toArray(String[]::new);
+    sourceParametersSupported = sourceParameters.stream()
+            .allMatch(p -> RedirectSourceParameter.Operator.EQUALS.equals(p.getOperator()));
+    if (!sourceParametersSupported) {
+      LOG.error("No other operator than EQUALS is currently supported, redirect {} will never match", contentId);
+    }
+  }
+
+  private static String withRootSegment(String sourcePath, String rootSegment) {
+    return sourcePath.startsWith(rootSegment) ? sourcePath : rootSegment + sourcePath;
+  }
+
+  private static long targetValidity(@Nullable Content target, String property, long defaultValue) {
+    return target != null ? toMillis(target.getDate(property), defaultValue) : defaultValue;
+  }
+
+  private static long toMillis(@Nullable Calendar date, long defaultValue) {
+    return date != null ? date.getTimeInMillis() : defaultValue;
+  }
+
+  /**
+   * Returns true, if the {@link #getTarget() target} is valid at the given time (in epoch millis), according to its
+   * validFrom and validTo dates at the time the redirect was built. Redirects without a target are always valid.
+   * <p>
+   * Cannot use the {@link com.coremedia.blueprint.common.services.validation.ValidationService}
+   * because it does not work with content objects.
+   */
+  public boolean isTargetValid(long now) {
+    return targetValidFrom <= now && now < targetValidTo;
+  }
+
+  /**
+   * Returns true, if the given request parameters contain all {@link #getSourceParameters() source parameters}. The
+   * values are compared case-insensitively.
+   */
+  public boolean matchesSourceParameters(Map<String, String[]> requestParameters) {
+    for (int i = 0; i < sourceParameterNames.length; i++) {
+      if (!containsIgnoreCase(requestParameters.get(sourceParameterNames[i]), sourceParameterValues[i])) {
+        return false;
+      }
     }
-    redirectType = RedirectType.asRedirectType(redirect.getString(REDIRECT_TYPE));
-    target = redirect.getLink(TARGET_LINK);
-    targetUrl = redirect.getString(TARGET_URL);
+    return sourceParametersSupported;
+  }
 
-    sourceParameters = RedirectHelper.getSourceParameters(redirect);
-    targetParameters = RedirectHelper.getTargetParameters(redirect);
+  private static boolean containsIgnoreCase(@Nullable String[] values, String value) {
+    if (values != null) {
+      for (String v : values) {
+        if (v.equalsIgnoreCase(value)) {
+          return true;
+        }
+      }
+    }
+    return false;
   }
 
   /**
@@ -119,6 +211,28 @@ public class Redirect {
     return redirectType;
   }
 
+  /**
+   * Returns the priority of the redirect. If more than one redirect matches a request, the one with the highest
+   * priority wins.
+   */
+  public int getPriority() {
+    return priority;
+  }
+
+  /**
+   * Returns the validFrom date of the {@link #getTarget() target} in epoch millis, {@link Long#MIN_VALUE} if it has none.
+   */
+  public long getTargetValidFrom() {
+    return targetValidFrom;
+  }
+
+  /**
+   * Returns the validTo date of the {@link #getTarget() target} in epoch millis, {@link Long#MAX_VALUE} if it has none.
+   */
+  public long getTargetValidTo() {
+    return targetValidTo;
+  }
+
   public List<RedirectSourceParameter> getSourceParameters() {
     return sourceParameters;
   }
@@ -25,7 +25,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Listener for updates to the redirects.
+ * Listener for updates to the redirects and to their targets.
  */
 public class RedirectContentListener extends ContentRepositoryListenerBase {
 
@@ -39,6 +39,12 @@ public class RedirectContentListener extends ContentRepositoryListenerBase {
 
   @Override
   protected void handleContentEvent(ContentEvent event) {
+    handleRedirectEvent(event);
+    // All events up to this one have been passed to the scheduler
+    redirectUpdateTaskScheduler.setTimestamp(event.getTimestamp());
+  }
+
+  private void handleRedirectEvent(ContentEvent event) {
     Content content = event.getContent();
 
     if (event instanceof ContentDestroyedEvent) {
@@ -71,6 +77,18 @@ public class RedirectContentListener extends ContentRepositoryListenerBase {
           // FIXME What to do here??
           break;
       }
+    } else if (!content.isDestroyed()) {
+
+      switch (event.getType()) {
+        case ContentRepositoryEventConstants.CONTENT_CHECKED_IN:
+        case ContentRepositoryEventConstants.CONTENT_UNDELETED:
+        case ContentRepositoryEventConstants.CONTENT_REVERTED:
+          // The validity of a target might have changed
+          redirectUpdateTaskScheduler.runTargetUpdate(content);
+          // The root segment of a site might have changed
+          redirectUpdateTaskScheduler.runSiteRootUpdate(content);
+          break;
+      }
     }
   }
 
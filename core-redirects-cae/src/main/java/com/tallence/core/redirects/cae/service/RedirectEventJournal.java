@@ -0,0 +1,147 @@
+/*
+ * Copyright 2019 Tallence AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tallence.core.redirects.cae.service;
+
+import com.coremedia.cap.common.Timestamp;
+import com.coremedia.cap.multisite.Site;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded journal of the redirect events received by the CAE. Every event gets a position in the order it was
+ * received. The journal keeps the last {@code capacity} events and, per site, the position up to which the cached
+ * redirects of the site contain all events.
+ * <p>
+ * It is used to bring the redirects of a site up to date by reading only the redirects, which changed since a
+ * position, instead of indexing the whole site again. The repository timestamps of the positions are kept as well, so
+ * the redirects can be stored with the timestamp, from which the events must be replayed after a restart.
+ */
+class RedirectEventJournal {
+
+  private final int capacity;
+  private final Object appendLock = new Object();
+  // The position of the latest event, which is contained in the entries. Only written while holding the lock, so a
+  // reader never sees a position before its entry has been added.
+  private volatile long position;
+  // Events up to this position have been evicted
+  private final AtomicLong evictedPosition = new AtomicLong();
+  private final ConcurrentNavigableMap<Long, Entry> entries = new ConcurrentSkipListMap<>();
+  private final ConcurrentMap<Site, Long> processedPositions = new ConcurrentHashMap<>();
+  // The latest repository timestamp of each position: all events up to the timestamp have been appended up to the
+  // position.
+  private final ConcurrentNavigableMap<Long, Timestamp> timestamps = new ConcurrentSkipListMap<>();
+
+  RedirectEventJournal(int capacity) {
+    this.capacity = Math.max(1, capacity);
+  }
+
+  /**
+   * Adds an event of the redirect with the given id to the journal and returns its position.
+   */
+  long append(Site site, String contentId) {
+    synchronized (appendLock) {
+      long appended = position + 1;
+      entries.put(appended, new Entry(site, contentId));
+      position = appended;
+      long evicted = appended - capacity;
+      if (evicted > 0) {
+        evictedPosition.accumulateAndGet(evicted, Math::max);
+        entries.headMap(evicted, true).clear();
+        // The timestamp of the evicted positions is kept for the first remaining one, which has no newer timestamp
+        Map.Entry<Long, Timestamp> timestamp = timestamps.floorEntry(evicted);
+        if (timestamp != null) {
+          timestamps.put(evicted, timestamp.getValue());
+          timestamps.headMap(evicted, false).clear();
+        }
+      }
+      return appended;
+    }
+  }
+
+  /**
+   * Returns the position of the latest event. All events up to the position can be read from the journal.
+   */
+  long getPosition() {
+    return position;
+  }
+
+  /**
+   * Records, that all events up to the given repository timestamp have been appended to the journal.
+   */
+  void setTimestamp(Timestamp timestamp) {
+    synchronized (appendLock) {
+      timestamps.put(position, timestamp);
+    }
+  }
+
+  /**
+   * Returns the repository timestamp, up to which all events have been appended at the given position. Returns an
+   * empty optional, if no timestamp has been recorded up to the position or if it has been evicted.
+   */
+  Optional<Timestamp> getTimestamp(long position) {
+    Optional<Timestamp> timestamp = Optional.ofNullable(timestamps.floorEntry(position)).map(Map.Entry::getValue);
+    // Checked after reading, the timestamp might have been evicted in the meantime
+    return contains(position) ? timestamp : Optional.empty();
+  }
+
+  /**
+   * Returns the ids of the redirects of the given site, which changed after the given position, in the order of their
+   * first change. Returns an empty optional, if the journal does not contain all events since the position anymore.
+   */
+  Optional<Set<String>> getContentIdsSince(Site site, long since) {
+    Set<String> contentIds = new LinkedHashSet<>();
+    entries.tailMap(since, false).values().stream()
+            .filter(entry -> entry.site().equals(site))
+            .forEach(entry -> contentIds.add(entry.contentId()));
+    // Checked after reading, the entries might have been evicted in the meantime
+    return contains(since) ? Optional.of(contentIds) : Optional.empty();
+  }
+
+  /**
+   * Returns true, if the journal contains all events after the given position.
+   */
+  boolean contains(long since) {
+    return since >= evictedPosition.get();
+  }
+
+  /**
+   * Returns the position, up to which the cached redirects of the given site contain all events.
+   */
+  OptionalLong getProcessedPosition(Site site) {
+    Long processed = processedPositions.get(site);
+    return processed != null ? OptionalLong.of(processed) : OptionalLong.empty();
+  }
+
+  void setProcessedPosition(Site site, long processed) {
+    processedPositions.put(site, processed);
+  }
+
+  void removeProcessedPosition(Site site) {
+    processedPositions.remove(site);
+  }
+
+  private record Entry(Site site, String contentId) {
+  }
+}
@@ -33,4 +33,13 @@ public interface RedirectService {
   @NonNull
   SiteRedirects getRedirectsForSite(@Nullable Site site);
 
+  /**
+   * Returns the state of the redirects of the given site.
+   *
+   * @param site the site marker.
+   * @return the state, e.g. {@link SiteIndexState#STALE}, while the previous redirects are served during a re-index.
+   */
+  @NonNull
+  SiteIndexState getIndexState(@NonNull Site site);
+
 }
@@ -15,6 +15,7 @@
  */
 package com.tallence.core.redirects.cae.service;
 
+import com.coremedia.cap.common.Timestamp;
 import com.coremedia.cap.content.ContentRepository;
 import com.coremedia.cap.multisite.Site;
 import com.coremedia.cap.multisite.SitesService;
@@ -26,6 +27,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
 
 /**
@@ -36,28 +40,52 @@ public class RedirectServiceImpl implements RedirectService {
 
   private static final Logger LOG = LoggerFactory.getLogger(RedirectServiceImpl.class);
 
+  // Immutable, so it is shared by all requests without redirects
+  private static final SiteRedirects NO_REDIRECTS = new SiteRedirects();
+
   private final ContentRepository contentRepository;
   private final ConcurrentMap<Site, SiteRedirects> redirectsCache;
   private final RedirectUpdateTaskScheduler redirectUpdateTaskScheduler;
   private final SitesService sitesService;
+  private final SiteRedirectsSnapshotStore snapshotStore;
 
   @Autowired
   public RedirectServiceImpl(ContentRepository contentRepository, ConcurrentMap<Site, SiteRedirects> redirectsCache,
                              RedirectUpdateTaskScheduler redirectUpdateTaskScheduler,
-                             SitesService sitesService) {
+                             SitesService sitesService, SiteRedirectsSnapshotStore snapshotStore) {
     this.contentRepository = contentRepository;
     this.redirectsCache = redirectsCache;
     this.redirectUpdateTaskScheduler = redirectUpdateTaskScheduler;
     this.sitesService = sitesService;
+    this.snapshotStore = snapshotStore;
   }
 
   @PostConstruct
   public void init() {
+    Map<Site, SiteRedirectsSnapshotStore.Snapshot> snapshots = new LinkedHashMap<>();
+    sitesService.getSites().stream().filter(Site::isReadable)
+            .forEach(site -> snapshotStore.load(site).ifPresent(snapshot -> snapshots.put(site, snapshot)));
+    // The timestamps cannot be compared, the events are replayed from the timestamp of the latest snapshot. It is old
+    // enough for all snapshots of its run, the snapshots with another timestamp (e.g. left over from an earlier run)
+    // might miss events before it and are indexed again.
+    Timestamp replayFrom = snapshots.values().stream()
+            .max(Comparator.comparingLong(SiteRedirectsSnapshotStore.Snapshot::savedAt))
+            .map(SiteRedirectsSnapshotStore.Snapshot::timestamp)
+            .orElse(null);
+
     // Prewarm redirect cache to prevent longer initial requests.
-    sitesService.getSites().stream().filter(Site::isReadable).forEach(this::initiateRedirects);
+    sitesService.getSites().stream().filter(Site::isReadable)
+            .forEach(site -> initiateRedirects(site, snapshots.get(site), replayFrom));
 
-    // Attach the content listener
-    contentRepository.addContentRepositoryListener(new RedirectContentListener(redirectUpdateTaskScheduler));
+    // Attach the content listener. The events since the snapshots are replayed, before the new ones are received.
+    RedirectContentListener listener = new RedirectContentListener(redirectUpdateTaskScheduler);
+    if (replayFrom != null) {
+      LOG.info("Replaying the content events since {} onto the redirects of the snapshots", replayFrom);
+      redirectUpdateTaskScheduler.setTimestamp(replayFrom);
+      contentRepository.addContentRepositoryListener(listener, replayFrom);
+    } else {
+      contentRepository.addContentRepositoryListener(listener);
+    }
   }
 
   /**
@@ -69,27 +97,48 @@ public class RedirectServiceImpl implements RedirectService {
   public SiteRedirects getRedirectsForSite(@Nullable Site site) {
     // If no site was found, return an empty result.
     if (site == null) {
-      return new SiteRedirects();
+      return NO_REDIRECTS;
     }
     SiteRedirects redirects = redirectsCache.get(site);
     if (redirects ==  null) {
       LOG.warn("No Redirects structure exists for site [{}]. Returning empty Redirects. This is probably caused by " +
               "requests received before the initial siteUpdate jobs was finished. Request-threads should not wait for " +
               "the job to finish to prevent an overflowing request-threadPool. Consider more time for the cae to warm " +
-              "up before being put back in the load-balancing.", site.getId());
-      return new SiteRedirects();
+              "up before being put back in the load-balancing or enable core.redirects.readiness.waitForIndex.", site.getId());
+      return NO_REDIRECTS;
     } else {
       return redirects;
     }
 
   }
 
-  private void initiateRedirects(Site site) {
+  /**
+   * Returns the state of the redirects of the given site.
+   * @see RedirectService
+   */
+  @NonNull
+  @Override
+  public SiteIndexState getIndexState(@NonNull Site site) {
+    return redirectUpdateTaskScheduler.getIndexState(site);
+  }
+
+  private void initiateRedirects(Site site, @Nullable SiteRedirectsSnapshotStore.Snapshot snapshot,
+                                 @Nullable Timestamp replayFrom) {
     try {
-      // Calc site (or fetch from drive)
+      // The timestamps are compared in the form, in which they are stored
+      if (snapshot != null && snapshot.timestamp() != null && replayFrom != null
+              && replayFrom.toString().equals(snapshot.timestamp().toString())) {
+        // The changes since the snapshot are caught up from the replayed events, instead of indexing the whole site
+        redirectUpdateTaskScheduler.restore(site, snapshot);
+        return;
+      }
+      // Serve the redirects of the last run from the disk, until the site is indexed again. Changes since the snapshot
+      // are caught up by the full index build.
+      if (snapshot != null) {
+        redirectsCache.putIfAbsent(site, snapshot.redirects());
+      }
       LOG.debug("Missing site {} in cache, queueing fetch", site);
       redirectUpdateTaskScheduler.runUpdate(site);
-      // FIXME Possible add fetch from disk here (or another speed-fix)
     } catch (Exception e) {
       LOG.error("Error during fetching redirects for site [{}]", site.getId(), e);
     }
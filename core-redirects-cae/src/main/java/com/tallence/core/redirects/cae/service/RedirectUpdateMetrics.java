@@ -0,0 +1,78 @@
+/*
+ * Copyright 2019 Tallence AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tallence.core.redirects.cae.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The metrics of the work queues of the {@link RedirectUpdateTaskScheduler}:
+ * <ul>
+ *   <li>{@code core.redirects.queue.size}: The number of waiting tasks per queue ({@code item} or {@code site}). On
+ *   virtual threads, the number of tasks waiting for the content server ({@code content-server}).</li>
+ *   <li>{@code core.redirects.queue.wait}: The time the tasks waited in their queue.</li>
+ *   <li>{@code core.redirects.queue.collapsed}: The item updates, which were collapsed into a site update, because the
+ *   item queue was full.</li>
+ *   <li>{@code core.redirects.queue.rejected}: The site updates, which were postponed, because the site queue was
+ *   full.</li>
+ *   <li>{@code core.redirects.journal.overflows}: The sites, which were indexed again, because they changed more often
+ *   than the event journal could keep.</li>
+ * </ul>
+ */
+class RedirectUpdateMetrics {
+
+  static final String ITEM_QUEUE = "item";
+  static final String SITE_QUEUE = "site";
+  static final String CONTENT_SERVER_QUEUE = "content-server";
+
+  private final MeterRegistry registry;
+
+  RedirectUpdateMetrics(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  <T> void monitorQueue(String queueName, T queue, ToDoubleFunction<T> size) {
+    registry.gauge("core.redirects.queue.size", Tags.of("queue", queueName), queue, size);
+  }
+
+  /**
+   * Returns the given task, which records its waiting time when it starts.
+   */
+  Runnable timed(String queueName, Runnable task) {
+    Timer timer = registry.timer("core.redirects.queue.wait", "queue", queueName);
+    long queuedAt = System.nanoTime();
+    return () -> {
+      timer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+      task.run();
+    };
+  }
+
+  void collapsed() {
+    registry.counter("core.redirects.queue.collapsed").increment();
+  }
+
+  void rejected() {
+    registry.counter("core.redirects.queue.rejected").increment();
+  }
+
+  void journalOverflow() {
+    registry.counter("core.redirects.journal.overflows").increment();
+  }
+}
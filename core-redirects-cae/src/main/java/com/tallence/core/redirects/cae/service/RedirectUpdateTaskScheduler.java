@@ -15,41 +15,96 @@
  */
 package com.tallence.core.redirects.cae.service;
 
+import com.coremedia.cap.common.Timestamp;
 import com.coremedia.cap.content.Content;
 import com.coremedia.cap.content.ContentRepository;
 import com.coremedia.cap.multisite.Site;
 import com.coremedia.cap.multisite.SitesService;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
-import com.tallence.core.redirects.cae.service.tasks.DestroyDocumentTask;
-import com.tallence.core.redirects.cae.service.tasks.RemoveDocumentTask;
-import com.tallence.core.redirects.cae.service.tasks.UpdateDocumentTask;
+import com.tallence.core.redirects.cae.service.tasks.CatchUpSiteTask;
 import com.tallence.core.redirects.cae.service.tasks.UpdateSiteTask;
-import com.tallence.core.redirects.cae.service.util.ControllingThreadPoolExecutorService;
-import com.tallence.core.redirects.cae.service.util.PausableThreadPoolExecutorService;
 import edu.umd.cs.findbugs.annotations.Nullable;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 @Service
 public class RedirectUpdateTaskScheduler {
 
   private static final Logger LOG = LoggerFactory.getLogger(RedirectUpdateTaskScheduler.class);
 
+  // The delay before a site update, which was rejected by the full site queue, is submitted again
+  private static final long REJECTED_SITE_UPDATE_DELAY = 5;
+
   private final SitesService sitesService;
   private final ContentRepository contentRepository;
   private final ConcurrentMap<Site, SiteRedirects> redirectsCache;
   private final String redirectsPath;
+  private final SiteRedirectsSnapshotStore snapshotStore;
+  private final RedirectEventJournal eventJournal;
+
+  // The sites, which are queued for a site update. Their events are caught up afterwards.
+  private final Set<Site> pendingSiteUpdates = ConcurrentHashMap.newKeySet();
+  // The sites, whose next site update indexes the whole site, even if their events could be caught up
+  private final Set<Site> fullSiteUpdates = ConcurrentHashMap.newKeySet();
+  // The sites, which have changed redirects waiting for the end of the batch window.
+  private final Set<Site> pendingItemUpdates = ConcurrentHashMap.newKeySet();
+  // The updates of a site are applied one after another, so an older state of a redirect never overwrites a newer one.
+  // Locks instead of monitors, which would pin the carrier threads of virtual threads while waiting for the content server.
+  private final ConcurrentMap<Site, ReentrantLock> siteLocks = new ConcurrentHashMap<>();
+  private final long batchWindow;
+  // The positions, up to which the stored snapshots and the snapshots of the running site updates contain all events
+  private final Map<Site, Long> snapshotPositions = new HashMap<>();
+  private final Map<Site, Long> indexingPositions = new HashMap<>();
+  private final ReentrantLock snapshotLock = new ReentrantLock();
+  // The root segment of each site, when it was indexed. It is part of the sources of all redirects of the site.
+  private final ConcurrentMap<Site, String> indexedRootSegments = new ConcurrentHashMap<>();
+  // The indexed sites by the id of their root document and by the ids of the targets of their redirects, so the events
+  // of all other contents are skipped without looking up their site
+  private final ConcurrentMap<String, Site> sitesByRootDocument = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Set<Site>> sitesByTarget = new ConcurrentHashMap<>();
+  // The redirects of each site, whose targets are in sitesByTarget
+  private final ConcurrentMap<Site, SiteRedirects> targetIndexedRedirects = new ConcurrentHashMap<>();
+
+  private final ApplicationEventPublisher eventPublisher;
+  private final boolean waitForIndex;
+  // True, while the traffic is refused until all sites are indexed
+  private final AtomicBoolean refusingTraffic = new AtomicBoolean();
 
-  // A pool of single thread executors, one per site, so updates are queued per site.
-  private final PausableThreadPoolExecutorService itemUpdateExecutor;
-  private final ControllingThreadPoolExecutorService siteUpdateExecutor;
+  // The item updates of a site never wait for the site updates of other sites. Both queues are bounded, the item updates
+  // of a site are collapsed into a site update, if the item queue is full.
+  private final Executor itemUpdateExecutor;
+  private final Executor siteUpdateExecutor;
+  // Limits the updates, which run on virtual threads, toward the content server. Null for platform threads.
+  @Nullable
+  private final Semaphore contentServerPermits;
+  private final ScheduledExecutorService batchExecutor;
+  private final ForkJoinPool shardPool;
+  private final RedirectUpdateMetrics metrics;
 
   // Test mode disables the multithreading here
   private boolean testMode = false;
@@ -59,14 +114,48 @@ public class RedirectUpdateTaskScheduler {
                                      ContentRepository contentRepository,
                                      @Qualifier("redirectsCache") ConcurrentMap<Site, SiteRedirects> redirectsCache,
                                      @Value("${core.redirects.path}") String redirectsPath,
+                                     SiteRedirectsSnapshotStore snapshotStore,
                                      @Value("${core.redirects.cache.parallel.site.recompute.threads:}") Integer parallelSiteThreads,
-                                     @Value("${core.redirects.cache.parallel.item.recompute.threads:4}") int parallelItemThreads) {
+                                     @Value("${core.redirects.cache.parallel.item.recompute.threads:4}") int parallelItemThreads,
+                                     @Value("${core.redirects.cache.parallel.shard.threads:}") Integer parallelShardThreads,
+                                     @Value("${core.redirects.cache.journal.size:50000}") int journalSize,
+                                     @Value("${core.redirects.cache.batch.window:200}") long batchWindow,
+                                     @Value("${core.redirects.cache.queue.capacity:1000}") int queueCapacity,
+                                     ApplicationEventPublisher eventPublisher,
+                                     @Value("${core.redirects.readiness.waitForIndex:false}") boolean waitForIndex,
+                                     ObjectProvider<MeterRegistry> meterRegistry,
+                                     @Value("${core.redirects.cache.virtual.threads:false}") boolean virtualThreads,
+                                     @Value("${core.redirects.cache.virtual.concurrency:16}") int virtualConcurrency) {
     this.sitesService = sitesService;
     this.contentRepository = contentRepository;
     this.redirectsCache = redirectsCache;
     this.redirectsPath = redirectsPath;
-    itemUpdateExecutor = newPausableItemUpdateExecutor(parallelItemThreads);
-    siteUpdateExecutor = newControllingThreadPoolExecutorService(sitesService, parallelSiteThreads, itemUpdateExecutor);
+    this.snapshotStore = snapshotStore;
+    this.eventJournal = new RedirectEventJournal(journalSize);
+    this.batchWindow = batchWindow;
+    this.eventPublisher = eventPublisher;
+    this.waitForIndex = waitForIndex;
+    batchExecutor = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("redirect-item-batches-%d").setDaemon(true).build());
+    shardPool = newShardPool(parallelShardThreads != null ? parallelShardThreads : Runtime.getRuntime().availableProcessors());
+    metrics = new RedirectUpdateMetrics(meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    if (virtualThreads) {
+      // Each update gets its own virtual thread, waiting for a permit is cheap. The updates of a site are coalesced, so
+      // there are two waiting updates per site at most.
+      LOG.info("Updating the redirects on virtual threads, at most {} at once", virtualConcurrency);
+      contentServerPermits = new Semaphore(Math.max(1, virtualConcurrency), true);
+      itemUpdateExecutor = newVirtualThreadExecutor("redirect-item-updates-");
+      siteUpdateExecutor = newVirtualThreadExecutor("redirect-site-updates-");
+      metrics.monitorQueue(RedirectUpdateMetrics.CONTENT_SERVER_QUEUE, contentServerPermits, Semaphore::getQueueLength);
+    } else {
+      contentServerPermits = null;
+      ThreadPoolExecutor itemExecutor = newItemUpdateExecutor(parallelItemThreads, queueCapacity);
+      ThreadPoolExecutor siteExecutor = newSiteUpdateExecutor(sitesService, parallelSiteThreads, queueCapacity);
+      metrics.monitorQueue(RedirectUpdateMetrics.ITEM_QUEUE, itemExecutor.getQueue(), BlockingQueue::size);
+      metrics.monitorQueue(RedirectUpdateMetrics.SITE_QUEUE, siteExecutor.getQueue(), BlockingQueue::size);
+      itemUpdateExecutor = itemExecutor;
+      siteUpdateExecutor = siteExecutor;
+    }
   }
 
   /**
@@ -75,36 +164,324 @@ public class RedirectUpdateTaskScheduler {
   public void runUpdate(Content redirect) {
     Site site = getSite(redirect);
     if (site != null) {
+      eventJournal.append(site, redirect.getId());
       if (redirectsCache.containsKey(site)) {
-        if (testMode) {
-          new UpdateDocumentTask(redirectsCache, site, redirect).run();
-        } else {
-          itemUpdateExecutor.submit(new UpdateDocumentTask(redirectsCache, site, redirect));
-        }
+        submitItemUpdate(site);
       } else {
-        // If the site of this redirect is not in the cache yet, we have to build an index for it
+        // If the site of this redirect is not in the cache yet, we have to build an index for it. If it is already
+        // queued, the redirect is caught up afterwards.
         submitSiteUpdate(site);
       }
     }
   }
 
+  /**
+   * Update the cached redirects, which link to the given content. The validity of the target is captured when a
+   * redirect is built, so it has to be rebuilt when the target changes.
+   */
+  public void runTargetUpdate(Content target) {
+    Set<Site> sites = sitesByTarget.get(target.getId());
+    if (sites == null) {
+      return;
+    }
+    sites.stream()
+            .map(redirectsCache::get)
+            .filter(Objects::nonNull)
+            .flatMap(siteRedirects -> siteRedirects.getRedirectIdsForTarget(target.getId()).stream())
+            .map(contentRepository::getContent)
+            .filter(redirect -> redirect != null && !redirect.isDestroyed())
+            .forEach(this::runUpdate);
+  }
+
+  /**
+   * Re-indexes the site of the given content, if it is the root document of the site and its segment changed: The
+   * root segment is part of the sources of all redirects of the site. The previous redirects are served in the meantime.
+   */
+  public void runSiteRootUpdate(Content content) {
+    Site site = sitesByRootDocument.get(content.getId());
+    if (site != null && content.equals(site.getSiteRootDocument())
+            && !Objects.equals(indexedRootSegments.get(site), getRootSegment(site))) {
+      LOG.info("The root segment of site {} changed, re-indexing the site", site);
+      submitSiteUpdate(site, true);
+    }
+  }
+
+  /**
+   * Serves the redirects of the given snapshot, which contain all events up to the timestamp, from which the events are
+   * replayed. Must be called before the events are replayed: the redirects changed since the snapshot are caught up
+   * from the replayed events, instead of indexing the whole site again.
+   */
+  public void restore(Site site, SiteRedirectsSnapshotStore.Snapshot snapshot) {
+    ReentrantLock siteLock = getSiteLock(site);
+    siteLock.lock();
+    try {
+      // The journal starts with the replayed events
+      redirectsCache.put(site, snapshot.redirects());
+      updateTargetIndex(site);
+      if (snapshot.rootSegment() != null) {
+        setIndexedRootSegment(site, snapshot.rootSegment());
+      }
+      eventJournal.setProcessedPosition(site, 0);
+      snapshotLock.lock();
+      try {
+        snapshotPositions.put(site, 0L);
+      } finally {
+        snapshotLock.unlock();
+      }
+    } finally {
+      siteLock.unlock();
+    }
+    LOG.info("Restored the redirects of site {} from the snapshot, its changes are caught up from the replayed events", site);
+    updateReadiness();
+  }
+
+  /**
+   * Stores the snapshots of all sites, which are up to date, with the same timestamp, so the next startup restores all
+   * of them and replays only the events received since the oldest one.
+   */
+  @PreDestroy
+  public void saveSnapshots() {
+    if (!snapshotStore.isEnabled()) {
+      return;
+    }
+    // The positions only grow, the snapshots contain all events up to the oldest one
+    OptionalLong oldestPosition = redirectsCache.keySet().stream()
+            .map(eventJournal::getProcessedPosition)
+            .filter(OptionalLong::isPresent)
+            .mapToLong(OptionalLong::getAsLong)
+            .min();
+    Timestamp timestamp = oldestPosition.isPresent()
+            ? eventJournal.getTimestamp(oldestPosition.getAsLong()).orElse(null) : null;
+    if (timestamp == null) {
+      LOG.info("No timestamp of the processed events is known, the redirects snapshots are not written on shutdown");
+      return;
+    }
+    for (Site site : redirectsCache.keySet()) {
+      ReentrantLock siteLock = getSiteLock(site);
+      siteLock.lock();
+      try {
+        OptionalLong processed = eventJournal.getProcessedPosition(site);
+        if (processed.isPresent()) {
+          saveSnapshot(site, processed.getAsLong(), timestamp);
+        }
+      } finally {
+        siteLock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Records, that all events up to the given repository timestamp have been passed to the scheduler.
+   */
+  public void setTimestamp(@Nullable Timestamp timestamp) {
+    if (timestamp != null) {
+      eventJournal.setTimestamp(timestamp);
+    }
+  }
+
   /**
    * Update the redirect cache with the new/changed site.
    */
   public void runUpdate(Site site) {
     if (site != null) {
-      // Before a site update, we can cancel all running jobs, as they will be overwritten anyway
       submitSiteUpdate(site);
     }
   }
 
   private void submitSiteUpdate(Site site) {
-    itemUpdateExecutor.pause();
-    LOG.info("Re-indexing site {}, paused item update queue", site);
+    submitSiteUpdate(site, false);
+  }
+
+  /**
+   * Queues the site update of the given site, unless it is queued already. If fullIndex is true, the whole site is
+   * indexed again, instead of catching up its events. A running site update submits the full index afterwards.
+   */
+  private void submitSiteUpdate(Site site, boolean fullIndex) {
+    if (fullIndex) {
+      fullSiteUpdates.add(site);
+    }
+    if (!pendingSiteUpdates.add(site)) {
+      LOG.debug("Site {} is already queued for re-indexing, its changes are caught up afterwards", site);
+      return;
+    }
+    LOG.info("Re-indexing site {}, its changes are caught up afterwards", site);
     if (testMode) {
-      new UpdateSiteTask(redirectsCache, contentRepository, redirectsPath, site, itemUpdateExecutor).run();
-    } else {
-      siteUpdateExecutor.submit(new UpdateSiteTask(redirectsCache, contentRepository, redirectsPath, site, itemUpdateExecutor));
+      runSiteUpdate(site);
+      return;
+    }
+    try {
+      siteUpdateExecutor.execute(limited(metrics.timed(RedirectUpdateMetrics.SITE_QUEUE, () -> runSiteUpdate(site))));
+    } catch (RejectedExecutionException e) {
+      // The events of the site stay in the journal, the site is caught up by the postponed update
+      LOG.warn("The site update queue is full, postponing the update of site {} by {}s", site, REJECTED_SITE_UPDATE_DELAY);
+      metrics.rejected();
+      pendingSiteUpdates.remove(site);
+      batchExecutor.schedule(() -> submitSiteUpdate(site), REJECTED_SITE_UPDATE_DELAY, TimeUnit.SECONDS);
+    }
+  }
+
+  /**
+   * Queues the update of the changed redirects of the given site. The events of a site are collected for the batch
+   * window, so a redirect, which changed several times (e.g. created, checked in and published by an import), is read
+   * only once and all changes of the window are applied with a single update of the cached redirects.
+   */
+  private void submitItemUpdate(Site site) {
+    if (testMode) {
+      runItemUpdate(site);
+    } else if (pendingItemUpdates.add(site)) {
+      batchExecutor.schedule(() -> executeItemUpdate(site), batchWindow, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void executeItemUpdate(Site site) {
+    try {
+      itemUpdateExecutor.execute(limited(metrics.timed(RedirectUpdateMetrics.ITEM_QUEUE, () -> runItemUpdate(site))));
+    } catch (RejectedExecutionException e) {
+      // Instead of queueing more item updates, the site update catches up all changes of the site at once
+      LOG.warn("The item update queue is full, collapsing the changes of site {} into a site update", site);
+      metrics.collapsed();
+      pendingItemUpdates.remove(site);
+      submitSiteUpdate(site);
+    }
+  }
+
+  private void runItemUpdate(Site site) {
+    // Events received from now on are applied by the next batch
+    pendingItemUpdates.remove(site);
+    if (pendingSiteUpdates.contains(site)) {
+      // The events are buffered in the journal and replayed onto the new redirects, when the site update is finished.
+      // The item updates of the other sites go on in the meantime.
+      LOG.debug("Site {} is queued for re-indexing, its changes are caught up afterwards", site);
+      return;
+    }
+    ReentrantLock siteLock = getSiteLock(site);
+    siteLock.lock();
+    try {
+      OptionalLong processed = eventJournal.getProcessedPosition(site);
+      if (processed.isPresent()) {
+        catchUp(site, processed.getAsLong());
+      } else {
+        // The site has not been indexed completely yet (e.g. it is served from a snapshot): caught up by its site update
+        submitSiteUpdate(site);
+      }
+    } finally {
+      siteLock.unlock();
+    }
+  }
+
+  /**
+   * Brings the cached redirects of the given site up to date. If they contain all events up to a position, which is
+   * still in the journal, only the redirects changed since then are read again. Otherwise the whole site is indexed
+   * and the events received in the meantime are caught up afterwards.
+   */
+  private void runSiteUpdate(Site site) {
+    ReentrantLock siteLock = getSiteLock(site);
+    siteLock.lock();
+    try {
+      long position;
+      try {
+        boolean fullIndex = fullSiteUpdates.remove(site);
+        OptionalLong processed = eventJournal.getProcessedPosition(site);
+        if (!fullIndex && processed.isPresent() && eventJournal.contains(processed.getAsLong())
+                && redirectsCache.containsKey(site)) {
+          position = processed.getAsLong();
+        } else {
+          position = startIndexing(site);
+          try {
+            setIndexedRootSegment(site, getRootSegment(site));
+            new UpdateSiteTask(redirectsCache, contentRepository, redirectsPath, site, shardPool).run();
+            updateTargetIndex(site);
+            // Written for the next startup
+            saveSnapshot(site, position);
+          } finally {
+            finishIndexing(site);
+          }
+        }
+      } finally {
+        pendingSiteUpdates.remove(site);
+      }
+      catchUp(site, position);
+    } finally {
+      siteLock.unlock();
+    }
+    if (fullSiteUpdates.contains(site)) {
+      // The full index has been requested, while this update was running
+      submitSiteUpdate(site);
+    }
+    updateReadiness();
+  }
+
+  private void catchUp(Site site, long position) {
+    long caughtUp = eventJournal.getPosition();
+    Optional<Set<String>> changed = eventJournal.getContentIdsSince(site, position);
+    if (changed.isEmpty()) {
+      LOG.warn("Too many changes of site {} since the last update, re-indexing the whole site", site);
+      metrics.journalOverflow();
+      eventJournal.removeProcessedPosition(site);
+      submitSiteUpdate(site);
+      return;
+    }
+    if (!changed.get().isEmpty()) {
+      LOG.info("Catching up {} changed redirects of site {}", changed.get().size(), site);
+      new CatchUpSiteTask(redirectsCache, contentRepository, redirectsPath, site, changed.get()).run();
+      updateTargetIndex(site);
+    }
+    eventJournal.setProcessedPosition(site, caughtUp);
+  }
+
+  /**
+   * Returns the current position of the journal, up to which the redirects of a site update, which starts now, contain
+   * all events.
+   */
+  private long startIndexing(Site site) {
+    snapshotLock.lock();
+    try {
+      long position = eventJournal.getPosition();
+      indexingPositions.put(site, position);
+      return position;
+    } finally {
+      snapshotLock.unlock();
+    }
+  }
+
+  private void finishIndexing(Site site) {
+    snapshotLock.lock();
+    try {
+      indexingPositions.remove(site);
+    } finally {
+      snapshotLock.unlock();
+    }
+  }
+
+  /**
+   * Stores the cached redirects of the given site, which contain all events up to the given position. The snapshot is
+   * tagged with the timestamp of the oldest position of all snapshots, including the ones of the running site updates,
+   * so the events can be replayed from its timestamp onto all snapshots of this run.
+   */
+  private void saveSnapshot(Site site, long position) {
+    if (!snapshotStore.isEnabled()) {
+      return;
+    }
+    long oldestPosition;
+    snapshotLock.lock();
+    try {
+      oldestPosition = Stream.concat(snapshotPositions.values().stream(), indexingPositions.values().stream())
+              .reduce(position, Math::min);
+    } finally {
+      snapshotLock.unlock();
+    }
+    saveSnapshot(site, position, eventJournal.getTimestamp(oldestPosition).orElse(null));
+  }
+
+  private void saveSnapshot(Site site, long position, @Nullable Timestamp timestamp) {
+    SiteRedirects redirects = redirectsCache.get(site);
+    if (redirects != null && snapshotStore.save(redirects, indexedRootSegments.get(site), timestamp)) {
+      snapshotLock.lock();
+      try {
+        snapshotPositions.put(site, position);
+      } finally {
+        snapshotLock.unlock();
+      }
     }
   }
 
@@ -113,11 +490,10 @@ public class RedirectUpdateTaskScheduler {
    */
   public void runRemove(Content redirect) {
     Site site = getSiteOfDeletedContent(redirect);
-    if (site != null && redirectsCache.containsKey(site)) {
-      if (testMode) {
-        new RemoveDocumentTask(redirectsCache, site, redirect).run();
-      } else {
-        itemUpdateExecutor.submit(new RemoveDocumentTask(redirectsCache, site, redirect));
+    if (site != null) {
+      eventJournal.append(site, redirect.getId());
+      if (redirectsCache.containsKey(site)) {
+        submitItemUpdate(site);
       }
     }
   }
@@ -128,26 +504,104 @@ public class RedirectUpdateTaskScheduler {
   public void runDestroy(String redirectId, Content folder) {
 
     Site site = getSite(folder);
-    if (site != null && redirectsCache.containsKey(site)) {
-      if (testMode) {
-        new DestroyDocumentTask(redirectsCache, site, redirectId).run();
-      } else {
-        itemUpdateExecutor.submit(new DestroyDocumentTask(redirectsCache, site, redirectId));
+    if (site != null) {
+      eventJournal.append(site, redirectId);
+      if (redirectsCache.containsKey(site)) {
+        submitItemUpdate(site);
       }
     }
   }
 
 
+  /**
+   * Returns the state of the cached redirects of the given site.
+   */
+  public SiteIndexState getIndexState(Site site) {
+    if (!redirectsCache.containsKey(site)) {
+      return SiteIndexState.BUILDING;
+    }
+    if (pendingSiteUpdates.contains(site) || eventJournal.getProcessedPosition(site).isEmpty()) {
+      return SiteIndexState.STALE;
+    }
+    return SiteIndexState.READY;
+  }
+
+  /**
+   * Refuses the traffic, if the application becomes ready before all sites have redirects (only if
+   * core.redirects.readiness.waitForIndex is enabled). The traffic is accepted, as soon as all sites have redirects.
+   */
+  @EventListener
+  public void onReadinessStateChange(AvailabilityChangeEvent<ReadinessState> event) {
+    if (waitForIndex && event.getState() == ReadinessState.ACCEPTING_TRAFFIC && !hasAllSites()
+            && refusingTraffic.compareAndSet(false, true)) {
+      LOG.info("Refusing traffic until the redirects of all sites are indexed");
+      AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+      // The last site might have been indexed in the meantime
+      updateReadiness();
+    }
+  }
+
+  private void updateReadiness() {
+    if (refusingTraffic.get() && hasAllSites() && refusingTraffic.compareAndSet(true, false)) {
+      LOG.info("The redirects of all sites are indexed, accepting traffic");
+      AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.ACCEPTING_TRAFFIC);
+    }
+  }
+
+  private boolean hasAllSites() {
+    return sitesService.getSites().stream()
+            .filter(Site::isReadable)
+            .allMatch(site -> getIndexState(site) != SiteIndexState.BUILDING);
+  }
+
+
   // HELPER METHODS
 
-  private PausableThreadPoolExecutorService newPausableItemUpdateExecutor(int maxThreadCount) {
+  private ThreadPoolExecutor newItemUpdateExecutor(int maxThreadCount, int queueCapacity) {
     ThreadFactory namedThreadFactory = new ThreadFactoryBuilder().setNameFormat("redirect-item-updates-%d").build();
-    return new PausableThreadPoolExecutorService(2, maxThreadCount, 1L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), namedThreadFactory);
+    // More threads than the core threads are only started, when the queue is full, so all threads are core threads,
+    // which time out. The tasks are rejected, when the queue is full.
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreadCount, maxThreadCount, 1L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), namedThreadFactory);
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
   }
 
-  private ControllingThreadPoolExecutorService newControllingThreadPoolExecutorService(SitesService sitesService,
-                                                                                       @Nullable Integer parallelSiteThreads,
-                                                                                       PausableThreadPoolExecutorService pausableThreadPoolExecutorService) {
+  private Executor newVirtualThreadExecutor(String threadNamePrefix) {
+    SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+    executor.setVirtualThreads(true);
+    return executor;
+  }
+
+  /**
+   * Returns the given task, which waits for a permit toward the content server first, if the updates run on virtual
+   * threads.
+   */
+  private Runnable limited(Runnable task) {
+    if (contentServerPermits == null) {
+      return task;
+    }
+    return () -> {
+      contentServerPermits.acquireUninterruptibly();
+      try {
+        task.run();
+      } finally {
+        contentServerPermits.release();
+      }
+    };
+  }
+
+  private ForkJoinPool newShardPool(int parallelism) {
+    AtomicInteger threadCount = new AtomicInteger();
+    ForkJoinPool.ForkJoinWorkerThreadFactory namedThreadFactory = pool -> {
+      ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+      thread.setName("redirect-shard-updates-" + threadCount.getAndIncrement());
+      return thread;
+    };
+    return new ForkJoinPool(Math.max(1, parallelism), namedThreadFactory, null, false);
+  }
+
+  private ThreadPoolExecutor newSiteUpdateExecutor(SitesService sitesService, @Nullable Integer parallelSiteThreads, int queueCapacity) {
     ThreadFactory namedThreadFactory = new ThreadFactoryBuilder().setNameFormat("redirect-site-updates-%d").build();
 
     //If the number of threads has not been configured: try to run all threads at once, to fill the cache as fast as
@@ -155,20 +609,63 @@ public class RedirectUpdateTaskScheduler {
     // of all sites.
     if (parallelSiteThreads == null) {
       int maximumPoolSize = sitesService.getSites().isEmpty() ? 1 : sitesService.getSites().size();
-      return new ControllingThreadPoolExecutorService(1, maximumPoolSize, 1L,
+      return new ThreadPoolExecutor(1, maximumPoolSize, 1L,
               TimeUnit.SECONDS, new SynchronousQueue<>(),
-              namedThreadFactory, pausableThreadPoolExecutorService);
+              namedThreadFactory);
     } else {
       //If the number of threads has been configured: use it as the core pool size and as the number of max threads,
-      //combined with a LinkedBlockingDeque (which is unbounded). The configured number of threads are availble (core pool)
-      // and potential new threads will be parked in the queue
-      return new ControllingThreadPoolExecutorService(parallelSiteThreads, parallelSiteThreads, 1L,
-              TimeUnit.SECONDS, new LinkedBlockingDeque<>(),
-              namedThreadFactory, pausableThreadPoolExecutorService);
+      //combined with a bounded queue. The configured number of threads are availble (core pool) and potential new
+      // threads will be parked in the queue. As updates of the same site are coalesced, it holds one task per site at most.
+      return new ThreadPoolExecutor(parallelSiteThreads, parallelSiteThreads, 1L,
+              TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+              namedThreadFactory);
     }
 
   }
 
+  private String getRootSegment(Site site) {
+    Content rootDocument = site.getSiteRootDocument();
+    return rootDocument != null ? Objects.requireNonNullElse(rootDocument.getString("segment"), "") : "";
+  }
+
+  private void setIndexedRootSegment(Site site, String rootSegment) {
+    Content rootDocument = site.getSiteRootDocument();
+    if (rootDocument != null) {
+      sitesByRootDocument.put(rootDocument.getId(), site);
+    }
+    indexedRootSegments.put(site, rootSegment);
+  }
+
+  /**
+   * Updates the sites by target with the targets of the cached redirects of the given site. Must be called with the
+   * site lock, after the cached redirects changed.
+   */
+  private void updateTargetIndex(Site site) {
+    SiteRedirects current = redirectsCache.get(site);
+    SiteRedirects previous = current != null
+            ? targetIndexedRedirects.put(site, current) : targetIndexedRedirects.remove(site);
+    Set<String> previousTargets = previous != null ? previous.getTargetIds() : Set.of();
+    Set<String> currentTargets = current != null ? current.getTargetIds() : Set.of();
+    // Updated within compute, so a set never becomes empty and removed, while a site is added to it
+    previousTargets.stream()
+            .filter(targetId -> !currentTargets.contains(targetId))
+            .forEach(targetId -> sitesByTarget.computeIfPresent(targetId, (id, sites) -> {
+              sites.remove(site);
+              return sites.isEmpty() ? null : sites;
+            }));
+    currentTargets.stream()
+            .filter(targetId -> !previousTargets.contains(targetId))
+            .forEach(targetId -> sitesByTarget.compute(targetId, (id, sites) -> {
+              Set<Site> updated = sites != null ? sites : ConcurrentHashMap.newKeySet();
+              updated.add(site);
+              return updated;
+            }));
+  }
+
+  private ReentrantLock getSiteLock(Site site) {
+    return siteLocks.computeIfAbsent(site, s -> new ReentrantLock());
+  }
+
   private Site getSite(Content content) {
     Site site = sitesService.getContentSiteAspect(content).getSite();
     if (site == null) {
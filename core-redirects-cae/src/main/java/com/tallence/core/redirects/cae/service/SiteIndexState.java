@@ -0,0 +1,38 @@
+/*
+ * Copyright 2019 Tallence AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tallence.core.redirects.cae.service;
+
+/**
+ * The state of the cached redirects of a site.
+ */
+public enum SiteIndexState {
+
+  /**
+   * There are no redirects of the site yet, it is indexed for the first time. No redirects are found for its requests.
+   */
+  BUILDING,
+
+  /**
+   * The redirects of the site are indexed and kept up to date with the changes of the redirects.
+   */
+  READY,
+
+  /**
+   * The previous redirects of the site are served, while it is indexed again (e.g. after a change of its root segment)
+   * or until it is indexed after a restart, if they were loaded from a snapshot.
+   */
+  STALE
+}
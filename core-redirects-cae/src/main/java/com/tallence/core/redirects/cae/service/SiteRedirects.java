@@ -17,43 +17,118 @@ package com.tallence.core.redirects.cae.service;
 
 import com.tallence.core.redirects.cae.filter.RedirectFilter;
 import com.tallence.core.redirects.cae.model.Redirect;
+import com.tallence.core.redirects.cae.service.util.MultiPatternMatcher;
+import com.tallence.core.redirects.cae.service.util.SourceBloomFilter;
 import com.tallence.core.redirects.model.SourceUrlType;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.URLDecoder;
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static com.coremedia.cap.common.IdHelper.parseContentId;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
  * Holder class for the redirects of a specific site.
  * Keeps maps of the paths or patterns to their redirects.
+ * <p>
+ * Instances are immutable snapshots, which are read without any locks by the request threads. Changes are applied to
+ * a {@link Builder} (see {@link #toBuilder()}), which creates a new snapshot to replace the current one in the cache.
  */
 public class SiteRedirects {
 
   private static final Logger LOG = LoggerFactory.getLogger(SiteRedirects.class);
 
-  private String siteId;
-  private final ConcurrentHashMap<String, List<Redirect>> plainRedirects = new ConcurrentHashMap<>();
-  private final Object plainRedirectsMonitor = new Object();
-  private final ConcurrentHashMap<Pattern, List<Redirect>> patternRedirects = new ConcurrentHashMap<>();
-  private final Object patternRedirectsMonitor = new Object();
+  private static final int DEFAULT_EXPECTED_REDIRECTS = 1024;
 
-  private final Map<SourceUrlType, Object> monitors = Map.of(SourceUrlType.PLAIN, plainRedirectsMonitor, SourceUrlType.REGEX, patternRedirectsMonitor);
-  private final Map<SourceUrlType, Map<?, List<Redirect>>> maps = Map.of(SourceUrlType.PLAIN, plainRedirects, SourceUrlType.REGEX, patternRedirects);
+  /**
+   * The order in which the redirects of the same source are checked against a request: The redirect with the most
+   * source parameters first, then the one with the highest priority and, to be deterministic, the one with the lowest
+   * content id.
+   */
+  public static final Comparator<Redirect> MATCH_ORDER =
+          Comparator.<Redirect>comparingInt(r -> r.getSourceParameters().size()).reversed()
+                  .thenComparing(Comparator.comparingInt(Redirect::getPriority).reversed())
+                  .thenComparingInt(r -> parseContentId(r.getContentId()));
+
+  private final String siteId;
+  // The lists of redirects are unmodifiable and sorted by the MATCH_ORDER
+  private final Map<String, List<Redirect>> plainRedirects;
+  private final Map<Pattern, List<Redirect>> patternRedirects;
+
+  // The ids of the redirects per target content id, to update them when their target changes
+  private final Map<String, Set<String>> redirectIdsByTarget;
+
+  // The key (a String in the plainRedirects or a Pattern in the patternRedirects) per redirect id, for removals
+  private final Map<String, Object> sourcesById;
 
+  private final PlainIndex plainIndex;
+  private final PatternIndex patternIndex;
+
+  // Shared with the builders of later snapshots, which only add sources. This causes false positives at most.
+  private final SourceBloomFilter sourceFilter;
+
+  /**
+   * Creates an empty instance.
+   */
   public SiteRedirects() {
+    this((String) null);
   }
 
+  /**
+   * Creates an empty instance for the given site.
+   */
   public SiteRedirects(String siteId) {
-    this.siteId = siteId;
+    this(builder(siteId, DEFAULT_EXPECTED_REDIRECTS));
+  }
+
+  private SiteRedirects(Builder builder) {
+    this.siteId = builder.siteId;
+    this.plainRedirects = Collections.unmodifiableMap(builder.plainRedirects);
+    this.patternRedirects = Collections.unmodifiableMap(builder.patternRedirects);
+    this.redirectIdsByTarget = Collections.unmodifiableMap(builder.redirectIdsByTarget);
+    this.sourcesById = Collections.unmodifiableMap(builder.sourcesById);
+    this.plainIndex = builder.plainIndex != null ? builder.plainIndex : new PlainIndex(plainRedirects);
+    this.patternIndex = builder.patternIndex != null ? builder.patternIndex : new PatternIndex(patternRedirects);
+    this.sourceFilter = builder.sourceFilter;
+  }
+
+  /**
+   * Returns a builder for the redirects of the given site.
+   *
+   * @param expectedRedirects the expected number of redirects, used to size the {@link SourceBloomFilter}.
+   */
+  public static Builder builder(String siteId, int expectedRedirects) {
+    return new Builder(siteId, expectedRedirects);
+  }
+
+  /**
+   * Returns a builder, which starts with the redirects of this instance. This instance is not changed by it.
+   */
+  public Builder toBuilder() {
+    return new Builder(this);
+  }
+
+  /**
+   * Returns the id of the site, the redirects belong to.
+   */
+  @Nullable
+  public String getSiteId() {
+    return siteId;
   }
 
   /**
@@ -71,68 +146,48 @@ public class SiteRedirects {
   }
 
   /**
-   * Adds the given redirect to the cache, if it is valid.
-   *
-   * The url will be decoded because {@link javax.servlet.http.HttpServletRequest#getPathInfo} will
-   * return a decoded pathInfo too. The decoding must not handle params, schemes, ports etc. because the lookup
-   * in the {@link RedirectFilter} matches the source with the Request-PathInfo only
-   */
-  public void addRedirect(Redirect redirect) {
-    if (redirect.getSourceUrlType() == SourceUrlType.PLAIN) {
-
-      final String key = URLDecoder.decode(redirect.getSource(), UTF_8);
-      updateMaps(SourceUrlType.PLAIN, key, redirect);
-
-    } else if (redirect.getSourceUrlType() == SourceUrlType.REGEX) {
-      try {
-        final Pattern key = Pattern.compile(redirect.getSource());
-        updateMaps(SourceUrlType.REGEX, key, redirect);
-      } catch (PatternSyntaxException e) {
-        LOG.error("Unable to compile pattern on redirect {}, ignoring redirect", redirect);
-        //The invalid pattern should already be handled by the validator. In case something went wrong: Make sure,
-        //the old redirect is removed
-        removeRedirect(redirect.getContentId());
-      }
-
-    } else {
-      LOG.error("Illegal source type {} on redirect {}, ignoring redirect", redirect.getSourceUrlType(), redirect);
-    }
+   * Returns the content ids of the redirects, which link to the given target content id.
+   */
+  public Set<String> getRedirectIdsForTarget(String targetId) {
+    return Collections.unmodifiableSet(redirectIdsByTarget.getOrDefault(targetId, Set.of()));
   }
 
-  private <T> void updateMaps(SourceUrlType sourceUrlType, T key, Redirect redirect) {
-
-    //Remove it from all maps, the type might have been changed in the latest version of the redirect
-    removeRedirect(redirect.getContentId());
-
-    synchronized (monitors.get(sourceUrlType)) {
-      final Map<T, List<Redirect>> redirects = getRedirects(sourceUrlType);
-      redirects.putIfAbsent(key, new ArrayList<>());
-      redirects.get(key).add(redirect);
-    }
+  /**
+   * Returns the content ids of all targets of the redirects.
+   */
+  public Set<String> getTargetIds() {
+    return Collections.unmodifiableSet(redirectIdsByTarget.keySet());
   }
 
   /**
-   * Removes the given redirect from the correct list.
+   * Returns false, if there is no plain or pattern redirect for the given path for sure. The path is checked
+   * case-insensitively and without a trailing slash, without creating any objects.
    */
-  public void removeRedirect(Redirect redirect) {
-
-    // Removes the whole map entry afterwards, if the list is empty as a result of the operation.
-    synchronized (monitors.get(redirect.getSourceUrlType())) {
-      maps.get(redirect.getSourceUrlType()).entrySet().removeIf(entry -> entry.getValue().remove(redirect) && entry.getValue().isEmpty());
-    }
+  public boolean mightHaveRedirect(CharSequence path) {
+    return sourceFilter.mightMatch(path);
   }
 
   /**
-   * Remove the redirect, identified by the given id.
-   * The type is not known -> try both lists.
+   * Returns the plain redirects for the given path, which must be lower case and without a trailing slash (see
+   * {@link com.tallence.core.redirects.cae.service.util.LowerCasePath}). The lookup does not create any objects.
+   *
+   * @return the redirects of the path sorted by the {@link #MATCH_ORDER} or null, if there is no plain redirect for it.
    */
-  public void removeRedirect(String id) {
+  public List<Redirect> findPlainRedirects(CharSequence path) {
+    return plainIndex.find(path);
+  }
 
-    for (Map.Entry<SourceUrlType, Object> entry : monitors.entrySet()) {
-      synchronized (entry.getValue()) {
-        maps.get(entry.getKey()).entrySet().removeIf(e -> e.getValue().removeIf(r -> id.equals(r.getContentId())) && e.getValue().isEmpty());
-      }
-    }
+  /**
+   * Returns the redirects of the first pattern, which matches the given path.
+   * <p>
+   * All patterns are evaluated in a single pass by a {@link MultiPatternMatcher}. If more than one pattern matches,
+   * the pattern of the redirect with the highest {@link Redirect#getPriority() priority} wins. Patterns with the same
+   * priority are ordered by the lowest content id of their redirects, to be deterministic.
+   *
+   * @return the redirects of the matching pattern sorted by the {@link #MATCH_ORDER} or null, if no pattern matches.
+   */
+  public List<Redirect> findPatternRedirects(CharSequence path) {
+    return patternIndex.find(path);
   }
 
   @Override
@@ -158,8 +213,334 @@ public class SiteRedirects {
             '}';
   }
 
-  @SuppressWarnings("unchecked")
-  private <T> Map<T, List<Redirect>> getRedirects(SourceUrlType sourceUrlType) {
-    return (Map<T, List<Redirect>>) maps.get(sourceUrlType);
+  /**
+   * Collects the changes of the redirects of a site. The lists of the redirects are copied on write, so the snapshot
+   * the builder started with is not changed. A builder can only be built once.
+   */
+  public static class Builder {
+
+    private final String siteId;
+    private final Map<String, List<Redirect>> plainRedirects;
+    private final Map<Pattern, List<Redirect>> patternRedirects;
+    private final Map<String, Set<String>> redirectIdsByTarget;
+    // The targets, whose set of redirect ids has been copied by this builder and can be changed in place
+    private final Set<String> copiedTargets = new HashSet<>();
+    private final Map<String, Object> sourcesById;
+    private SourceBloomFilter sourceFilter;
+
+    // The indexes of the initial snapshot, reset on every change of their type
+    private PlainIndex plainIndex;
+    private PatternIndex patternIndex;
+    private boolean built;
+
+    private Builder(String siteId, int expectedRedirects) {
+      this.siteId = siteId;
+      this.plainRedirects = new HashMap<>();
+      this.patternRedirects = new HashMap<>();
+      this.redirectIdsByTarget = new HashMap<>();
+      this.sourcesById = new HashMap<>(expectedRedirects * 4 / 3 + 1);
+      this.sourceFilter = new SourceBloomFilter(expectedRedirects);
+    }
+
+    private Builder(SiteRedirects snapshot) {
+      this.siteId = snapshot.siteId;
+      this.plainRedirects = new HashMap<>(snapshot.plainRedirects);
+      this.patternRedirects = new HashMap<>(snapshot.patternRedirects);
+      this.redirectIdsByTarget = new HashMap<>(snapshot.redirectIdsByTarget);
+      this.sourcesById = new HashMap<>(snapshot.sourcesById);
+      this.sourceFilter = snapshot.sourceFilter;
+      this.plainIndex = snapshot.plainIndex;
+      this.patternIndex = snapshot.patternIndex;
+    }
+
+    /**
+     * Adds the given redirect, if it is valid. An older version of the redirect is replaced.
+     *
+     * The url will be decoded because {@link jakarta.servlet.http.HttpServletRequest#getPathInfo} will
+     * return a decoded pathInfo too. The decoding must not handle params, schemes, ports etc. because the lookup
+     * in the {@link RedirectFilter} matches the source with the Request-PathInfo only
+     */
+    public Builder addRedirect(Redirect redirect) {
+      if (redirect.getSourceUrlType() == SourceUrlType.PLAIN) {
+
+        final String key = URLDecoder.decode(redirect.getSource(), UTF_8);
+        updateMaps(plainRedirects, key, redirect);
+
+      } else if (redirect.getSourceUrlType() == SourceUrlType.REGEX) {
+        try {
+          final Pattern key = Pattern.compile(redirect.getSource());
+          updateMaps(patternRedirects, key, redirect);
+        } catch (PatternSyntaxException e) {
+          LOG.error("Unable to compile pattern on redirect {}, ignoring redirect", redirect);
+          //The invalid pattern should already be handled by the validator. In case something went wrong: Make sure,
+          //the old redirect is removed
+          removeRedirect(redirect.getContentId());
+        }
+
+      } else {
+        LOG.error("Illegal source type {} on redirect {}, ignoring redirect", redirect.getSourceUrlType(), redirect);
+      }
+      return this;
+    }
+
+    /**
+     * Adds all redirects of the given builder, e.g. of a part of the site, which has been built in parallel. Older
+     * versions of the redirects are replaced. The given builder cannot be used anymore afterwards.
+     */
+    public Builder addAll(Builder other) {
+      checkNotBuilt();
+      other.checkNotBuilt();
+      other.built = true;
+      other.sourcesById.keySet().stream().filter(sourcesById::containsKey).toList().forEach(this::removeRedirect);
+
+      other.plainRedirects.forEach((key, redirects) ->
+              plainRedirects.merge(key, redirects, (current, added) -> sorted(Stream.concat(current.stream(), added.stream()))));
+      // Patterns are compared by identity, so the keys of both builders never collide
+      patternRedirects.putAll(other.patternRedirects);
+      other.redirectIdsByTarget.forEach((targetId, ids) -> getRedirectIdsForTarget(targetId).addAll(ids));
+      sourcesById.putAll(other.sourcesById);
+
+      other.plainRedirects.keySet().forEach(key -> putSource(sourceFilter, key));
+      other.patternRedirects.keySet().forEach(key -> putSource(sourceFilter, key));
+      if (!other.plainRedirects.isEmpty()) {
+        plainIndex = null;
+      }
+      if (!other.patternRedirects.isEmpty()) {
+        patternIndex = null;
+      }
+      return this;
+    }
+
+    /**
+     * Returns the number of redirects.
+     */
+    public int size() {
+      return sourcesById.size();
+    }
+
+    private <T> void updateMaps(Map<T, List<Redirect>> redirects, T key, Redirect redirect) {
+
+      //Remove it from all maps, the type might have been changed in the latest version of the redirect
+      removeRedirect(redirect.getContentId());
+
+      checkNotBuilt();
+      redirects.merge(key, List.of(redirect), (current, added) -> sorted(Stream.concat(current.stream(), added.stream())));
+      resetIndex(redirects);
+      sourcesById.put(redirect.getContentId(), key);
+      if (redirect.getTarget() != null) {
+        getRedirectIdsForTarget(redirect.getTarget().getId()).add(redirect.getContentId());
+      }
+      putSource(sourceFilter, key);
+    }
+
+    /**
+     * Removes the given redirect from the correct list.
+     */
+    public Builder removeRedirect(Redirect redirect) {
+      Object key = sourcesById.get(redirect.getContentId());
+      if (key instanceof Pattern && redirect.getSourceUrlType() == SourceUrlType.REGEX) {
+        removeFrom(patternRedirects, (Pattern) key, redirect.getContentId());
+      } else if (key instanceof String && redirect.getSourceUrlType() != SourceUrlType.REGEX) {
+        removeFrom(plainRedirects, (String) key, redirect.getContentId());
+      }
+      return this;
+    }
+
+    /**
+     * Remove the redirect, identified by the given id.
+     * The type is not known -> look it up in the sourcesById.
+     */
+    public Builder removeRedirect(String id) {
+      Object key = sourcesById.get(id);
+      if (key instanceof Pattern) {
+        removeFrom(patternRedirects, (Pattern) key, id);
+      } else if (key instanceof String) {
+        removeFrom(plainRedirects, (String) key, id);
+      }
+      return this;
+    }
+
+    /**
+     * Removes the redirect with the given id from the list of the given key, from the redirectIdsByTarget and the
+     * sourcesById. Only the list of the key is copied, an entry without redirects is removed from the map.
+     */
+    private <T> void removeFrom(Map<T, List<Redirect>> redirects, T key, String id) {
+      checkNotBuilt();
+      Predicate<Redirect> predicate = r -> id.equals(r.getContentId());
+      List<Redirect> current = redirects.getOrDefault(key, List.of());
+      current.stream().filter(predicate).forEach(this::untrackTarget);
+      List<Redirect> remaining = current.stream().filter(predicate.negate()).collect(Collectors.toUnmodifiableList());
+      if (remaining.isEmpty()) {
+        redirects.remove(key);
+      } else {
+        redirects.put(key, remaining);
+      }
+      sourcesById.remove(id);
+      resetIndex(redirects);
+    }
+
+    private void untrackTarget(Redirect redirect) {
+      if (redirect.getTarget() != null) {
+        String targetId = redirect.getTarget().getId();
+        if (redirectIdsByTarget.containsKey(targetId)) {
+          Set<String> ids = getRedirectIdsForTarget(targetId);
+          ids.remove(redirect.getContentId());
+          if (ids.isEmpty()) {
+            redirectIdsByTarget.remove(targetId);
+          }
+        }
+      }
+    }
+
+    /**
+     * Returns the modifiable set of the redirect ids of the given target. The set of the snapshot is copied on the
+     * first change, so adding many redirects with the same target is not quadratic.
+     */
+    private Set<String> getRedirectIdsForTarget(String targetId) {
+      Set<String> ids = redirectIdsByTarget.get(targetId);
+      if (ids == null || copiedTargets.add(targetId)) {
+        ids = ids == null ? new HashSet<>() : new HashSet<>(ids);
+        copiedTargets.add(targetId);
+        redirectIdsByTarget.put(targetId, ids);
+      }
+      return ids;
+    }
+
+    private void resetIndex(Map<?, List<Redirect>> redirects) {
+      if (redirects == plainRedirects) {
+        plainIndex = null;
+      } else {
+        patternIndex = null;
+      }
+    }
+
+    /**
+     * Creates the snapshot of the redirects. The lookup indexes are built now, unless the redirects of their type did
+     * not change.
+     */
+    public SiteRedirects build() {
+      checkNotBuilt();
+      built = true;
+      if (sourceFilter.isSaturated()) {
+        rebuildSourceFilter();
+      }
+      return new SiteRedirects(this);
+    }
+
+    /**
+     * Replaces the {@link SourceBloomFilter} with a new one, sized for the current redirects. Removed sources are
+     * dropped from the filter this way.
+     */
+    private void rebuildSourceFilter() {
+      int count = plainRedirects.size() + patternRedirects.size();
+      SourceBloomFilter filter = new SourceBloomFilter(2 * count);
+      plainRedirects.keySet().forEach(key -> putSource(filter, key));
+      patternRedirects.keySet().forEach(key -> putSource(filter, key));
+      sourceFilter = filter;
+      LOG.debug("Rebuilt the source filter of site {} for {} sources", siteId, count);
+    }
+
+    private void checkNotBuilt() {
+      if (built) {
+        throw new IllegalStateException("The redirects of site " + siteId + " have already been built");
+      }
+    }
+  }
+
+  private static void putSource(SourceBloomFilter filter, Object key) {
+    if (key instanceof Pattern) {
+      filter.putPatternSource(((Pattern) key).pattern());
+    } else {
+      filter.putPlainSource((String) key);
+    }
+  }
+
+  private static List<Redirect> sorted(Stream<Redirect> redirects) {
+    return redirects.sorted(MATCH_ORDER).collect(Collectors.toUnmodifiableList());
+  }
+
+  /**
+   * An open addressing hash table of the plainRedirects, which is looked up with any {@link CharSequence}. The hash
+   * codes of the keys are the ones of {@link String#hashCode()}, which are cached by the strings.
+   */
+  private static class PlainIndex {
+
+    private final String[] keys;
+    private final List<Redirect>[] redirects;
+    private final int mask;
+
+    @SuppressWarnings("unchecked")
+    PlainIndex(Map<String, List<Redirect>> plainRedirects) {
+      // The lists are already sorted by the MATCH_ORDER
+      // A load factor of at most 0.5 keeps the probe sequences short and guarantees an empty slot
+      int capacity = Integer.highestOneBit(Math.max(1, 2 * plainRedirects.size() - 1)) << 1;
+      keys = new String[capacity];
+      redirects = new List[capacity];
+      mask = capacity - 1;
+      plainRedirects.forEach((key, value) -> {
+        int i = spread(key.hashCode()) & mask;
+        while (keys[i] != null) {
+          i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        redirects[i] = value;
+      });
+    }
+
+    List<Redirect> find(CharSequence path) {
+      int hash = 0;
+      for (int i = 0; i < path.length(); i++) {
+        hash = 31 * hash + path.charAt(i);
+      }
+      for (int i = spread(hash) & mask; keys[i] != null; i = (i + 1) & mask) {
+        if (keys[i].hashCode() == hash && keys[i].contentEquals(path)) {
+          return redirects[i];
+        }
+      }
+      return null;
+    }
+
+    private static int spread(int hash) {
+      return hash ^ (hash >>> 16);
+    }
+  }
+
+  /**
+   * The patterns of the patternRedirects sorted by priority, combined in one {@link MultiPatternMatcher}.
+   */
+  private static class PatternIndex {
+
+    private static final Comparator<Map.Entry<Pattern, List<Redirect>>> ORDER =
+            Comparator.<Map.Entry<Pattern, List<Redirect>>>comparingInt(e -> highestPriority(e.getValue())).reversed()
+                    .thenComparingInt(e -> lowestContentId(e.getValue()))
+                    .thenComparing(e -> e.getKey().pattern());
+
+    private final List<Redirect>[] redirects;
+    private final MultiPatternMatcher matcher;
+
+    @SuppressWarnings("unchecked")
+    PatternIndex(Map<Pattern, List<Redirect>> patternRedirects) {
+      List<Map.Entry<Pattern, List<Redirect>>> entries = patternRedirects.entrySet().stream()
+              .sorted(ORDER)
+              .collect(Collectors.toList());
+      redirects = entries.stream().map(Map.Entry::getValue).toArray(List[]::new);
+      matcher = new MultiPatternMatcher(entries.stream().map(Map.Entry::getKey).collect(Collectors.toList()));
+      if (matcher.getFallbackCount() > 0) {
+        LOG.debug("{} of {} patterns cannot be combined and are evaluated one by one", matcher.getFallbackCount(), entries.size());
+      }
+    }
+
+    List<Redirect> find(CharSequence path) {
+      int index = matcher.firstMatch(path);
+      return index < 0 ? null : redirects[index];
+    }
+
+    private static int highestPriority(List<Redirect> redirects) {
+      return redirects.stream().mapToInt(Redirect::getPriority).max().orElse(0);
+    }
+
+    private static int lowestContentId(List<Redirect> redirects) {
+      return redirects.stream().mapToInt(r -> parseContentId(r.getContentId())).min().orElse(Integer.MAX_VALUE);
+    }
   }
 }
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2019 Tallence AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tallence.core.redirects.cae.service;
+
+import com.coremedia.cap.common.Timestamp;
+import com.coremedia.cap.content.Content;
+import com.coremedia.cap.content.ContentRepository;
+import com.coremedia.cap.multisite.Site;
+import com.tallence.core.redirects.cae.model.Redirect;
+import com.tallence.core.redirects.model.RedirectSourceParameter;
+import com.tallence.core.redirects.model.RedirectTargetParameter;
+import com.tallence.core.redirects.model.RedirectType;
+import com.tallence.core.redirects.model.SourceUrlType;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Stores the {@link SiteRedirects} of a site in a compact binary file after each full index build of the site and on
+ * shutdown, so the redirects of the last run can be served right after the startup of the CAE.
+ * <p>
+ * The snapshot contains the resolved properties of the redirects, the targets are referenced by their id and resolved
+ * lazily. It is tagged with the root segment of the site, which is part of the sources, and with the repository
+ * timestamp, from which the content events must be replayed to bring the redirects up to date. The snapshots written
+ * on shutdown share the same timestamp, so they are all brought up to date by the same replay. Snapshots are read from
+ * a memory mapped file and written to a temporary file, which replaces the snapshot atomically, so a crashed CAE never
+ * leaves a partially written snapshot. Invalid snapshots (other version, wrong checksum) are ignored.
+ * <p>
+ * The store is disabled, unless {@code core.redirects.snapshot.directory} is configured.
+ */
+@Service
+public class SiteRedirectsSnapshotStore {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SiteRedirectsSnapshotStore.class);
+
+  private static final int MAGIC = 0x52445253;
+  private static final int VERSION = 3;
+  private static final String SUFFIX = ".redirects";
+
+  private final ContentRepository contentRepository;
+  @Nullable
+  private final Path directory;
+
+  @Autowired
+  public SiteRedirectsSnapshotStore(ContentRepository contentRepository,
+                                    @Value("${core.redirects.snapshot.directory:}") String directory) {
+    this.contentRepository = contentRepository;
+    this.directory = StringUtils.hasText(directory) ? Paths.get(directory) : null;
+  }
+
+  /**
+   * Returns true, if a snapshot directory is configured.
+   */
+  public boolean isEnabled() {
+    return directory != null;
+  }
+
+  /**
+   * Reads the snapshot of the given site, if there is a valid one.
+   */
+  public Optional<Snapshot> load(Site site) {
+    if (directory == null) {
+      return Optional.empty();
+    }
+    Path file = getFile(site.getId());
+    if (!Files.isRegularFile(file)) {
+      LOG.debug("No redirects snapshot found for site {} at {}", site.getId(), file);
+      return Optional.empty();
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      Snapshot snapshot = read(site.getId(), buffer);
+      LOG.info("Loaded [{}] static and [{}] dynamic redirects of site {} from the snapshot {}",
+              snapshot.redirects().getPlainRedirects().size(), snapshot.redirects().getPatternRedirects().size(),
+              site.getId(), file);
+      return Optional.of(snapshot);
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Ignoring the invalid redirects snapshot {} of site {}", file, site.getId(), e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Writes the snapshot of the given redirects, which contain all events up to the given repository timestamp. Errors
+   * are logged only, the snapshot is just an optimization of the startup.
+   *
+   * @param rootSegment the root segment of the site, when the redirects were indexed, null if it is not known.
+   * @param timestamp the timestamp, from which the events must be replayed, null if it is not known.
+   * @return true, if the snapshot has been written.
+   */
+  public boolean save(SiteRedirects redirects, @Nullable String rootSegment, @Nullable Timestamp timestamp) {
+    if (directory == null || redirects.getSiteId() == null) {
+      return false;
+    }
+    Path file = getFile(redirects.getSiteId());
+    try {
+      byte[] data = write(redirects, rootSegment, timestamp);
+      Files.createDirectories(directory);
+      Path tempFile = Files.createTempFile(directory, redirects.getSiteId(), ".tmp");
+      try {
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+          ByteBuffer buffer = ByteBuffer.wrap(data);
+          while (buffer.hasRemaining()) {
+            channel.write(buffer);
+          }
+          channel.force(false);
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(tempFile);
+      }
+      LOG.debug("Wrote the redirects snapshot {} of site {} ({} bytes)", file, redirects.getSiteId(), data.length);
+      return true;
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Unable to write the redirects snapshot {} of site {}", file, redirects.getSiteId(), e);
+      return false;
+    }
+  }
+
+  private Path getFile(String siteId) {
+    return directory.resolve(siteId.replaceAll("[^A-Za-z0-9_-]", "_") + SUFFIX);
+  }
+
+  // SERIALIZATION
+
+  private static byte[] write(SiteRedirects redirects, @Nullable String rootSegment, @Nullable Timestamp timestamp)
+          throws IOException {
+    List<Redirect> all = Stream.concat(redirects.getPlainRedirects().values().stream(),
+            redirects.getPatternRedirects().values().stream())
+            .flatMap(List::stream)
+            .toList();
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + all.size() * 128);
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    writeString(out, redirects.getSiteId());
+    out.writeLong(System.currentTimeMillis());
+    writeString(out, timestamp != null ? timestamp.toString() : null);
+    writeString(out, rootSegment);
+    out.writeInt(all.size());
+    for (Redirect redirect : all) {
+      writeString(out, redirect.getContentId());
+      writeString(out, redirect.getSourceUrlType().name());
+      writeString(out, redirect.getSource());
+      writeString(out, redirect.getRedirectType() != null ? redirect.getRedirectType().name() : null);
+      writeString(out, redirect.getTarget() != null ? redirect.getTarget().getId() : null);
+      writeString(out, redirect.getTargetUrl());
+      out.writeInt(redirect.getPriority());
+      out.writeLong(redirect.getTargetValidFrom());
+      out.writeLong(redirect.getTargetValidTo());
+      out.writeInt(redirect.getSourceParameters().size());
+      for (RedirectSourceParameter parameter : redirect.getSourceParameters()) {
+        writeString(out, parameter.getName());
+        writeString(out, parameter.getValue());
+        writeString(out, parameter.getOperator() != null ? parameter.getOperator().name() : null);
+      }
+      out.writeInt(redirect.getTargetParameters().size());
+      for (RedirectTargetParameter parameter : redirect.getTargetParameters()) {
+        writeString(out, parameter.getName());
+        writeString(out, parameter.getValue());
+      }
+    }
+    out.flush();
+
+    CRC32 crc = new CRC32();
+    crc.update(bytes.toByteArray());
+    out.writeLong(crc.getValue());
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  private Snapshot read(String siteId, ByteBuffer buffer) throws IOException {
+    ByteBuffer body = buffer.duplicate();
+    body.limit(buffer.limit() - Long.BYTES);
+    CRC32 crc = new CRC32();
+    crc.update(body);
+    if (buffer.getLong(buffer.limit() - Long.BYTES) != crc.getValue()) {
+      throw new IOException("Checksum mismatch");
+    }
+    if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+      throw new IOException("Unknown format");
+    }
+    String storedSiteId = readString(buffer);
+    if (!siteId.equals(storedSiteId)) {
+      throw new IOException("Snapshot of site " + storedSiteId);
+    }
+    long savedAt = buffer.getLong();
+    String timestamp = readString(buffer);
+    String rootSegment = readString(buffer);
+    int size = buffer.getInt();
+    LOG.debug("Reading {} redirects of site {}, containing the events up to {}", size, siteId, timestamp);
+
+    SiteRedirects.Builder builder = SiteRedirects.builder(siteId, size);
+    for (int i = 0; i < size; i++) {
+      String contentId = readString(buffer);
+      SourceUrlType sourceUrlType = SourceUrlType.valueOf(readString(buffer));
+      String source = readString(buffer);
+      String redirectType = readString(buffer);
+      String targetId = readString(buffer);
+      String targetUrl = readString(buffer);
+      int priority = buffer.getInt();
+      long targetValidFrom = buffer.getLong();
+      long targetValidTo = buffer.getLong();
+      int sourceParameterCount = buffer.getInt();
+      List<RedirectSourceParameter> sourceParameters = new ArrayList<>(sourceParameterCount);
+      for (int j = 0; j < sourceParameterCount; j++) {
+        String name = readString(buffer);
+        String value = readString(buffer);
+        String operator = readString(buffer);
+        sourceParameters.add(new RedirectSourceParameter(name, value,
+                operator != null ? RedirectSourceParameter.Operator.valueOf(operator) : null));
+      }
+      int targetParameterCount = buffer.getInt();
+      List<RedirectTargetParameter> targetParameters = new ArrayList<>(targetParameterCount);
+      for (int j = 0; j < targetParameterCount; j++) {
+        targetParameters.add(new RedirectTargetParameter(readString(buffer), readString(buffer)));
+      }
+
+      Content target = targetId != null ? contentRepository.getContent(targetId) : null;
+      builder.addRedirect(new Redirect(contentId, sourceUrlType, source,
+              redirectType != null ? RedirectType.valueOf(redirectType) : null, target, targetUrl, priority,
+              targetValidFrom, targetValidTo, sourceParameters, targetParameters));
+    }
+    return new Snapshot(builder.build(), rootSegment,
+            timestamp != null ? contentRepository.getConnection().getTimestamp(timestamp) : null, savedAt);
+  }
+
+  private static void writeString(DataOutputStream out, @Nullable String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+    } else {
+      byte[] bytes = value.getBytes(UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  @Nullable
+  private static String readString(ByteBuffer buffer) {
+    int length = buffer.getInt();
+    if (length < 0) {
+      return null;
+    }
+    if (length > buffer.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, UTF_8);
+  }
+
+  /**
+   * The redirects of a snapshot, the root segment they were indexed with, the repository timestamp, from which the
+   * events must be replayed, and the time, when the snapshot was written.
+   */
+  public record Snapshot(SiteRedirects redirects, @Nullable String rootSegment, @Nullable Timestamp timestamp,
+                         long savedAt) {
+  }
+}
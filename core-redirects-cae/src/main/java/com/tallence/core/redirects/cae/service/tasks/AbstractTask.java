@@ -22,8 +22,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.StringUtils;
 
-import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.UnaryOperator;
 
 import static com.tallence.core.redirects.cae.model.Redirect.*;
 
@@ -34,12 +35,29 @@ abstract class AbstractTask implements Runnable {
 
   private static final Logger LOG = LoggerFactory.getLogger(AbstractTask.class);
 
-  final Map<Site, SiteRedirects> redirectsMap;
+  final ConcurrentMap<Site, SiteRedirects> redirectsMap;
 
-  AbstractTask(Map<Site, SiteRedirects> redirectsMap) {
+  AbstractTask(ConcurrentMap<Site, SiteRedirects> redirectsMap) {
     this.redirectsMap = redirectsMap;
   }
 
+  /**
+   * Replaces the redirects of the given site with a new snapshot, which is created by applying the given update to
+   * the current one. Requests keep using the current snapshot until the new one is published. Nothing happens, if the
+   * site is not in the cache (yet).
+   * <p>
+   * The snapshot is built outside of the map, so the caller must hold the lock of the site, which serializes all
+   * updates of its redirects.
+   */
+  void updateRedirects(Site site, UnaryOperator<SiteRedirects.Builder> update) {
+    SiteRedirects current = redirectsMap.get(site);
+    if (current == null) {
+      return;
+    }
+    // Not replace(site, current, updated): SiteRedirects compares all of its redirects in equals
+    redirectsMap.put(site, update.apply(current.toBuilder()).build());
+  }
+
   String getRootSegment(Site site) {
     return Optional.ofNullable(site.getSiteRootDocument())
             .map(r -> "/" + r.getString("segment"))
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019 Tallence AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tallence.core.redirects.cae.service.tasks;
+
+import com.coremedia.cap.content.Content;
+import com.coremedia.cap.content.ContentRepository;
+import com.coremedia.cap.multisite.Site;
+import com.tallence.core.redirects.cae.model.Redirect;
+import com.tallence.core.redirects.cae.service.SiteRedirects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Brings the cached redirects of a site up to date by reading only the given, changed redirects again. Each redirect
+ * is added, if the {@link UpdateSiteTask} would find it now, and removed otherwise. So the result does not depend on
+ * the kind or the order of the events, which caused the changes.
+ * <p>
+ * The task must be run while holding the lock of the site.
+ */
+public class CatchUpSiteTask extends AbstractTask {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CatchUpSiteTask.class);
+
+  private final ContentRepository contentRepository;
+  private final String redirectsPath;
+  private final Site site;
+  private final Collection<String> contentIds;
+
+  public CatchUpSiteTask(ConcurrentMap<Site, SiteRedirects> redirectsMap, ContentRepository contentRepository, String redirectsPath, Site site, Collection<String> contentIds) {
+    super(redirectsMap);
+    this.contentRepository = contentRepository;
+    this.redirectsPath = redirectsPath;
+    this.site = site;
+    this.contentIds = contentIds;
+  }
+
+  @Override
+  public void run() {
+    Content redirectsFolder = site.getSiteRootFolder().getChild(redirectsPath);
+    String rootSegment = getRootSegment(site);
+    if (redirectsFolder == null || rootSegment == null) {
+      LOG.warn("Missing redirects folder or root segment of site {}, cannot catch up its redirects", site.getId());
+      return;
+    }
+
+    List<Content> contents = contentIds.stream()
+            .map(contentRepository::getContent)
+            .filter(Objects::nonNull)
+            .toList();
+    contentRepository.withPrefetch(contents, 2000);
+
+    List<Redirect> updated = new ArrayList<>();
+    Set<String> removed = new LinkedHashSet<>(contentIds);
+    for (Content content : contents) {
+      if (isIndexed(content, redirectsFolder)) {
+        updated.add(new Redirect(content, rootSegment));
+        removed.remove(content.getId());
+      }
+    }
+
+    updateRedirects(site, redirects -> {
+      removed.forEach(redirects::removeRedirect);
+      updated.forEach(redirects::addRedirect);
+      return redirects;
+    });
+    LOG.debug("Caught up [{}] changed and [{}] removed redirects of site {}", updated.size(), removed.size(), site.getId());
+  }
+
+  /**
+   * Returns true, if the redirect is found by the query of the {@link UpdateSiteTask}.
+   */
+  private boolean isIndexed(Content redirect, Content redirectsFolder) {
+    return !redirect.isDestroyed() && !redirect.isDeleted() && redirect.isInProduction()
+            && redirect.getPath() != null && redirect.getPath().startsWith(redirectsFolder.getPath() + "/")
+            && validate(redirect);
+  }
+}
@@ -20,18 +20,25 @@ import com.coremedia.cap.content.ContentRepository;
 import com.coremedia.cap.multisite.Site;
 import com.tallence.core.redirects.cae.model.Redirect;
 import com.tallence.core.redirects.cae.service.SiteRedirects;
-import com.tallence.core.redirects.cae.service.util.PausableThreadPoolExecutorService;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
-
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Indexes all redirects of a site and replaces its cached redirects. The redirects are read in parallel shards, one
+ * per subfolder of the redirects folder (the bucket folders, in which the studio stores the redirects) and one for the
+ * redirects directly in the redirects folder. Each shard is fetched, prefetched and parsed on the given
+ * {@link ForkJoinPool}, the partial indexes are merged into one snapshot at the end.
+ */
 public class UpdateSiteTask extends AbstractTask {
 
   private static final Logger LOG = LoggerFactory.getLogger(UpdateSiteTask.class);
@@ -42,14 +49,15 @@ public class UpdateSiteTask extends AbstractTask {
   private final ContentRepository contentRepository;
   private final String redirectsPath;
   private final Site site;
-  private final PausableThreadPoolExecutorService executorService;
+  private final ForkJoinPool shardPool;
 
-  public UpdateSiteTask(Map<Site, SiteRedirects> redirectsMap, ContentRepository contentRepository, String redirectsPath, Site targetSite, PausableThreadPoolExecutorService executorService) {
+  public UpdateSiteTask(ConcurrentMap<Site, SiteRedirects> redirectsMap, ContentRepository contentRepository, String redirectsPath, Site targetSite,
+                        ForkJoinPool shardPool) {
     super(redirectsMap);
     this.contentRepository = contentRepository;
     this.redirectsPath = redirectsPath;
     this.site = targetSite;
-    this.executorService = executorService;
+    this.shardPool = shardPool;
   }
 
   @Override
@@ -62,26 +70,42 @@ public class UpdateSiteTask extends AbstractTask {
     } else {
       LOG.debug("Reading redirects from folder {}", redirectsFolder.getPath());
     }
-    // Fetch the redirect content from
-    Collection<Content> redirectContents = fetchRedirectDocumentsFromFolder(redirectsFolder);
 
-    //Prefetch to get data with just one server call. Using chunks which will work more stable for large sets.
-    contentRepository.withPrefetch(redirectContents, 2000);
+    //Append the site's root segment to each redirect-url which makes life easier for the RedirectFilter
+    String rootSegment = getRootSegment(site);
+    if (rootSegment == null) {
+      LOG.error("No root segment found for site [{}]", site.getId());
+    }
 
-    // In order to create dependencies on the redirects found, the conversion needs to happen after re-enabling the tracking.
-    List<Redirect> redirectEntries = mapToRedirects(redirectContents, site);
+    List<Supplier<Collection<Content>>> shards = getShards(redirectsFolder);
+    List<SiteRedirects.Builder> partialRedirects = shardPool.submit(() -> shards.parallelStream()
+            .map(shard -> buildShard(shard.get(), rootSegment))
+            .toList()).join();
 
-    // Add redirects to model
-    final SiteRedirects result = new SiteRedirects(site.getId());
-    redirectEntries.forEach(result::addRedirect);
+    // Merge the shards into the redirects of the site
+    int count = partialRedirects.stream().mapToInt(SiteRedirects.Builder::size).sum();
+    final SiteRedirects.Builder builder = SiteRedirects.builder(site.getId(), count);
+    partialRedirects.forEach(builder::addAll);
+    final SiteRedirects result = builder.build();
 
-    LOG.debug("Finished loading [{}] static and [{}] dynamic redirects for folder [{}]",
-            result.getPlainRedirects().size(), result.getPatternRedirects().size(), redirectsFolder.getPath());
+    LOG.debug("Finished loading [{}] static and [{}] dynamic redirects in [{}] shards for folder [{}]",
+            result.getPlainRedirects().size(), result.getPatternRedirects().size(), shards.size(), redirectsFolder.getPath());
 
     redirectsMap.put(site, result);
+  }
 
-    // Unpause the regular updates
-    executorService.resume();
+  /**
+   * Returns the shards of the redirects of the given folder: The redirects directly in the folder (e.g. created before
+   * the bucket folders were introduced) and the redirects below each of its subfolders.
+   */
+  @NonNull
+  private List<Supplier<Collection<Content>>> getShards(@NonNull Content redirectsFolder) {
+    List<Supplier<Collection<Content>>> shards = new ArrayList<>();
+    shards.add(() -> redirectsFolder.getChildDocuments().stream()
+            .filter(content -> content.getType().isSubtypeOf(Redirect.NAME) && content.isInProduction())
+            .toList());
+    redirectsFolder.getSubFolders().forEach(folder -> shards.add(() -> fetchRedirectDocumentsFromFolder(folder)));
+    return shards;
   }
 
   /**
@@ -94,24 +118,20 @@ public class UpdateSiteTask extends AbstractTask {
   }
 
   /**
-   * Map the given list of redirect contents to the custom redirect data type.
+   * Map the given redirect contents of a shard to the custom redirect data type and index them.
    */
   @NonNull
-  private List<Redirect> mapToRedirects(@NonNull Collection<Content> redirectContents, Site site) {
-    //Append the site's root segment to each redirect-url which makes life easier for the RedirectFilter
-    Optional<String> rootSegment = Optional.ofNullable(site.getSiteRootDocument())
-            .map(r -> "/" + r.getString("segment"))
-            .map(String::toLowerCase);
-
-    if (rootSegment.isPresent()) {
-      return redirectContents
-              .stream()
+  private SiteRedirects.Builder buildShard(@NonNull Collection<Content> redirectContents, String rootSegment) {
+    SiteRedirects.Builder builder = SiteRedirects.builder(site.getId(), redirectContents.size());
+    if (rootSegment != null && !redirectContents.isEmpty()) {
+      //Prefetch to get data with just one server call. Using chunks which will work more stable for large sets.
+      contentRepository.withPrefetch(redirectContents, 2000);
+      redirectContents.stream()
               .filter(this::validate)
-              .map(c -> new Redirect(c, rootSegment.get()))
-              .collect(Collectors.toList());
+              .map(c -> new Redirect(c, rootSegment))
+              .forEach(builder::addRedirect);
     }
-    LOG.error("No root segment found for site [{}]", site.getId());
-    return Collections.emptyList();
+    return builder;
   }
 
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2019 Tallence AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tallence.core.redirects.cae.service.util;
+
+/**
+ * A lower case view of a request path without its trailing slash, which is the form the redirect sources are matched
+ * against. The characters are converted on access instead of creating a lower case copy of the path.
+ */
+public final class LowerCasePath implements CharSequence {
+
+  private final CharSequence path;
+  private final int length;
+
+  private LowerCasePath(CharSequence path, int length) {
+    this.path = path;
+    this.length = length;
+  }
+
+  /**
+   * Returns the given path in lower case and without a trailing slash. Paths, which are in this form already, are
+   * returned as they are, so the most lookups do not create any objects.
+   * <p>
+   * Paths with non ASCII characters are converted by {@link String#toLowerCase()}, because their lower case form
+   * might differ in length.
+   */
+  public static CharSequence of(CharSequence path) {
+    int length = path.length();
+    boolean trailingSlash = length > 0 && path.charAt(length - 1) == '/';
+    int end = trailingSlash ? length - 1 : length;
+    boolean lowerCase = true;
+    for (int i = 0; i < end; i++) {
+      char c = path.charAt(i);
+      if (c > 127) {
+        String lowerCasePath = path.toString().toLowerCase();
+        return lowerCasePath.endsWith("/") ? lowerCasePath.substring(0, lowerCasePath.length() - 1) : lowerCasePath;
+      }
+      lowerCase &= c < 'A' || c > 'Z';
+    }
+    return lowerCase && !trailingSlash ? path : new LowerCasePath(path, end);
+  }
+
+  @Override
+  public int length() {
+    return length;
+  }
+
+  @Override
+  public char charAt(int index) {
+    if (index >= length) {
+      throw new IndexOutOfBoundsException(index);
+    }
+    char c = path.charAt(index);
+    return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+  }
+
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    return toString().substring(start, end);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      result.append(charAt(i));
+    }
+    return result.toString();
+  }
+}
@@ -0,0 +1,774 @@
+/*
+ * Copyright 2019 Tallence AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tallence.core.redirects.cae.service.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Pattern;
+
+/**
+ * Matches an input against a whole set of {@link Pattern}s at once and returns the first pattern (in the order given
+ * to the constructor), that {@link java.util.regex.Matcher#matches() matches} the complete input.
+ * <p>
+ * All patterns using the common regex subset (literals, character classes, groups, alternations and quantifiers) are
+ * merged into one automaton, which is turned into a DFA lazily while inputs are matched. So one pass over the input is
+ * enough to find all matching patterns, independent of the number of patterns. Patterns using other features
+ * (backreferences, lookarounds, inline flags, possessive quantifiers, ...) are evaluated with {@link java.util.regex}
+ * as a fallback, but only if they precede the first match of the automaton.
+ * <p>
+ * Before any pattern is evaluated, the candidates are looked up in a {@link PatternPrefixTrie} by their literal
+ * leading path segments, so paths without any candidate are rejected without running the automaton.
+ * <p>
+ * Instances are immutable from the outside and thread safe. The DFA states are cached up to a limit, if the limit is
+ * reached, the remaining inputs are matched by simulating the automaton without caching.
+ */
+public class MultiPatternMatcher {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MultiPatternMatcher.class);
+
+  /**
+   * Upper bound for the number of cached transitions (states * character classes) of the lazy DFA.
+   */
+  private static final int MAX_CACHED_TRANSITIONS = 1 << 20;
+
+  private static final int NO_MATCH = Integer.MAX_VALUE;
+
+  private final Pattern[] patterns;
+  private final int[] fallbackPatterns;
+  private final boolean[] isFallback;
+  private final PatternPrefixTrie prefixTrie;
+  private final Nfa nfa;
+  private final int[] classBounds;
+  private final int[] asciiClasses = new int[128];
+  private final int maxStates;
+  private final AtomicInteger stateCount = new AtomicInteger();
+  private final Map<StateKey, DfaState> states = new ConcurrentHashMap<>();
+  private final DfaState startState;
+
+  public MultiPatternMatcher(List<Pattern> patterns) {
+    this.patterns = patterns.toArray(new Pattern[0]);
+    this.nfa = new Nfa();
+
+    List<Integer> fallback = new ArrayList<>();
+    List<Integer> starts = new ArrayList<>();
+    for (int i = 0; i < this.patterns.length; i++) {
+      Pattern pattern = this.patterns[i];
+      try {
+        Node node = new Parser(pattern).parse();
+        starts.add(node.compile(nfa, nfa.addMatch(i)));
+      } catch (UnsupportedPatternException e) {
+        LOG.debug("Pattern [{}] is evaluated with java.util.regex: {}", pattern.pattern(), e.getMessage());
+        fallback.add(i);
+      }
+    }
+    this.fallbackPatterns = fallback.stream().mapToInt(Integer::intValue).toArray();
+    this.isFallback = new boolean[this.patterns.length];
+    for (int index : fallbackPatterns) {
+      this.isFallback[index] = true;
+    }
+    this.prefixTrie = new PatternPrefixTrie(patterns);
+
+    this.classBounds = nfa.classBounds();
+    for (int c = 0; c < asciiClasses.length; c++) {
+      asciiClasses[c] = lookupClass(c);
+    }
+    this.maxStates = Math.max(16, MAX_CACHED_TRANSITIONS / (classBounds.length + 1));
+    this.startState = state(nfa.closure(starts.stream().mapToInt(Integer::intValue).toArray()));
+  }
+
+  /**
+   * Returns the number of patterns, which are evaluated with {@link java.util.regex} instead of the automaton.
+   */
+  public int getFallbackCount() {
+    return fallbackPatterns.length;
+  }
+
+  /**
+   * Returns the index of the first pattern matching the complete input or -1, if no pattern matches.
+   */
+  public int firstMatch(CharSequence input) {
+    // Only the patterns with a matching literal prefix can match at all
+    int[] candidates = prefixTrie.candidates(input);
+    if (candidates.length == 0) {
+      return -1;
+    }
+    int match = hasAutomatonCandidate(candidates) ? matchAutomaton(input) : -1;
+    if (match == -2) {
+      // The automaton cannot handle the input (surrogate pairs are code points for java.util.regex): check all candidates
+      for (int index : candidates) {
+        if (patterns[index].matcher(input).matches()) {
+          return index;
+        }
+      }
+      return -1;
+    }
+    int limit = match < 0 ? NO_MATCH : match;
+    for (int index : candidates) {
+      if (index > limit) {
+        break;
+      }
+      if (isFallback[index] && patterns[index].matcher(input).matches()) {
+        return index;
+      }
+    }
+    return match;
+  }
+
+  private boolean hasAutomatonCandidate(int[] candidates) {
+    for (int index : candidates) {
+      if (!isFallback[index]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Runs the automaton on the input.
+   *
+   * @return the index of the first matching pattern, -1 if none matches or -2, if the input cannot be handled.
+   */
+  private int matchAutomaton(CharSequence input) {
+    DfaState state = startState;
+    int length = input.length();
+    for (int i = 0; i < length; i++) {
+      if (state.isDead()) {
+        return -1;
+      }
+      char c = input.charAt(i);
+      if (Character.isSurrogate(c)) {
+        return -2;
+      }
+      int cls = c < 128 ? asciiClasses[c] : lookupClass(c);
+      DfaState next = state.next.get(cls);
+      if (next == null) {
+        next = computeNext(state, cls);
+        if (next == null) {
+          // Cache is full, continue without caching
+          return simulate(state.nfaStates, input, i);
+        }
+      }
+      state = next;
+    }
+    return state.firstMatch == NO_MATCH ? -1 : state.firstMatch;
+  }
+
+  private DfaState computeNext(DfaState state, int cls) {
+    int[] target = nfa.step(state.nfaStates, representative(cls));
+    DfaState next = state(target);
+    if (next != null) {
+      state.next.compareAndSet(cls, null, next);
+    }
+    return next;
+  }
+
+  private int simulate(int[] nfaStates, CharSequence input, int from) {
+    int[] current = nfaStates;
+    for (int i = from; i < input.length() && current.length > 0; i++) {
+      char c = input.charAt(i);
+      if (Character.isSurrogate(c)) {
+        return -2;
+      }
+      current = nfa.step(current, c);
+    }
+    int match = nfa.firstMatch(current);
+    return match == NO_MATCH ? -1 : match;
+  }
+
+  /**
+   * Returns the interned DFA state for the given (closed) set of NFA states or null, if the state cache is full.
+   */
+  private DfaState state(int[] nfaStates) {
+    StateKey key = new StateKey(nfaStates);
+    DfaState state = states.get(key);
+    if (state == null) {
+      if (stateCount.get() >= maxStates) {
+        return null;
+      }
+      DfaState created = new DfaState(nfaStates, nfa.firstMatch(nfaStates), classBounds.length + 1);
+      state = states.putIfAbsent(key, created);
+      if (state == null) {
+        state = created;
+        if (stateCount.incrementAndGet() == maxStates) {
+          LOG.warn("Reached the limit of {} cached states for {} patterns, further inputs may be matched slower.",
+                  maxStates, patterns.length);
+        }
+      }
+    }
+    return state;
+  }
+
+  private int lookupClass(int c) {
+    int index = Arrays.binarySearch(classBounds, c);
+    return index >= 0 ? index + 1 : -index - 1;
+  }
+
+  private int representative(int cls) {
+    return cls == 0 ? 0 : classBounds[cls - 1];
+  }
+
+
+  // DFA
+
+  private static class DfaState {
+    private final int[] nfaStates;
+    private final int firstMatch;
+    private final AtomicReferenceArray<DfaState> next;
+
+    private DfaState(int[] nfaStates, int firstMatch, int classCount) {
+      this.nfaStates = nfaStates;
+      this.firstMatch = firstMatch;
+      this.next = new AtomicReferenceArray<>(classCount);
+    }
+
+    private boolean isDead() {
+      return nfaStates.length == 0;
+    }
+  }
+
+  private static class StateKey {
+    private final int[] states;
+    private final int hash;
+
+    private StateKey(int[] states) {
+      this.states = states;
+      this.hash = Arrays.hashCode(states);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof StateKey && Arrays.equals(states, ((StateKey) o).states);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+
+  // NFA
+
+  /**
+   * A Thompson NFA of all supported patterns. States are stored in parallel lists, which are not modified anymore
+   * once the constructor of the matcher has finished.
+   */
+  private static class Nfa {
+    private static final int CHARS = 0;
+    private static final int SPLIT = 1;
+    private static final int MATCH = 2;
+
+    private final List<Integer> types = new ArrayList<>();
+    private final List<Integer> out1 = new ArrayList<>();
+    private final List<Integer> out2 = new ArrayList<>();
+    private final List<int[]> ranges = new ArrayList<>();
+
+    private int add(int type, int next1, int next2, int[] charRanges) {
+      types.add(type);
+      out1.add(next1);
+      out2.add(next2);
+      ranges.add(charRanges);
+      return types.size() - 1;
+    }
+
+    private int addChars(int[] charRanges, int next) {
+      return add(CHARS, next, -1, charRanges);
+    }
+
+    private int addSplit(int next1, int next2) {
+      return add(SPLIT, next1, next2, null);
+    }
+
+    private int addMatch(int patternIndex) {
+      return add(MATCH, patternIndex, -1, null);
+    }
+
+    private void patch(int split, int next1) {
+      out1.set(split, next1);
+    }
+
+    /**
+     * Returns the sorted bounds of the character classes: each bound starts a new class of characters, which are
+     * handled the same by all states.
+     */
+    private int[] classBounds() {
+      TreeSet<Integer> bounds = new TreeSet<>();
+      for (int[] charRanges : ranges) {
+        if (charRanges != null) {
+          for (int i = 0; i < charRanges.length; i += 2) {
+            bounds.add(charRanges[i]);
+            if (charRanges[i + 1] < Character.MAX_VALUE) {
+              bounds.add(charRanges[i + 1] + 1);
+            }
+          }
+        }
+      }
+      bounds.remove(0);
+      return bounds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private int[] step(int[] current, int c) {
+      List<Integer> next = new ArrayList<>();
+      for (int state : current) {
+        if (types.get(state) == CHARS && contains(ranges.get(state), c)) {
+          next.add(out1.get(state));
+        }
+      }
+      return closure(next.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Follows all split states and returns the sorted set of reachable char and match states.
+     */
+    private int[] closure(int[] states) {
+      BitSet visited = new BitSet();
+      BitSet result = new BitSet();
+      int[] stack = new int[Math.max(16, states.length)];
+      int size = 0;
+      for (int state : states) {
+        if (size == stack.length) {
+          stack = Arrays.copyOf(stack, size * 2);
+        }
+        stack[size++] = state;
+      }
+      while (size > 0) {
+        int state = stack[--size];
+        if (visited.get(state)) {
+          continue;
+        }
+        visited.set(state);
+        if (types.get(state) == SPLIT) {
+          if (size + 2 > stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+          }
+          stack[size++] = out2.get(state);
+          stack[size++] = out1.get(state);
+        } else {
+          result.set(state);
+        }
+      }
+      return result.stream().toArray();
+    }
+
+    private int firstMatch(int[] states) {
+      int first = NO_MATCH;
+      for (int state : states) {
+        if (types.get(state) == MATCH) {
+          first = Math.min(first, out1.get(state));
+        }
+      }
+      return first;
+    }
+
+    private static boolean contains(int[] charRanges, int c) {
+      for (int i = 0; i < charRanges.length; i += 2) {
+        if (c >= charRanges[i] && c <= charRanges[i + 1]) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+
+  // PARSER
+
+  /**
+   * Thrown for regex features, which are not supported by the automaton.
+   */
+  private static class UnsupportedPatternException extends Exception {
+    private UnsupportedPatternException(String message) {
+      super(message, null, false, false);
+    }
+  }
+
+  private interface Node {
+    /**
+     * Adds the states of this node to the NFA and returns its start state.
+     *
+     * @param next the state following this node
+     */
+    int compile(Nfa nfa, int next);
+  }
+
+  private static class CharNode implements Node {
+    private final int[] charRanges;
+
+    private CharNode(int[] charRanges) {
+      this.charRanges = charRanges;
+    }
+
+    @Override
+    public int compile(Nfa nfa, int next) {
+      return nfa.addChars(charRanges, next);
+    }
+  }
+
+  private static class ConcatNode implements Node {
+    private final List<Node> nodes;
+
+    private ConcatNode(List<Node> nodes) {
+      this.nodes = nodes;
+    }
+
+    @Override
+    public int compile(Nfa nfa, int next) {
+      int start = next;
+      for (int i = nodes.size() - 1; i >= 0; i--) {
+        start = nodes.get(i).compile(nfa, start);
+      }
+      return start;
+    }
+  }
+
+  private static class AlternationNode implements Node {
+    private final List<Node> alternatives;
+
+    private AlternationNode(List<Node> alternatives) {
+      this.alternatives = alternatives;
+    }
+
+    @Override
+    public int compile(Nfa nfa, int next) {
+      int start = alternatives.get(alternatives.size() - 1).compile(nfa, next);
+      for (int i = alternatives.size() - 2; i >= 0; i--) {
+        start = nfa.addSplit(alternatives.get(i).compile(nfa, next), start);
+      }
+      return start;
+    }
+  }
+
+  private static class RepeatNode implements Node {
+    private final Node node;
+    private final int min;
+    private final int max;
+
+    private RepeatNode(Node node, int min, int max) {
+      this.node = node;
+      this.min = min;
+      this.max = max;
+    }
+
+    @Override
+    public int compile(Nfa nfa, int next) {
+      int start;
+      if (max < 0) {
+        // Unbounded: a loop, which can be left after each iteration
+        int loop = nfa.addSplit(-1, next);
+        nfa.patch(loop, node.compile(nfa, loop));
+        start = loop;
+      } else {
+        // Bounded: optional copies, nested from the back
+        start = next;
+        for (int i = min; i < max; i++) {
+          start = nfa.addSplit(node.compile(nfa, start), next);
+        }
+      }
+      for (int i = 0; i < min; i++) {
+        start = node.compile(nfa, start);
+      }
+      return start;
+    }
+  }
+
+  /**
+   * A recursive descent parser for the supported subset of the {@link Pattern} syntax.
+   */
+  private static class Parser {
+    private static final int MAX_REPETITIONS = 100;
+    private static final int[] ANY = {0, '\n' - 1, '\n' + 1, '\r' - 1, '\r' + 1, 0x84, 0x86, 0x2027, 0x202A, Character.MAX_VALUE};
+    private static final int[] DIGIT = {'0', '9'};
+    private static final int[] WORD = {'0', '9', 'A', 'Z', '_', '_', 'a', 'z'};
+    private static final int[] SPACE = {'\t', '\r', ' ', ' '};
+
+    private final String pattern;
+    private int pos;
+
+    private Parser(Pattern pattern) throws UnsupportedPatternException {
+      if (pattern.flags() != 0) {
+        throw new UnsupportedPatternException("flags");
+      }
+      String source = pattern.pattern();
+      // Anchors at the start and the end do not change the result of Matcher#matches
+      int start = source.startsWith("^") ? 1 : 0;
+      int end = source.length();
+      if (end > start && source.charAt(end - 1) == '$' && !isEscaped(source, end - 1)) {
+        end--;
+      }
+      this.pattern = source.substring(start, end);
+    }
+
+    private static boolean isEscaped(String source, int index) {
+      int backslashes = 0;
+      for (int i = index - 1; i >= 0 && source.charAt(i) == '\\'; i--) {
+        backslashes++;
+      }
+      return backslashes % 2 == 1;
+    }
+
+    private Node parse() throws UnsupportedPatternException {
+      Node node = parseAlternation();
+      if (pos < pattern.length()) {
+        throw new UnsupportedPatternException("unexpected '" + pattern.charAt(pos) + "'");
+      }
+      return node;
+    }
+
+    private Node parseAlternation() throws UnsupportedPatternException {
+      List<Node> alternatives = new ArrayList<>();
+      alternatives.add(parseConcatenation());
+      while (pos < pattern.length() && pattern.charAt(pos) == '|') {
+        pos++;
+        alternatives.add(parseConcatenation());
+      }
+      return alternatives.size() == 1 ? alternatives.get(0) : new AlternationNode(alternatives);
+    }
+
+    private Node parseConcatenation() throws UnsupportedPatternException {
+      List<Node> nodes = new ArrayList<>();
+      while (pos < pattern.length() && pattern.charAt(pos) != '|' && pattern.charAt(pos) != ')') {
+        nodes.add(parseQuantified(parseAtom()));
+      }
+      return new ConcatNode(nodes);
+    }
+
+    private Node parseQuantified(Node atom) throws UnsupportedPatternException {
+      Node node = atom;
+      while (pos < pattern.length()) {
+        char c = pattern.charAt(pos);
+        int min;
+        int max;
+        if (c == '*') {
+          min = 0;
+          max = -1;
+          pos++;
+        } else if (c == '+') {
+          min = 1;
+          max = -1;
+          pos++;
+        } else if (c == '?') {
+          min = 0;
+          max = 1;
+          pos++;
+        } else if (c == '{') {
+          int close = pattern.indexOf('}', pos);
+          if (close < 0) {
+            throw new UnsupportedPatternException("unclosed repetition");
+          }
+          String[] bounds = pattern.substring(pos + 1, close).split(",", -1);
+          try {
+            min = Integer.parseInt(bounds[0]);
+            max = bounds.length == 1 ? min : bounds[1].isEmpty() ? -1 : Integer.parseInt(bounds[1]);
+          } catch (NumberFormatException e) {
+            throw new UnsupportedPatternException("invalid repetition");
+          }
+          if (bounds.length > 2 || min > MAX_REPETITIONS || max > MAX_REPETITIONS || (max >= 0 && max < min)) {
+            throw new UnsupportedPatternException("repetition");
+          }
+          pos = close + 1;
+        } else {
+          return node;
+        }
+        if (pos < pattern.length()) {
+          if (pattern.charAt(pos) == '+') {
+            // Possessive quantifiers may prevent matches
+            throw new UnsupportedPatternException("possessive quantifier");
+          } else if (pattern.charAt(pos) == '?') {
+            // Reluctant quantifiers match the same inputs as greedy ones
+            pos++;
+          }
+        }
+        node = new RepeatNode(node, min, max);
+      }
+      return node;
+    }
+
+    private Node parseAtom() throws UnsupportedPatternException {
+      char c = pattern.charAt(pos++);
+      switch (c) {
+        case '(':
+          if (pattern.startsWith("?:", pos)) {
+            pos += 2;
+          } else if (pattern.startsWith("?<", pos) && pos + 2 < pattern.length() && Character.isLetter(pattern.charAt(pos + 2))) {
+            pos = pattern.indexOf('>', pos) + 1;
+            if (pos == 0) {
+              throw new UnsupportedPatternException("named group");
+            }
+          } else if (pattern.startsWith("?", pos)) {
+            throw new UnsupportedPatternException("special group");
+          }
+          Node group = parseAlternation();
+          if (pos >= pattern.length() || pattern.charAt(pos) != ')') {
+            throw new UnsupportedPatternException("unclosed group");
+          }
+          pos++;
+          return group;
+        case '[':
+          return new CharNode(parseClass());
+        case '.':
+          return new CharNode(ANY);
+        case '\\':
+          return new CharNode(parseEscape(false));
+        case '^':
+        case '$':
+        case '*':
+        case '+':
+        case '?':
+        case '{':
+          throw new UnsupportedPatternException("unexpected '" + c + "'");
+        default:
+          return new CharNode(new int[]{c, c});
+      }
+    }
+
+    private int[] parseEscape(boolean inClass) throws UnsupportedPatternException {
+      if (pos >= pattern.length()) {
+        throw new UnsupportedPatternException("trailing backslash");
+      }
+      char c = pattern.charAt(pos++);
+      switch (c) {
+        case 'd':
+          return DIGIT;
+        case 'D':
+          return invert(DIGIT);
+        case 'w':
+          return WORD;
+        case 'W':
+          return invert(WORD);
+        case 's':
+          return SPACE;
+        case 'S':
+          return invert(SPACE);
+        case 't':
+          return new int[]{'\t', '\t'};
+        case 'n':
+          return new int[]{'\n', '\n'};
+        case 'r':
+          return new int[]{'\r', '\r'};
+        case 'f':
+          return new int[]{'\f', '\f'};
+        case 'a':
+          return new int[]{'\u0007', '\u0007'};
+        case 'e':
+          return new int[]{'\u001B', '\u001B'};
+        default:
+          if (Character.isLetterOrDigit(c) || (inClass && c == '&')) {
+            // Backreferences, boundaries, unicode classes, quotes etc.
+            throw new UnsupportedPatternException("escape \\" + c);
+          }
+          return new int[]{c, c};
+      }
+    }
+
+    private int[] parseClass() throws UnsupportedPatternException {
+      boolean negated = pos < pattern.length() && pattern.charAt(pos) == '^';
+      if (negated) {
+        pos++;
+      }
+      List<int[]> parts = new ArrayList<>();
+      boolean first = true;
+      while (true) {
+        if (pos >= pattern.length()) {
+          throw new UnsupportedPatternException("unclosed class");
+        }
+        char c = pattern.charAt(pos++);
+        if (c == ']' && !first) {
+          break;
+        } else if (c == '[' || c == ']' || (c == '&' && pos < pattern.length() && pattern.charAt(pos) == '&')) {
+          throw new UnsupportedPatternException("nested class");
+        }
+        first = false;
+        int[] part;
+        if (c == '\\') {
+          part = parseEscape(true);
+        } else {
+          part = new int[]{c, c};
+        }
+        if (part[0] == part[part.length - 1] && part.length == 2 && pos + 1 < pattern.length()
+                && pattern.charAt(pos) == '-' && pattern.charAt(pos + 1) != ']') {
+          pos++;
+          char end = pattern.charAt(pos++);
+          int[] endPart;
+          if (end == '\\') {
+            endPart = parseEscape(true);
+            if (endPart.length != 2 || endPart[0] != endPart[1]) {
+              throw new UnsupportedPatternException("class range");
+            }
+          } else if (end == '[') {
+            throw new UnsupportedPatternException("nested class");
+          } else {
+            endPart = new int[]{end, end};
+          }
+          if (endPart[0] < part[0]) {
+            throw new UnsupportedPatternException("class range");
+          }
+          part = new int[]{part[0], endPart[0]};
+        }
+        parts.add(part);
+      }
+      int[] merged = normalize(parts);
+      return negated ? invert(merged) : merged;
+    }
+
+    private static int[] normalize(List<int[]> parts) {
+      List<int[]> ranges = new ArrayList<>();
+      for (int[] part : parts) {
+        for (int i = 0; i < part.length; i += 2) {
+          ranges.add(new int[]{part[i], part[i + 1]});
+        }
+      }
+      ranges.sort((a, b) -> Integer.compare(a[0], b[0]));
+      List<Integer> result = new ArrayList<>();
+      for (int[] range : ranges) {
+        int size = result.size();
+        if (size > 0 && range[0] <= result.get(size - 1) + 1) {
+          result.set(size - 1, Math.max(result.get(size - 1), range[1]));
+        } else {
+          result.add(range[0]);
+          result.add(range[1]);
+        }
+      }
+      return result.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int[] invert(int[] ranges) {
+      List<Integer> result = new ArrayList<>();
+      int next = 0;
+      for (int i = 0; i < ranges.length; i += 2) {
+        if (ranges[i] > next) {
+          result.add(next);
+          result.add(ranges[i] - 1);
+        }
+        next = ranges[i + 1] + 1;
+      }
+      if (next <= Character.MAX_VALUE) {
+        result.add(next);
+        result.add((int) Character.MAX_VALUE);
+      }
+      return result.stream().mapToInt(Integer::intValue).toArray();
+    }
+  }
+}
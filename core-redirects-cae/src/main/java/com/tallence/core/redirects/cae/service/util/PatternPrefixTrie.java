@@ -0,0 +1,226 @@
+/*
+ * Copyright 2019 Tallence AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tallence.core.redirects.cae.service.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * A trie of the literal leading path segments of regular expressions, e.g. {@code /site/en/old-shop/.*} is stored
+ * below the segments {@code site, en, old-shop}. It is used to find the patterns, which might match a path, without
+ * evaluating all of them.
+ * <p>
+ * Patterns without a literal prefix (e.g. {@code .*\.html} or top level alternations) are stored in the root node,
+ * which is a catch-all bucket for every path.
+ */
+public class PatternPrefixTrie {
+
+  private static final int[] NONE = new int[0];
+  private static final String META_CHARACTERS = "\\^$.|?*+()[]{}";
+  private static final String QUANTIFIERS = "?*+{";
+
+  private final Node root;
+
+  /**
+   * Creates a trie of the given patterns. The candidates are identified by their index in the given list.
+   */
+  public PatternPrefixTrie(List<Pattern> patterns) {
+    MutableNode mutableRoot = new MutableNode();
+    for (int i = 0; i < patterns.size(); i++) {
+      MutableNode node = mutableRoot;
+      for (String segment : literalSegments(patterns.get(i).pattern())) {
+        node = node.children.computeIfAbsent(segment, s -> new MutableNode());
+      }
+      node.patterns.add(i);
+    }
+    root = mutableRoot.freeze();
+  }
+
+  /**
+   * Returns the sorted indexes of all patterns, whose literal prefix segments match the given path.
+   */
+  public int[] candidates(CharSequence path) {
+    int[] result = root.patterns;
+    Node node = root;
+    int start = 0;
+    int length = path.length();
+    while (start <= length) {
+      int end = indexOf(path, '/', start, length);
+      if (end < 0) {
+        // Only complete segments (followed by a slash) are stored in the trie, the last one may be followed by the end
+        end = length;
+      }
+      node = node.child(path, start, end);
+      if (node == null) {
+        break;
+      }
+      result = merge(result, node.patterns);
+      start = end + 1;
+    }
+    return result;
+  }
+
+  /**
+   * Returns the leading literal characters of the given regular expression, which every matching input must start
+   * with. Characters followed by a quantifier are not part of the prefix.
+   */
+  public static String literalPrefix(String regex) {
+    if (hasTopLevelAlternation(regex)) {
+      return "";
+    }
+    StringBuilder prefix = new StringBuilder();
+    int i = regex.startsWith("^") ? 1 : 0;
+    while (i < regex.length()) {
+      char c = regex.charAt(i);
+      int length = 1;
+      if (c == '\\') {
+        if (i + 1 >= regex.length() || Character.isLetterOrDigit(regex.charAt(i + 1))) {
+          break;
+        }
+        c = regex.charAt(i + 1);
+        length = 2;
+      } else if (META_CHARACTERS.indexOf(c) >= 0) {
+        break;
+      }
+      if (i + length < regex.length() && QUANTIFIERS.indexOf(regex.charAt(i + length)) >= 0) {
+        break;
+      }
+      prefix.append(c);
+      i += length;
+    }
+    return prefix.toString();
+  }
+
+  /**
+   * Returns the complete segments (terminated by a slash) of the {@link #literalPrefix(String) literal prefix}.
+   * The leading slash results in an empty first segment.
+   */
+  static List<String> literalSegments(String regex) {
+    String prefix = literalPrefix(regex);
+    int lastSlash = prefix.lastIndexOf('/');
+    if (lastSlash < 0) {
+      return List.of();
+    }
+    return Arrays.asList(prefix.substring(0, lastSlash).split("/", -1));
+  }
+
+  private static boolean hasTopLevelAlternation(String regex) {
+    int depth = 0;
+    boolean inClass = false;
+    for (int i = 0; i < regex.length(); i++) {
+      char c = regex.charAt(i);
+      if (c == '\\') {
+        i++;
+      } else if (inClass) {
+        inClass = c != ']';
+      } else if (c == '[') {
+        inClass = true;
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+      } else if (c == '|' && depth == 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int indexOf(CharSequence path, char c, int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (path.charAt(i) == c) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static int[] merge(int[] a, int[] b) {
+    if (b.length == 0) {
+      return a;
+    } else if (a.length == 0) {
+      return b;
+    }
+    int[] merged = new int[a.length + b.length];
+    int i = 0;
+    int j = 0;
+    int k = 0;
+    while (i < a.length || j < b.length) {
+      merged[k++] = j >= b.length || (i < a.length && a[i] < b[j]) ? a[i++] : b[j++];
+    }
+    return merged;
+  }
+
+  /**
+   * An immutable trie node with sorted children for lookups without creating substrings.
+   */
+  private static class Node {
+    private final String[] segments;
+    private final Node[] children;
+    private final int[] patterns;
+
+    private Node(String[] segments, Node[] children, int[] patterns) {
+      this.segments = segments;
+      this.children = children;
+      this.patterns = patterns;
+    }
+
+    private Node child(CharSequence path, int from, int to) {
+      int low = 0;
+      int high = segments.length - 1;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        int cmp = compare(segments[mid], path, from, to);
+        if (cmp < 0) {
+          low = mid + 1;
+        } else if (cmp > 0) {
+          high = mid - 1;
+        } else {
+          return children[mid];
+        }
+      }
+      return null;
+    }
+
+    private static int compare(String segment, CharSequence path, int from, int to) {
+      int length = Math.min(segment.length(), to - from);
+      for (int i = 0; i < length; i++) {
+        int diff = segment.charAt(i) - path.charAt(from + i);
+        if (diff != 0) {
+          return diff;
+        }
+      }
+      return segment.length() - (to - from);
+    }
+  }
+
+  private static class MutableNode {
+    // A TreeMap uses the same ordering as Node#compare
+    private final Map<String, MutableNode> children = new TreeMap<>();
+    private final List<Integer> patterns = new ArrayList<>();
+
+    private Node freeze() {
+      String[] segments = children.keySet().toArray(new String[0]);
+      Node[] frozen = children.values().stream().map(MutableNode::freeze).toArray(Node[]::new);
+      int[] indexes = patterns.isEmpty() ? NONE : patterns.stream().mapToInt(Integer::intValue).toArray();
+      return new Node(segments, frozen, indexes);
+    }
+  }
+}
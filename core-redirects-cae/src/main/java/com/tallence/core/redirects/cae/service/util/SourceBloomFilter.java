@@ -0,0 +1,184 @@
+/*
+ * Copyright 2019 Tallence AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tallence.core.redirects.cae.service.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A Bloom filter over the source urls of redirects, which tells if a path definitely has no redirect. It contains the
+ * plain sources and the literal leading path segments of the pattern sources (see
+ * {@link PatternPrefixTrie#literalPrefix(String)}). Patterns without a literal path prefix turn the filter into a
+ * "maybe" for every path.
+ * <p>
+ * Paths and sources are hashed case-insensitively and without a trailing slash, matching the normalization of the
+ * redirect lookup, without creating any copies. Paths with non ASCII characters are always a "maybe", because their
+ * lower case form might differ in length.
+ * <p>
+ * Sources can be added concurrently to lookups, but not removed: Removed sources only cause false positives until the
+ * filter is rebuilt.
+ */
+public class SourceBloomFilter {
+
+  private static final int BITS_PER_SOURCE = 10;
+  private static final int HASH_FUNCTIONS = 7;
+  private static final long PLAIN_SALT = 0x9e3779b97f4a7c15L;
+  private static final long PREFIX_SALT = 0xc2b2ae3d27d4eb4fL;
+  private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private final AtomicLongArray bits;
+  private final int mask;
+  private final int capacity;
+  private final AtomicInteger size = new AtomicInteger();
+  private volatile boolean matchesAll;
+
+  /**
+   * Creates a filter sized for the given number of sources with a false positive rate below 1%.
+   */
+  public SourceBloomFilter(int expectedSources) {
+    this.capacity = Math.max(16, expectedSources);
+    int numberOfBits = Integer.highestOneBit(capacity * BITS_PER_SOURCE - 1) << 1;
+    this.bits = new AtomicLongArray(Math.max(1, numberOfBits >>> 6));
+    this.mask = numberOfBits - 1;
+  }
+
+  /**
+   * Adds a plain source url.
+   */
+  public void putPlainSource(CharSequence source) {
+    int end = trimTrailingSlash(source);
+    // Sources with non ASCII characters can only match paths with non ASCII characters, which are a "maybe" anyway
+    if (isAscii(source, end)) {
+      set(finish(hash(source, end), PLAIN_SALT));
+    }
+    size.incrementAndGet();
+  }
+
+  /**
+   * Adds the literal path prefix of a regular expression source.
+   */
+  public void putPatternSource(String regex) {
+    String prefix = PatternPrefixTrie.literalPrefix(regex);
+    int lastSlash = prefix.lastIndexOf('/');
+    if (lastSlash < 0) {
+      matchesAll = true;
+    } else if (isAscii(prefix, lastSlash)) {
+      set(finish(hash(prefix, lastSlash), PREFIX_SALT));
+    }
+    size.incrementAndGet();
+  }
+
+  /**
+   * Returns false, if no redirect source matches the given path for sure.
+   */
+  public boolean mightMatch(CharSequence path) {
+    if (matchesAll) {
+      return true;
+    }
+    int end = trimTrailingSlash(path);
+    long hash = FNV_OFFSET;
+    for (int i = 0; i < end; i++) {
+      char c = path.charAt(i);
+      if (c > 127) {
+        return true;
+      }
+      if (c == '/' && isSet(finish(hash, PREFIX_SALT))) {
+        return true;
+      }
+      hash = (hash ^ toLowerCase(c)) * FNV_PRIME;
+    }
+    return isSet(finish(hash, PLAIN_SALT));
+  }
+
+  /**
+   * Returns true, if more sources were added than the filter was sized for, so the false positive rate degrades.
+   */
+  public boolean isSaturated() {
+    return size.get() > 2 * capacity;
+  }
+
+  /**
+   * Returns the number of added sources.
+   */
+  public int size() {
+    return size.get();
+  }
+
+  private void set(long hash) {
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 0; i < HASH_FUNCTIONS; i++) {
+      int bit = (h1 + i * h2) & mask;
+      long word = 1L << bit;
+      int index = bit >>> 6;
+      long current;
+      while (((current = bits.get(index)) & word) == 0 && !bits.compareAndSet(index, current, current | word)) {
+        // retry, another bit of the same word was set concurrently
+      }
+    }
+  }
+
+  private boolean isSet(long hash) {
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 0; i < HASH_FUNCTIONS; i++) {
+      int bit = (h1 + i * h2) & mask;
+      if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the FNV-1a hash of the lower case characters up to the given end, like it is calculated by
+   * {@link #mightMatch(CharSequence)}.
+   */
+  private static long hash(CharSequence value, int end) {
+    long hash = FNV_OFFSET;
+    for (int i = 0; i < end; i++) {
+      hash = (hash ^ toLowerCase(value.charAt(i))) * FNV_PRIME;
+    }
+    return hash;
+  }
+
+  private static boolean isAscii(CharSequence value, int end) {
+    for (int i = 0; i < end; i++) {
+      if (value.charAt(i) > 127) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static long finish(long hash, long salt) {
+    // The finalizer of MurmurHash3 spreads the bits of both halves used by the double hashing
+    long h = hash ^ salt;
+    h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+    h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+    return h ^ (h >>> 33);
+  }
+
+  private static int toLowerCase(char c) {
+    return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+  }
+
+  private static int trimTrailingSlash(CharSequence value) {
+    int length = value.length();
+    return length > 0 && value.charAt(length - 1) == '/' ? length - 1 : length;
+  }
+}
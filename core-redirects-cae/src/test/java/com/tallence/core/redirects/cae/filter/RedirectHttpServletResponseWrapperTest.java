@@ -0,0 +1,115 @@
+/*
+ * Copyright 2019 Tallence AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tallence.core.redirects.cae.filter;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for the {@link RedirectHttpServletResponseWrapper}.
+ */
+public class RedirectHttpServletResponseWrapperTest {
+
+  @Test
+  public void testBufferedUntilFinished() throws IOException {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    RedirectHttpServletResponseWrapper wrapper = new RedirectHttpServletResponseWrapper(response, null);
+
+    wrapper.getWriter().write("small page");
+    wrapper.getWriter().flush();
+    wrapper.flushBuffer();
+
+    assertEquals("", response.getContentAsString());
+    assertFalse(response.isCommitted());
+
+    wrapper.writeOnSuper();
+    assertEquals(200, response.getStatus());
+    assertEquals("small page", response.getContentAsString());
+  }
+
+  @Test
+  public void testPassThroughAfterStatus() throws IOException {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    RedirectHttpServletResponseWrapper wrapper = new RedirectHttpServletResponseWrapper(response, null);
+
+    PrintWriter writer = wrapper.getWriter();
+    writer.write("before ");
+    wrapper.setStatus(HttpServletResponse.SC_CREATED);
+    writer.write("after");
+
+    assertEquals(HttpServletResponse.SC_CREATED, response.getStatus());
+    assertEquals("before after", response.getContentAsString());
+
+    wrapper.writeOnSuper();
+    assertEquals("before after", response.getContentAsString());
+  }
+
+  @Test
+  public void testPassThroughAfterBufferSize() throws IOException {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    response.setBufferSize(16);
+    RedirectHttpServletResponseWrapper wrapper = new RedirectHttpServletResponseWrapper(response, null);
+
+    byte[] page = "a page, which is larger than the buffer".getBytes(StandardCharsets.UTF_8);
+    wrapper.getOutputStream().write(page, 0, 10);
+    assertEquals(0, response.getContentAsByteArray().length);
+
+    wrapper.getOutputStream().write(page, 10, page.length - 10);
+    assertArrayEquals(page, response.getContentAsByteArray());
+
+    wrapper.writeOnSuper();
+    assertArrayEquals(page, response.getContentAsByteArray());
+  }
+
+  @Test
+  public void testNotFoundIsHeldBack() throws IOException {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    response.setBufferSize(16);
+    RedirectHttpServletResponseWrapper wrapper = new RedirectHttpServletResponseWrapper(response, null);
+
+    wrapper.setStatus(HttpServletResponse.SC_NOT_FOUND);
+    wrapper.getWriter().write("a not found page, which is larger than the buffer");
+
+    assertEquals(HttpServletResponse.SC_NOT_FOUND, wrapper.getStatus());
+    assertEquals(200, response.getStatus());
+    assertEquals("", response.getContentAsString());
+    assertFalse(response.isCommitted());
+  }
+
+  @Test
+  public void testErrorPassThrough() throws IOException {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    RedirectHttpServletResponseWrapper wrapper = new RedirectHttpServletResponseWrapper(response, null);
+
+    wrapper.sendError(HttpServletResponse.SC_NOT_FOUND, "not found");
+    assertFalse(response.isCommitted());
+
+    wrapper.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "error");
+    assertTrue(response.isCommitted());
+    assertEquals(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, response.getStatus());
+    assertEquals(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, wrapper.getStatus());
+  }
+}
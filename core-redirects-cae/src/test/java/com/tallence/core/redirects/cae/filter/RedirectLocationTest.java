@@ -0,0 +1,39 @@
+package com.tallence.core.redirects.cae.filter;
+
+import com.tallence.core.redirects.model.RedirectTargetParameter;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test for the {@link RedirectLocation}.
+ */
+public class RedirectLocationTest {
+
+  @Test
+  public void testWithoutParameters() {
+    var location = RedirectLocation.of("/channela", List.of());
+
+    assertEquals("/channela", location.toUrl(""));
+    assertEquals("/channela?param1=value1", location.toUrl("param1=value1"));
+  }
+
+  @Test
+  public void testTargetParameters() {
+    var location = RedirectLocation.of("/channela", List.of(new RedirectTargetParameter("target", "välue")));
+
+    assertEquals("/channela?target=v%C3%A4lue", location.toUrl(""));
+    //Request parameters are inserted before the target parameters
+    assertEquals("/channela?param1=value1&target=v%C3%A4lue", location.toUrl("param1=value1"));
+  }
+
+  @Test
+  public void testQueryAndFragment() {
+    var location = RedirectLocation.of("https://example.org/page?a=b#section", List.of(new RedirectTargetParameter("target", "value")));
+
+    assertEquals("https://example.org/page?a=b&target=value#section", location.toUrl(""));
+    assertEquals("https://example.org/page?a=b#section", location.getLink());
+  }
+}
@@ -10,6 +10,7 @@ import com.tallence.core.redirects.cae.model.Redirect;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.Calendar;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -73,4 +74,71 @@ public class RedirectContentListenerTest extends AbstractRedirectsTest {
 
     redirectUpdateTaskScheduler.setTestMode(false);
   }
+
+  @Test
+  public void testTargetUpdate() {
+    redirectUpdateTaskScheduler.setTestMode(true);
+
+    Site site = sitesService.getSite("siteA");
+    Content target = contentRepository.createChild("/Sites/TestA/Navigation/ValidityTarget", "CMChannel", Map.of("segment", "validity-target"));
+
+    Map<String, Object> properties = new HashMap<>();
+    properties.put("sourceUrlType", "PLAIN");
+    properties.put("source", "/redirect-test-validity");
+    properties.put("targetLink", Collections.singletonList(target));
+    properties.put("redirectType", "ALWAYS");
+    Content redirect = contentRepository.createChild("/Sites/TestA/Options/Settings/Redirects/TestRedirect-Validity", "Redirect", properties);
+    redirectUpdateTaskScheduler.runUpdate(redirect);
+
+    assertThat(redirectService.getRedirectsForSite(site).getRedirectIdsForTarget(target.getId()), contains(redirect.getId()));
+    assertThat(findRedirect(site, "/channela/redirect-test-validity").isTargetValid(System.currentTimeMillis()), is(true));
+
+    // The validity of the target is captured in the redirect, it must be rebuilt when the target changes
+    Calendar expired = Calendar.getInstance();
+    expired.add(Calendar.DAY_OF_MONTH, -1);
+    target.checkOut();
+    target.set("validTo", expired);
+    target.checkIn();
+    redirectUpdateTaskScheduler.runTargetUpdate(target);
+
+    assertThat(findRedirect(site, "/channela/redirect-test-validity").isTargetValid(System.currentTimeMillis()), is(false));
+
+    redirect.delete();
+    redirectUpdateTaskScheduler.runRemove(redirect);
+    assertThat(redirectService.getRedirectsForSite(site).getRedirectIdsForTarget(target.getId()), empty());
+
+    redirectUpdateTaskScheduler.setTestMode(false);
+  }
+
+  @Test
+  public void testRootSegmentUpdate() {
+    redirectUpdateTaskScheduler.setTestMode(true);
+
+    Site site = sitesService.getSite("siteA");
+    Content rootDocument = site.getSiteRootDocument();
+    try {
+      // The root segment is part of the sources, the site is indexed again when it changes
+      setSegment(rootDocument, "ChannelRenamed");
+      redirectUpdateTaskScheduler.runSiteRootUpdate(rootDocument);
+
+      assertThat(redirectService.getRedirectsForSite(site).getPlainRedirects(), hasKey("/channelrenamed/redirect-test"));
+      assertThat(redirectService.getRedirectsForSite(site).getPlainRedirects(), not(hasKey("/channela/redirect-test")));
+      assertThat(redirectService.getIndexState(site), equalTo(SiteIndexState.READY));
+    } finally {
+      setSegment(rootDocument, "ChannelA");
+      redirectUpdateTaskScheduler.runSiteRootUpdate(rootDocument);
+      redirectUpdateTaskScheduler.setTestMode(false);
+    }
+    assertThat(redirectService.getRedirectsForSite(site).getPlainRedirects(), hasKey("/channela/redirect-test"));
+  }
+
+  private void setSegment(Content content, String segment) {
+    content.checkOut();
+    content.set("segment", segment);
+    content.checkIn();
+  }
+
+  private Redirect findRedirect(Site site, String source) {
+    return redirectService.getRedirectsForSite(site).getPlainRedirects().get(source).get(0);
+  }
 }
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2019 Tallence AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tallence.core.redirects.cae.service;
+
+import com.coremedia.cap.common.Timestamp;
+import com.coremedia.cap.multisite.Site;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test for the {@link RedirectEventJournal}.
+ */
+public class RedirectEventJournalTest {
+
+  private final Site siteA = mock(Site.class);
+  private final Site siteB = mock(Site.class);
+
+  @Test
+  public void testContentIdsSince() {
+    var journal = new RedirectEventJournal(10);
+    long start = journal.getPosition();
+    journal.append(siteA, "coremedia:///cap/content/10");
+    journal.append(siteB, "coremedia:///cap/content/12");
+    long position = journal.append(siteA, "coremedia:///cap/content/14");
+    journal.append(siteA, "coremedia:///cap/content/10");
+
+    //Only the redirects of the site, each redirect once
+    assertEquals(List.of("coremedia:///cap/content/10", "coremedia:///cap/content/14"),
+            List.copyOf(journal.getContentIdsSince(siteA, start).orElseThrow()));
+    assertEquals(Set.of("coremedia:///cap/content/10"), journal.getContentIdsSince(siteA, position).orElseThrow());
+    assertEquals(Set.of(), journal.getContentIdsSince(siteB, position).orElseThrow());
+  }
+
+  @Test
+  public void testEvicted() {
+    var journal = new RedirectEventJournal(2);
+    long start = journal.getPosition();
+    journal.append(siteA, "coremedia:///cap/content/10");
+    long position = journal.append(siteA, "coremedia:///cap/content/12");
+    assertTrue(journal.contains(start));
+
+    journal.append(siteA, "coremedia:///cap/content/14");
+    //The first event is evicted, so the changes since the start are not known anymore
+    assertFalse(journal.contains(start));
+    assertEquals(Optional.empty(), journal.getContentIdsSince(siteA, start));
+    assertEquals(Set.of("coremedia:///cap/content/14"), journal.getContentIdsSince(siteA, position).orElseThrow());
+  }
+
+  @Test
+  public void testProcessedPosition() {
+    var journal = new RedirectEventJournal(10);
+    assertEquals(OptionalLong.empty(), journal.getProcessedPosition(siteA));
+
+    journal.setProcessedPosition(siteA, journal.append(siteA, "coremedia:///cap/content/10"));
+    assertEquals(OptionalLong.of(1), journal.getProcessedPosition(siteA));
+    assertEquals(OptionalLong.empty(), journal.getProcessedPosition(siteB));
+
+    journal.removeProcessedPosition(siteA);
+    assertEquals(OptionalLong.empty(), journal.getProcessedPosition(siteA));
+  }
+
+  @Test
+  public void testTimestamps() {
+    var journal = new RedirectEventJournal(3);
+    Timestamp first = mock(Timestamp.class);
+    Timestamp second = mock(Timestamp.class);
+    assertEquals(Optional.empty(), journal.getTimestamp(0));
+
+    journal.setTimestamp(first);
+    journal.append(siteA, "coremedia:///cap/content/1");
+    journal.append(siteA, "coremedia:///cap/content/2");
+    journal.setTimestamp(second);
+    assertEquals(Optional.of(first), journal.getTimestamp(0));
+    assertEquals(Optional.of(first), journal.getTimestamp(1));
+    assertEquals(Optional.of(second), journal.getTimestamp(2));
+
+    //The timestamp of an evicted position is kept for the first remaining one
+    journal.append(siteA, "coremedia:///cap/content/3");
+    journal.append(siteA, "coremedia:///cap/content/4");
+    assertEquals(Optional.empty(), journal.getTimestamp(0));
+    assertEquals(Optional.of(first), journal.getTimestamp(1));
+    assertEquals(Optional.of(second), journal.getTimestamp(4));
+  }
+
+  @Test
+  public void testConcurrentAppend() throws Exception {
+    var journal = new RedirectEventJournal(100_000);
+    int events = 20_000;
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> writers = new ArrayList<>();
+      for (int i = 0; i < 2; i++) {
+        int offset = i * events;
+        writers.add(executor.submit(() -> {
+          for (int j = 0; j < events; j++) {
+            journal.append(siteA, "coremedia:///cap/content/" + (offset + j));
+          }
+        }));
+      }
+
+      //Every event up to the position must be readable as soon as the position is visible. Each event has its own
+      //content id, so the events since the previous read are counted by their ids.
+      long since = 0;
+      while (since < 2L * events) {
+        long position = journal.getPosition();
+        Set<String> contentIds = journal.getContentIdsSince(siteA, since).orElseThrow();
+        assertTrue("events up to " + position + " missing", contentIds.size() >= position - since);
+        since = position;
+      }
+      for (Future<?> writer : writers) {
+        writer.get();
+      }
+      assertEquals(2L * events, journal.getPosition());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
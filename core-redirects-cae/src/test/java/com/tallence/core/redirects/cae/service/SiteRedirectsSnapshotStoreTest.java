@@ -0,0 +1,144 @@
+/*
+ * Copyright 2019 Tallence AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tallence.core.redirects.cae.service;
+
+import com.coremedia.cap.common.CapConnection;
+import com.coremedia.cap.common.Timestamp;
+import com.coremedia.cap.content.Content;
+import com.coremedia.cap.content.ContentRepository;
+import com.coremedia.cap.multisite.Site;
+import com.tallence.core.redirects.cae.model.Redirect;
+import com.tallence.core.redirects.model.RedirectSourceParameter;
+import com.tallence.core.redirects.model.RedirectTargetParameter;
+import com.tallence.core.redirects.model.RedirectType;
+import com.tallence.core.redirects.model.SourceUrlType;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test for the {@link SiteRedirectsSnapshotStore}.
+ */
+public class SiteRedirectsSnapshotStoreTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Site site;
+  private Content target;
+  private Timestamp timestamp;
+  private SiteRedirectsSnapshotStore store;
+
+  @Before
+  public void setUp() {
+    site = mock(Site.class);
+    when(site.getId()).thenReturn("siteA");
+    target = mock(Content.class);
+    when(target.getId()).thenReturn("coremedia:///cap/content/1002");
+    timestamp = mock(Timestamp.class);
+    when(timestamp.toString()).thenReturn("42");
+    var connection = mock(CapConnection.class);
+    when(connection.getTimestamp("42")).thenReturn(timestamp);
+    var contentRepository = mock(ContentRepository.class);
+    when(contentRepository.getContent("coremedia:///cap/content/1002")).thenReturn(target);
+    when(contentRepository.getConnection()).thenReturn(connection);
+    store = new SiteRedirectsSnapshotStore(contentRepository, folder.getRoot().getPath());
+  }
+
+  @Test
+  public void testSaveAndLoad() {
+    var plainRedirect = new Redirect("coremedia:///cap/content/1234", SourceUrlType.PLAIN, "/site/old-page",
+            RedirectType.ALWAYS, target, null, 5, 1000L, Long.MAX_VALUE,
+            List.of(new RedirectSourceParameter("campaign", "summer", RedirectSourceParameter.Operator.EQUALS)),
+            List.of(new RedirectTargetParameter("utm_source", "redirect")));
+    var patternRedirect = new Redirect("coremedia:///cap/content/1236", SourceUrlType.REGEX, "/site/old/.*",
+            RedirectType.AFTER_NOT_FOUND, null, "https://www.example.org/", 0, Long.MIN_VALUE, Long.MAX_VALUE,
+            List.of(), List.of());
+    var redirects = SiteRedirects.builder("siteA", 2).addRedirect(plainRedirect).addRedirect(patternRedirect).build();
+
+    long savedAfter = System.currentTimeMillis();
+    assertTrue(store.save(redirects, "site", timestamp));
+    var snapshot = store.load(site).orElseThrow();
+    assertSame(timestamp, snapshot.timestamp());
+    assertEquals("site", snapshot.rootSegment());
+    assertTrue(snapshot.savedAt() >= savedAfter);
+    var loaded = snapshot.redirects();
+
+    var loadedPlain = loaded.findPlainRedirects("/site/old-page").get(0);
+    assertEquals(plainRedirect, loadedPlain);
+    assertSame(target, loadedPlain.getTarget());
+    assertEquals(5, loadedPlain.getPriority());
+    assertEquals(RedirectType.ALWAYS, loadedPlain.getRedirectType());
+    assertEquals(plainRedirect.getSourceParameters(), loadedPlain.getSourceParameters());
+    assertEquals(plainRedirect.getTargetParameters(), loadedPlain.getTargetParameters());
+    assertFalse(loadedPlain.isTargetValid(999L));
+    assertTrue(loadedPlain.isTargetValid(1000L));
+
+    var loadedPattern = loaded.findPatternRedirects("/site/old/page").get(0);
+    assertEquals(patternRedirect, loadedPattern);
+    assertNull(loadedPattern.getTarget());
+    assertEquals("https://www.example.org/", loadedPattern.getTargetUrl());
+    assertEquals(Set.of("coremedia:///cap/content/1234"), loaded.getRedirectIdsForTarget("coremedia:///cap/content/1002"));
+  }
+
+  @Test
+  public void testInvalidSnapshot() throws IOException {
+    store.save(SiteRedirects.builder("siteA", 1)
+            .addRedirect(new Redirect("coremedia:///cap/content/1234", SourceUrlType.PLAIN, "/site/old-page",
+                    RedirectType.ALWAYS, target, null, 0, Long.MIN_VALUE, Long.MAX_VALUE, List.of(), List.of()))
+            .build(), "site", timestamp);
+    Path file;
+    try (var files = Files.list(folder.getRoot().toPath())) {
+      file = files.findFirst().orElseThrow();
+    }
+
+    //A changed byte is detected by the checksum
+    byte[] data = Files.readAllBytes(file);
+    data[data.length / 2] ^= 1;
+    Files.write(file, data);
+    assertTrue(store.load(site).isEmpty());
+
+    Files.delete(file);
+    assertTrue(store.load(site).isEmpty());
+  }
+
+  @Test
+  public void testUnknownTimestamp() {
+    assertTrue(store.save(new SiteRedirects("siteA"), null, null));
+    var snapshot = store.load(site).orElseThrow();
+    assertNull(snapshot.timestamp());
+    assertNull(snapshot.rootSegment());
+  }
+
+  @Test
+  public void testDisabled() {
+    var disabled = new SiteRedirectsSnapshotStore(mock(ContentRepository.class), "");
+    assertFalse(disabled.save(new SiteRedirects("siteA"), "site", timestamp));
+    assertFalse(disabled.isEnabled());
+    assertTrue(disabled.load(site).isEmpty());
+  }
+}
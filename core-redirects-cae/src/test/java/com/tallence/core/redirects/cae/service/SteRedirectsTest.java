@@ -1,6 +1,8 @@
 package com.tallence.core.redirects.cae.service;
 
 import com.tallence.core.redirects.cae.model.Redirect;
+import com.tallence.core.redirects.cae.service.util.LowerCasePath;
+import com.tallence.core.redirects.model.RedirectSourceParameter;
 import com.tallence.core.redirects.model.SourceUrlType;
 import org.junit.Before;
 import org.junit.Test;
@@ -8,6 +10,7 @@ import org.junit.Test;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.mock;
@@ -25,9 +28,9 @@ public class SteRedirectsTest {
     siteRedirects = new SiteRedirects();
 
     var patternRedirect = createRedirect(SourceUrlType.REGEX, "/my-page.*", "coremedia://cap/content/1222");
-    siteRedirects.addRedirect(patternRedirect);
+    add(patternRedirect);
     var plainRedirect = createRedirect(SourceUrlType.PLAIN, "/other-page", "coremedia://cap/content/1244");
-    siteRedirects.addRedirect(plainRedirect);
+    add(plainRedirect);
   }
 
   @Test
@@ -36,7 +39,7 @@ public class SteRedirectsTest {
     var oldRedirect = createRedirect(SourceUrlType.REGEX, "/abc.*", "coremedia://cap/content/123");
     var updatedRedirect = createRedirect(SourceUrlType.PLAIN, "/abc", "coremedia://cap/content/123");
 
-    siteRedirects.addRedirect(oldRedirect);
+    add(oldRedirect);
 
     //Make sure, the new plainRedirect exists alongside with the default redirect from the setUp method
     assertTrue(siteRedirects.getPatternRedirects().keySet().stream().anyMatch(p -> p.pattern().equals(oldRedirect.getSource())));
@@ -44,7 +47,7 @@ public class SteRedirectsTest {
     assertEquals(2, countRedirects(siteRedirects.getPatternRedirects()));
     assertEquals(1, countRedirects(siteRedirects.getPlainRedirects()));
 
-    siteRedirects.addRedirect(updatedRedirect);
+    add(updatedRedirect);
     //Make sure, the redirect has been updated to a plainRedirect and it exists alongside with the default redirects from the setUp method
     assertTrue(siteRedirects.getPatternRedirects().keySet().stream().noneMatch(p -> p.pattern().equals(oldRedirect.getSource())));
     assertTrue(siteRedirects.getPlainRedirects().get(updatedRedirect.getSource()).stream().findFirst().isPresent());
@@ -62,7 +65,7 @@ public class SteRedirectsTest {
     var oldRedirect = createRedirect(SourceUrlType.PLAIN, "/abc", "coremedia://cap/content/123");
     var updatedRedirect = createRedirect(SourceUrlType.REGEX, "/abc.*", "coremedia://cap/content/123");
 
-    siteRedirects.addRedirect(oldRedirect);
+    add(oldRedirect);
 
     //Make sure, the new patternRedirect exists alongside with the default redirect from the setUp method
     assertTrue(siteRedirects.getPatternRedirects().keySet().stream().noneMatch(p -> p.pattern().equals(oldRedirect.getSource())));
@@ -70,7 +73,7 @@ public class SteRedirectsTest {
     assertEquals(2, countRedirects(siteRedirects.getPlainRedirects()));
     assertEquals(1, countRedirects(siteRedirects.getPatternRedirects()));
 
-    siteRedirects.addRedirect(updatedRedirect);
+    add(updatedRedirect);
     //Make sure, the redirect has been updated to a patternRedirect and it exists alongside with the default redirects from the setUp method
     assertTrue(siteRedirects.getPatternRedirects().keySet().stream().anyMatch(p -> p.pattern().equals(updatedRedirect.getSource())));
     assertFalse(siteRedirects.getPlainRedirects().containsKey(updatedRedirect.getSource()));
@@ -78,6 +81,119 @@ public class SteRedirectsTest {
     assertEquals(1, countRedirects(siteRedirects.getPlainRedirects()));
   }
 
+  @Test
+  public void testPatternPriority() {
+
+    var lowPriority = createRedirect(SourceUrlType.REGEX, "/abc/.*", "coremedia://cap/content/123");
+    var highPriority = createRedirect(SourceUrlType.REGEX, "/abc/def.*", "coremedia://cap/content/125");
+    when(highPriority.getPriority()).thenReturn(10);
+
+    add(lowPriority);
+    add(highPriority);
+
+    //Both patterns match, the higher priority wins even though the other redirect has the lower content id
+    assertEquals(List.of(highPriority), siteRedirects.findPatternRedirects("/abc/def"));
+    assertEquals(List.of(lowPriority), siteRedirects.findPatternRedirects("/abc/xyz"));
+  }
+
+  @Test
+  public void testFindPlainRedirects() {
+
+    var redirect = createRedirect(SourceUrlType.PLAIN, "/abc", "coremedia://cap/content/123");
+    add(redirect);
+
+    assertEquals(List.of(redirect), siteRedirects.findPlainRedirects("/abc"));
+    assertEquals(List.of(redirect), siteRedirects.findPlainRedirects(LowerCasePath.of("/ABC/")));
+    assertNull(siteRedirects.findPlainRedirects("/abcd"));
+
+    //The index is updated after removals
+    siteRedirects = siteRedirects.toBuilder().removeRedirect(redirect.getContentId()).build();
+    assertNull(siteRedirects.findPlainRedirects("/abc"));
+  }
+
+  @Test
+  public void testMatchOrder() {
+
+    var withoutParams = createRedirect(SourceUrlType.PLAIN, "/abc", "coremedia://cap/content/121");
+    var highPriority = createRedirect(SourceUrlType.PLAIN, "/abc", "coremedia://cap/content/125");
+    when(highPriority.getPriority()).thenReturn(10);
+    var withParams = createRedirect(SourceUrlType.PLAIN, "/abc", "coremedia://cap/content/127");
+    when(withParams.getSourceParameters()).thenReturn(List.of(
+            new RedirectSourceParameter("utm_source", "newsletter", RedirectSourceParameter.Operator.EQUALS)));
+
+    add(withoutParams);
+    add(withParams);
+    add(highPriority);
+
+    //The redirect with the most parameters first, then the one with the highest priority
+    assertEquals(List.of(withParams, highPriority, withoutParams), siteRedirects.findPlainRedirects("/abc"));
+  }
+
+  @Test
+  public void testSnapshot() {
+
+    var redirect = createRedirect(SourceUrlType.PLAIN, "/abc", "coremedia://cap/content/123");
+    var snapshot = siteRedirects;
+    add(redirect);
+
+    //The snapshot is not changed by the builder, but the new one contains the redirect
+    assertNull(snapshot.findPlainRedirects("/abc"));
+    assertFalse(snapshot.getPlainRedirects().containsKey("/abc"));
+    assertEquals(List.of(redirect), siteRedirects.findPlainRedirects("/abc"));
+    //Unchanged types share the index of the previous snapshot
+    assertEquals(snapshot.findPatternRedirects("/my-page"), siteRedirects.findPatternRedirects("/my-page"));
+
+    var builder = siteRedirects.toBuilder();
+    builder.build();
+    assertThrows(IllegalStateException.class, () -> builder.addRedirect(redirect));
+  }
+
+  @Test
+  public void testReplaceSource() {
+
+    var redirect = createRedirect(SourceUrlType.PLAIN, "/abc", "coremedia://cap/content/123");
+    var sameSource = createRedirect(SourceUrlType.PLAIN, "/abc", "coremedia://cap/content/124");
+    var movedRedirect = createRedirect(SourceUrlType.PLAIN, "/def", "coremedia://cap/content/123");
+    add(redirect, sameSource);
+    assertEquals(2, siteRedirects.findPlainRedirects("/abc").size());
+
+    //Only the redirect with the changed source is moved, the other redirect with the same source stays
+    add(movedRedirect);
+    assertEquals(List.of(sameSource), siteRedirects.findPlainRedirects("/abc"));
+    assertEquals(List.of(movedRedirect), siteRedirects.findPlainRedirects("/def"));
+
+    siteRedirects = siteRedirects.toBuilder().removeRedirect("coremedia://cap/content/124").build();
+    assertNull(siteRedirects.findPlainRedirects("/abc"));
+    assertFalse(siteRedirects.getPlainRedirects().containsKey("/abc"));
+    assertEquals(2, countRedirects(siteRedirects.getPlainRedirects()));
+  }
+
+  @Test
+  public void testAddAll() {
+
+    var sameSource = createRedirect(SourceUrlType.PLAIN, "/other-page", "coremedia://cap/content/124");
+    var pattern = createRedirect(SourceUrlType.REGEX, "/my-page.*", "coremedia://cap/content/126");
+    var movedRedirect = createRedirect(SourceUrlType.PLAIN, "/moved", "coremedia://cap/content/1244");
+    SiteRedirects.Builder shard = SiteRedirects.builder(null, 16);
+    Stream.of(sameSource, pattern, movedRedirect).forEach(shard::addRedirect);
+
+    siteRedirects = siteRedirects.toBuilder().addAll(shard).build();
+
+    //The redirects of the same source are merged, the older version of a redirect is replaced
+    assertEquals(List.of(sameSource), siteRedirects.findPlainRedirects("/other-page"));
+    assertEquals(List.of(movedRedirect), siteRedirects.findPlainRedirects("/moved"));
+    assertEquals(2, countRedirects(siteRedirects.getPatternRedirects()));
+    assertNotNull(siteRedirects.findPatternRedirects("/my-page/abc"));
+    assertTrue(siteRedirects.mightHaveRedirect("/moved"));
+    assertThrows(IllegalStateException.class, () -> shard.addRedirect(sameSource));
+  }
+
+  private void add(Redirect... redirects) {
+    SiteRedirects.Builder builder = siteRedirects.toBuilder();
+    Stream.of(redirects).forEach(builder::addRedirect);
+    siteRedirects = builder.build();
+  }
+
   private Redirect createRedirect(SourceUrlType sourceUrlType, String source, String contentId) {
     var redirect = mock(Redirect.class);
     when(redirect.getSourceUrlType()).thenReturn(sourceUrlType);
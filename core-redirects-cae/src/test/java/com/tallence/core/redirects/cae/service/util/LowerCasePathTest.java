@@ -0,0 +1,35 @@
+package com.tallence.core.redirects.cae.service.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test for the {@link LowerCasePath}.
+ */
+public class LowerCasePathTest {
+
+  @Test
+  public void testNormalizedPathIsKept() {
+    String path = "/channela/page";
+    assertSame(path, LowerCasePath.of(path));
+  }
+
+  @Test
+  public void testLowerCaseView() {
+    assertEquals("/channela/page", LowerCasePath.of("/Channela/PAGE/").toString());
+    assertEquals("/channela/page", LowerCasePath.of("/channela/page/").toString());
+    assertEquals("", LowerCasePath.of("/").toString());
+
+    CharSequence path = LowerCasePath.of("/A/B");
+    assertEquals(4, path.length());
+    assertEquals('a', path.charAt(1));
+    assertEquals("b", path.subSequence(3, 4).toString());
+  }
+
+  @Test
+  public void testNonAsciiPath() {
+    assertEquals("/änderung", LowerCasePath.of("/Änderung/").toString());
+  }
+}
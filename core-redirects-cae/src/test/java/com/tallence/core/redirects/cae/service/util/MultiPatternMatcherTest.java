@@ -0,0 +1,62 @@
+package com.tallence.core.redirects.cae.service.util;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test for the {@link MultiPatternMatcher}.
+ */
+public class MultiPatternMatcherTest {
+
+  @Test
+  public void testFirstMatchWins() {
+    var matcher = matcher("/channela/shop/.*", "/channela/.*", "/channela/shop/item-\\d+");
+
+    assertEquals(0, matcher.firstMatch("/channela/shop/item-12"));
+    assertEquals(1, matcher.firstMatch("/channela/other"));
+    assertEquals(-1, matcher.firstMatch("/channelb/shop/item-12"));
+  }
+
+  @Test
+  public void testSupportedSyntax() {
+    var matcher = matcher("^/a(b|c)?/[^/]+\\.html$", "/x{2,3}", "/(?:de|en)/\\w*-[0-9a-f]{2}");
+
+    assertEquals(0, matcher.firstMatch("/a/page.html"));
+    assertEquals(0, matcher.firstMatch("/ac/page.html"));
+    assertEquals(-1, matcher.firstMatch("/ad/page.html"));
+    assertEquals(1, matcher.firstMatch("/xxx"));
+    assertEquals(-1, matcher.firstMatch("/xxxx"));
+    assertEquals(2, matcher.firstMatch("/en/page_1-f0"));
+    assertEquals(0, matcher.getFallbackCount());
+  }
+
+  @Test
+  public void testFallbackKeepsOrder() {
+    // backreferences and lookaheads are evaluated by java.util.regex
+    var matcher = matcher("/(a)\\1/.*", "/(?!aa).*", "/.*");
+
+    assertEquals(2, matcher.getFallbackCount());
+    assertEquals(0, matcher.firstMatch("/aa/page"));
+    assertEquals(1, matcher.firstMatch("/ab/page"));
+    assertEquals(2, matcher.firstMatch("/aa"));
+  }
+
+  @Test
+  public void testSurrogatePairs() {
+    // java.util.regex matches code points, so a surrogate pair is a single character for the "."
+    var matcher = matcher("/a.b");
+
+    assertEquals(0, matcher.firstMatch("/a\uD83D\uDE00b"));
+  }
+
+  private static MultiPatternMatcher matcher(String... patterns) {
+    List<Pattern> compiled = Stream.of(patterns).map(Pattern::compile).collect(Collectors.toList());
+    return new MultiPatternMatcher(compiled);
+  }
+}
@@ -0,0 +1,51 @@
+package com.tallence.core.redirects.cae.service.util;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test for the {@link PatternPrefixTrie}.
+ */
+public class PatternPrefixTrieTest {
+
+  @Test
+  public void testLiteralPrefix() {
+    assertEquals("/channela/shop/", PatternPrefixTrie.literalPrefix("^/channela/shop/.*"));
+    assertEquals("/channela/sho", PatternPrefixTrie.literalPrefix("/channela/shop?/.*"));
+    assertEquals("/old.html/", PatternPrefixTrie.literalPrefix("/old\\.html\\/\\d+"));
+    assertEquals("/a/", PatternPrefixTrie.literalPrefix("/a/(b|c)/.*"));
+    assertEquals("", PatternPrefixTrie.literalPrefix("/a/b|/c/d"));
+    assertEquals("", PatternPrefixTrie.literalPrefix("(?i)/a/.*"));
+  }
+
+  @Test
+  public void testCandidates() {
+    var trie = trie("/channela/shop/.*", ".*\\.html", "/channela/.*", "/channelb/.*", "/channela/shop");
+
+    assertArrayEquals(new int[]{0, 1, 2, 4}, trie.candidates("/channela/shop/item"));
+    // Patterns may match a path ending with their last segment
+    assertArrayEquals(new int[]{0, 1, 2, 4}, trie.candidates("/channela/shop"));
+    assertArrayEquals(new int[]{1, 2, 4}, trie.candidates("/channela/shopping"));
+    assertArrayEquals(new int[]{1}, trie.candidates("/channelc/page.html"));
+  }
+
+  @Test
+  public void testNoCandidates() {
+    var trie = trie("/channela/.*", "/channelb/[a-z]+");
+
+    assertEquals(0, trie.candidates("/channelc/page").length);
+    assertEquals(0, trie.candidates("").length);
+  }
+
+  private static PatternPrefixTrie trie(String... patterns) {
+    List<Pattern> compiled = Stream.of(patterns).map(Pattern::compile).collect(Collectors.toList());
+    return new PatternPrefixTrie(compiled);
+  }
+}
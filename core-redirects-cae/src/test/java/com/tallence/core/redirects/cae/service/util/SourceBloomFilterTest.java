@@ -0,0 +1,77 @@
+package com.tallence.core.redirects.cae.service.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for the {@link SourceBloomFilter}.
+ */
+public class SourceBloomFilterTest {
+
+  @Test
+  public void testPlainSources() {
+    var filter = new SourceBloomFilter(10);
+    filter.putPlainSource("/channela/old-page");
+    filter.putPlainSource("/channela/other/");
+
+    // Paths are checked case-insensitively and without a trailing slash, like the plain redirect lookup
+    assertTrue(filter.mightMatch("/channela/old-page"));
+    assertTrue(filter.mightMatch("/Channela/Old-Page/"));
+    assertTrue(filter.mightMatch("/channela/other"));
+
+    assertFalse(filter.mightMatch("/channela/new-page"));
+    assertFalse(filter.mightMatch("/channela"));
+    assertFalse(filter.mightMatch(""));
+  }
+
+  @Test
+  public void testPatternSources() {
+    var filter = new SourceBloomFilter(10);
+    filter.putPatternSource("^/channela/shop/.*");
+
+    assertTrue(filter.mightMatch("/channela/shop/item"));
+    assertTrue(filter.mightMatch("/channela/shop/category/item/"));
+    assertTrue(filter.mightMatch("/CHANNELA/shop/item"));
+
+    assertFalse(filter.mightMatch("/channela/shop"));
+    assertFalse(filter.mightMatch("/channela/shopping/item"));
+    assertFalse(filter.mightMatch("/channelb/shop/item"));
+  }
+
+  @Test
+  public void testPatternsWithoutPrefix() {
+    var filter = new SourceBloomFilter(10);
+    filter.putPlainSource("/channela/old-page");
+    assertFalse(filter.mightMatch("/channelb/page.html"));
+
+    filter.putPatternSource(".*\\.html");
+    assertTrue(filter.mightMatch("/channelb/page.html"));
+  }
+
+  @Test
+  public void testNonAsciiPaths() {
+    var filter = new SourceBloomFilter(10);
+    filter.putPlainSource("/channela/old-page");
+
+    // The lower case form of non ASCII characters might be ASCII, e.g. the Kelvin sign
+    assertTrue(filter.mightMatch("/channela/\u212Aey"));
+    assertTrue(filter.mightMatch("/channela/änderung"));
+  }
+
+  @Test
+  public void testSaturation() {
+    var filter = new SourceBloomFilter(16);
+    for (int i = 0; i < 32; i++) {
+      filter.putPlainSource("/channela/page-" + i);
+    }
+    assertFalse(filter.isSaturated());
+
+    filter.putPlainSource("/channela/page-32");
+    assertTrue(filter.isSaturated());
+    for (int i = 0; i <= 32; i++) {
+      assertTrue(filter.mightMatch("/channela/page-" + i));
+    }
+  }
+}
@@ -26,8 +26,11 @@ import com.tallence.core.redirects.model.RedirectTargetParameter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -49,6 +52,8 @@ import static org.springframework.util.StringUtils.isEmpty;
 public class RedirectHelper {
 
   private static final Logger LOG = LoggerFactory.getLogger(RedirectHelper.class);
+  // Thread safe once configured, creating a mapper per parsed value is expensive during imports
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
   private RedirectHelper() {
     // util class
@@ -65,6 +70,24 @@ public class RedirectHelper {
             .orElse(Collections.emptyList());
   }
 
+  /**
+   * Returns the signature of a redirect source, which is fed to the search index: the lower case source followed by
+   * the source parameters in a canonical order. Redirects with the same signature are duplicates, regardless of the
+   * case of their sources and the order of their parameters.
+   */
+  public static String getSourceSignature(String source, List<RedirectSourceParameter> sourceParameters) {
+    String parameters = sourceParameters.stream()
+            .map(parameter -> encode(parameter.getName()) + ":" + parameter.getOperator() + "=" + encode(parameter.getValue()))
+            .sorted()
+            .collect(Collectors.joining("&"));
+    String lowerCaseSource = source.toLowerCase(Locale.ROOT);
+    return parameters.isEmpty() ? lowerCaseSource : lowerCaseSource + "?" + parameters;
+  }
+
+  private static String encode(String value) {
+    return URLEncoder.encode(String.valueOf(value), StandardCharsets.UTF_8);
+  }
+
   /**
    * Returns a list of {@link RedirectTargetParameter} parameters for the given redirect, or an empty list if no
    * parameters are stored in the struct.
@@ -103,7 +126,7 @@ public class RedirectHelper {
 
   private static <T extends RedirectParameter> T parseRedirectParameter(String value, Class<T> clazz) {
     try {
-      return new ObjectMapper().readValue(value, clazz);
+      return OBJECT_MAPPER.readValue(value, clazz);
     } catch (JsonProcessingException e) {
       LOG.error("Could not parse redirect parameter for input string: {}", value);
       return null;
@@ -131,7 +154,7 @@ public class RedirectHelper {
   }
 
   private static <T extends RedirectParameter> List<T> parseRedirectParameters(String value, TypeReference<List<T>> typeReference) throws JsonProcessingException {
-    return new ObjectMapper().readValue(value, typeReference);
+    return OBJECT_MAPPER.readValue(value, typeReference);
   }
 
   private static RedirectTargetParameter buildTargetParam(Struct targetParam, String contentId) {
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 Tallence AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tallence.core.redirects.helper;
+
+import com.tallence.core.redirects.model.RedirectSourceParameter;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Locale;
+
+import static com.tallence.core.redirects.model.RedirectSourceParameter.Operator.EQUALS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * Test for the {@link RedirectHelper}.
+ */
+public class RedirectHelperTest {
+
+  @Test
+  public void testSourceSignature() {
+    assertEquals("/abc", RedirectHelper.getSourceSignature("/abc", List.of()));
+    assertEquals("/abc?a:EQUALS=1&b:EQUALS=2", RedirectHelper.getSourceSignature("/abc", List.of(
+        new RedirectSourceParameter("a", "1", EQUALS),
+        new RedirectSourceParameter("b", "2", EQUALS))));
+  }
+
+  @Test
+  public void testSourceSignatureParameterOrder() {
+    String signature = RedirectHelper.getSourceSignature("/abc", List.of(
+        new RedirectSourceParameter("a", "1", EQUALS),
+        new RedirectSourceParameter("b", "2", EQUALS)));
+
+    assertEquals(signature, RedirectHelper.getSourceSignature("/abc", List.of(
+        new RedirectSourceParameter("b", "2", EQUALS),
+        new RedirectSourceParameter("a", "1", EQUALS))));
+  }
+
+  @Test
+  public void testSourceSignatureCase() {
+    assertEquals(RedirectHelper.getSourceSignature("/abc", List.of()), RedirectHelper.getSourceSignature("/ABC", List.of()));
+    //Only the source is compared case insensitive, not the parameters
+    assertNotEquals(RedirectHelper.getSourceSignature("/abc", List.of(new RedirectSourceParameter("a", "x", EQUALS))),
+        RedirectHelper.getSourceSignature("/abc", List.of(new RedirectSourceParameter("a", "X", EQUALS))));
+  }
+
+  @Test
+  public void testSourceSignatureLocale() {
+    Locale defaultLocale = Locale.getDefault();
+    try {
+      //The lower case of a dotted capital I depends on the locale, e.g. in turkish
+      Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+      assertEquals("/index", RedirectHelper.getSourceSignature("/INDEX", List.of()));
+    } finally {
+      Locale.setDefault(defaultLocale);
+    }
+  }
+
+  @Test
+  public void testSourceSignatureEncoding() {
+    //Separators within the parameters must not create the signature of other parameters
+    assertEquals("/abc?a:EQUALS=1+%26b%3D2", RedirectHelper.getSourceSignature("/abc", List.of(
+        new RedirectSourceParameter("a", "1 &b=2", EQUALS))));
+    assertNotEquals(
+        RedirectHelper.getSourceSignature("/abc", List.of(new RedirectSourceParameter("a", "1&b:EQUALS=2", EQUALS))),
+        RedirectHelper.getSourceSignature("/abc", List.of(
+            new RedirectSourceParameter("a", "1", EQUALS),
+            new RedirectSourceParameter("b", "2", EQUALS))));
+    assertEquals("/abc?%C3%A4:EQUALS=%C3%B6", RedirectHelper.getSourceSignature("/abc", List.of(
+        new RedirectSourceParameter("ä", "ö", EQUALS))));
+  }
+}
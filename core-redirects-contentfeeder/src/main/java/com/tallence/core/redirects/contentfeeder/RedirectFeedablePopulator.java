@@ -0,0 +1,56 @@
+/*
+ * Copyright 2019 Tallence AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tallence.core.redirects.contentfeeder;
+
+import com.coremedia.cap.common.IdHelper;
+import com.coremedia.cap.content.Content;
+import com.coremedia.cap.feeder.MutableFeedable;
+import com.coremedia.cap.feeder.populate.FeedablePopulator;
+import com.tallence.core.redirects.helper.RedirectHelper;
+
+import java.util.List;
+
+/**
+ * Feeds the fields of a redirect, which cannot be fed as plain properties: the signature of the source and its
+ * parameters, and the numeric id of the target. The studio checks new redirects for duplicates with the signature,
+ * without loading the existing redirects.
+ */
+public class RedirectFeedablePopulator implements FeedablePopulator<Content> {
+
+  static final String SOURCE_SIGNATURE = "sourceSignature";
+  static final String TARGET_ID = "targetId";
+
+  private static final String REDIRECT = "Redirect";
+  private static final String SOURCE = "source";
+  private static final String TARGET_LINK = "targetLink";
+
+  @Override
+  public void populate(MutableFeedable feedable, Content content) {
+    if (content == null || content.isDestroyed() || !content.getType().isSubtypeOf(REDIRECT)) {
+      return;
+    }
+
+    String source = content.getString(SOURCE);
+    if (source != null) {
+      feedable.setElement(SOURCE_SIGNATURE, RedirectHelper.getSourceSignature(source, RedirectHelper.getSourceParameters(content)));
+    }
+
+    List<Content> targetLinks = content.getLinks(TARGET_LINK);
+    if (!targetLinks.isEmpty()) {
+      feedable.setElement(TARGET_ID, String.valueOf(IdHelper.parseContentId(targetLinks.get(0).getId())));
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019 Tallence AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tallence.core.redirects.contentfeeder;
+
+import com.coremedia.cap.content.Content;
+import com.coremedia.cap.content.ContentType;
+import com.coremedia.cap.feeder.MutableFeedable;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static com.tallence.core.redirects.contentfeeder.RedirectFeedablePopulator.SOURCE_SIGNATURE;
+import static com.tallence.core.redirects.contentfeeder.RedirectFeedablePopulator.TARGET_ID;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test for the {@link RedirectFeedablePopulator}.
+ */
+public class RedirectFeedablePopulatorTest {
+
+  private final RedirectFeedablePopulator populator = new RedirectFeedablePopulator();
+
+  private MutableFeedable feedable;
+  private Content redirect;
+
+  @Before
+  public void setUp() {
+    feedable = mock(MutableFeedable.class);
+    redirect = mockContent(true);
+  }
+
+  @Test
+  public void testSourceSignature() {
+    when(redirect.getString("source")).thenReturn("/ABC");
+
+    populator.populate(feedable, redirect);
+
+    verify(feedable).setElement(SOURCE_SIGNATURE, "/abc");
+    verify(feedable, never()).setElement(eq(TARGET_ID), any());
+  }
+
+  @Test
+  public void testTargetId() {
+    Content target = mock(Content.class);
+    when(target.getId()).thenReturn("coremedia:///cap/content/42");
+    when(redirect.getLinks("targetLink")).thenReturn(List.of(target));
+
+    populator.populate(feedable, redirect);
+
+    verify(feedable).setElement(TARGET_ID, "42");
+  }
+
+  @Test
+  public void testOtherContent() {
+    Content article = mockContent(false);
+
+    populator.populate(feedable, article);
+    populator.populate(feedable, null);
+
+    verifyNoInteractions(feedable);
+  }
+
+  @Test
+  public void testDestroyedRedirect() {
+    when(redirect.isDestroyed()).thenReturn(true);
+    when(redirect.getString("source")).thenReturn("/abc");
+
+    populator.populate(feedable, redirect);
+
+    verifyNoInteractions(feedable);
+  }
+
+  private static Content mockContent(boolean redirect) {
+    ContentType type = mock(ContentType.class);
+    when(type.isSubtypeOf("Redirect")).thenReturn(redirect);
+    Content content = mock(Content.class);
+    when(content.getType()).thenReturn(type);
+    return content;
+  }
+}
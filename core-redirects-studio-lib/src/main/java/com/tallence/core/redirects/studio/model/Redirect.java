@@ -89,6 +89,12 @@ public interface Redirect {
    */
   boolean isImported();
 
+  /**
+   * Returns the priority of the redirect. If more than one redirect matches a request, the one with the highest
+   * priority wins.
+   */
+  int getPriority();
+
   /**
    * Returns the list of source parameters or an empty list.
    */
@@ -41,6 +41,7 @@ public class RedirectImpl implements Redirect {
   private RedirectType redirectType;
   private String description;
   private boolean isImported;
+  private int priority;
   private List<RedirectSourceParameter> sourceParameters;
   private List<RedirectTargetParameter> targetParameters;
 
@@ -64,6 +65,7 @@ public class RedirectImpl implements Redirect {
                       RedirectType redirectType,
                       String description,
                       boolean isImported,
+                      int priority,
                       List<RedirectSourceParameter> sourceParameters,
                       List<RedirectTargetParameter> targetParameters) {
     this.id = id;
@@ -77,6 +79,7 @@ public class RedirectImpl implements Redirect {
     this.redirectType = redirectType;
     this.description = description;
     this.isImported = isImported;
+    this.priority = priority;
     this.sourceParameters = sourceParameters;
     this.targetParameters = targetParameters;
   }
@@ -136,6 +139,11 @@ public class RedirectImpl implements Redirect {
     return isImported;
   }
 
+  @Override
+  public int getPriority() {
+    return priority;
+  }
+
   @Override
   public List<RedirectSourceParameter> getSourceParameters() {
     return sourceParameters;
@@ -47,6 +47,7 @@ public class RedirectUpdateProperties {
   public static final String REDIRECT_TYPE = "redirectType";
   public static final String DESCRIPTION = "description";
   public static final String IMPORTED = "imported";
+  public static final String PRIORITY = "priority";
   public static final String SOURCE_PARAMETERS = "sourceParameters";
   public static final String TARGET_PARAMETERS = "targetParameters";
 
@@ -57,6 +58,7 @@ public class RedirectUpdateProperties {
   static final String SOURCE_ALREADY_EXISTS = "source_already_exists";
   static final String INVALID_REDIRECT_TYPE_VALUE = "redirectType_invalid";
   static final String INVALID_DESCRIPTION_VALUE = "description_invalid";
+  static final String INVALID_PRIORITY_VALUE = "priority_invalid";
   static final String MISSING_TARGET_LINK = "target_missing";
   static final String BOTH_TARGET = "target_both";
   static final String INVALID_TARGET_LINK = "target_invalid";
@@ -111,6 +113,19 @@ public class RedirectUpdateProperties {
     return getProperty(IMPORTED, Boolean.class);
   }
 
+  /**
+   * Returns the priority, which might be passed as a number (studio) or as a string (csv-upload).
+   */
+  public Integer getPriority() {
+    Object priority = properties.get(PRIORITY);
+    if (priority instanceof Number) {
+      return ((Number) priority).intValue();
+    } else if (priority instanceof String && ((String) priority).trim().matches("-?\\d{1,9}")) {
+      return Integer.valueOf(((String) priority).trim());
+    }
+    return null;
+  }
+
   public boolean urlParametersChanged() {
     return sourceParametersChanged() || targetParametersChanged();
   }
@@ -191,6 +206,21 @@ public class RedirectUpdateProperties {
    * @return a list of errors mapped to the corresponding field-name
    */
   public Map<String, String> validate(boolean update) {
+    return validate(update, null);
+  }
+
+  /**
+   * Validating the properties data of a new redirect. The existing sources are not requested from the repository,
+   * they are looked up in the given map instead, so many redirects can be validated with a few requests.
+   *
+   * @param existingSources the existing sources, see {@link RedirectRepository#findExistingSources}.
+   * @return a list of errors mapped to the corresponding field-name
+   */
+  public Map<String, String> validate(Map<String, List<List<RedirectSourceParameter>>> existingSources) {
+    return validate(false, existingSources);
+  }
+
+  private Map<String, String> validate(boolean update, Map<String, List<List<RedirectSourceParameter>>> existingSources) {
 
     Map<String, String> errors = new HashMap<>();
 
@@ -220,7 +250,8 @@ public class RedirectUpdateProperties {
         errors.put(SOURCE, INVALID_SOURCE_VALUE);
       } else if (sourceHasWhitespaces(source)) {
         errors.put(SOURCE, INVALID_SOURCE_WHITESPACE);
-      } else if (isNotBlank(redirectId) && repository.sourceAlreadyExists(siteId, redirectId, source, getSourceParameters()) ||
+      } else if (existingSources != null ? sourceAlreadyExists(source, existingSources) :
+              isNotBlank(redirectId) && repository.sourceAlreadyExists(siteId, redirectId, source, getSourceParameters()) ||
               isBlank(redirectId) && repository.sourceAlreadyExists(siteId, source, getSourceParameters())) {
         errors.put(SOURCE, SOURCE_ALREADY_EXISTS);
       }
@@ -263,9 +294,21 @@ public class RedirectUpdateProperties {
       errors.put(DESCRIPTION, INVALID_DESCRIPTION_VALUE);
     }
 
+    //the priority is optional, but if the property contains a value, it must be an integer. Might occur in the csv-upload.
+    if (getPriority() == null && properties.get(PRIORITY) != null) {
+      errors.put(PRIORITY, INVALID_PRIORITY_VALUE);
+    }
+
     return errors;
   }
 
+  private boolean sourceAlreadyExists(String source, Map<String, List<List<RedirectSourceParameter>>> existingSources) {
+    List<RedirectSourceParameter> sourceParameters = getSourceParameters();
+    // multiple redirects may exist for the same source as long as the source parameters are different
+    return existingSources.getOrDefault(source.toLowerCase(Locale.ROOT), List.of()).stream()
+            .anyMatch(parameters -> parameters.size() == sourceParameters.size() && parameters.containsAll(sourceParameters));
+  }
+
   private static boolean sourceIsValid(String source) {
     return isNotEmpty(source) && source.startsWith("/") && source.length() < 512;
   }
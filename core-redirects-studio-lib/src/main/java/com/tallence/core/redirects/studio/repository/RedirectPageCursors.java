@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 Tallence AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.tallence.core.redirects.studio.repository;
+
+import org.apache.solr.client.solrj.util.ClientUtils;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers the last redirect of the pages of the redirects grid, so the next page can be searched with a range
+ * filter after it, instead of searching all redirects of the previous pages. The search service of the studio has no
+ * offset, so this is the only way to load a page with a constant number of hits.
+ * <p>
+ * A cursor stays valid, when redirects are created or deleted, but the pages after it may be shifted. Hence, all
+ * cursors are dropped after the redirects have been changed.
+ */
+class RedirectPageCursors {
+
+  private static final int MAX_QUERIES = 1000;
+
+  private final Map<Query, Map<Integer, Cursor>> cursors = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Query, Map<Integer, Cursor>> eldest) {
+      return size() > MAX_QUERIES;
+    }
+  };
+
+  /**
+   * Returns the cursor of the redirect before the given page, or null if it is not known.
+   */
+  synchronized Cursor get(Query query, int page) {
+    Map<Integer, Cursor> pages = cursors.get(query);
+    return pages != null ? pages.get(page) : null;
+  }
+
+  /**
+   * Remembers the cursor of the last redirect before the given page.
+   */
+  synchronized void put(Query query, int page, Cursor cursor) {
+    cursors.computeIfAbsent(query, key -> new HashMap<>()).put(page, cursor);
+  }
+
+  synchronized void clear() {
+    cursors.clear();
+  }
+
+  /**
+   * The search of a page: the cursors of different searches, sort orders or page sizes do not match.
+   */
+  record Query(String userId, String siteId, List<String> filterQueries, String sortField, boolean ascending,
+               int pageSize) {
+  }
+
+  /**
+   * The position of a redirect in the sort order: the value of the sort field and the numeric id, which decides the
+   * order of redirects with the same value.
+   */
+  record Cursor(String value, int numericId) {
+
+    /**
+     * Returns the filter query for the redirects after this cursor.
+     */
+    String toFilterQuery(String sortField, boolean ascending) {
+      String escapedValue = ClientUtils.escapeQueryChars(value);
+      String after = ascending ? "{" + escapedValue + " TO *]" : "[* TO " + escapedValue + "}";
+      String idAfter = ascending ? "{" + numericId + " TO *]" : "[* TO " + numericId + "}";
+      return "(" + sortField + ":" + after + " OR (" + sortField + ":" + escapedValue + " AND numericid:" + idAfter + "))";
+    }
+  }
+}
@@ -22,7 +22,9 @@ import com.tallence.core.redirects.studio.model.Pageable;
 import com.tallence.core.redirects.studio.model.Redirect;
 import com.tallence.core.redirects.studio.model.RedirectUpdateProperties;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Repository used by the studio to manage redirects.
@@ -38,6 +40,19 @@ public interface RedirectRepository {
    */
   Redirect createRedirect(String siteId, RedirectUpdateProperties updateProperties);
 
+  /**
+   * Creates new redirects for the given site in one batch, e.g. for an import. The redirects are created and checked
+   * in one after another, the active ones are published together afterwards. In contrast to
+   * {@link #createRedirect(String, RedirectUpdateProperties)}, the sources are not checked for duplicates: the
+   * properties must have been validated before.
+   *
+   * @param siteId               the site id.
+   * @param updatePropertiesList the properties of the redirects.
+   * @return the new redirects in the order of the given properties, null for the redirects which could not be created
+   * or, if active, not be published.
+   */
+  List<Redirect> createRedirects(String siteId, List<RedirectUpdateProperties> updatePropertiesList);
+
   /**
    * Checks if the given source already exists.
    *
@@ -59,6 +74,18 @@ public interface RedirectRepository {
    */
   boolean sourceAlreadyExists(String siteId, String source, List<RedirectSourceParameter> sourceParameters);
 
+  /**
+   * Finds the existing redirects for many sources at once, e.g. to validate an import. The sources are looked up with
+   * a few search requests instead of one per source, the result can be checked with
+   * {@link RedirectUpdateProperties#validate(Map)}.
+   *
+   * @param siteId  the site id.
+   * @param sources the sources.
+   * @return the source parameters of the existing redirects, mapped to their lower case sources. Sources without
+   * redirects are missing.
+   */
+  Map<String, List<List<RedirectSourceParameter>>> findExistingSources(String siteId, Collection<String> sources);
+
   /**
    * Checks if the target of the redirect is invalid.
    *
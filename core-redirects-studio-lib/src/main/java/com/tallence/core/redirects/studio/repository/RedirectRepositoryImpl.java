@@ -22,6 +22,7 @@ import com.coremedia.cap.content.ContentRepository;
 import com.coremedia.cap.content.ContentType;
 import com.coremedia.cap.content.publication.PublicationHelper;
 import com.coremedia.cap.content.publication.PublicationService;
+import com.coremedia.cap.content.publication.PublicationSet;
 import com.coremedia.cap.multisite.Site;
 import com.coremedia.cap.multisite.SitesService;
 import com.coremedia.cap.struct.Struct;
@@ -47,11 +48,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -69,11 +77,25 @@ public class RedirectRepositoryImpl implements RedirectRepository {
 
   private static final String DESCRIPTION = "description";
   private static final String IMPORTED = "imported";
+  private static final String PRIORITY = "priority";
   private static final String SOURCE = "source";
   private static final String SOURCE_URL_TYPE = "sourceUrlType";
   private static final String REDIRECT_TYPE = "redirectType";
   private static final String TARGET_LINK = "targetLink";
+  // The signature of the source and its parameters, fed by the content feeder
+  private static final String SOURCE_SIGNATURE = "sourceSignature";
 
+  // The number of sources, which are looked up with one search request. It is kept below the default maximum number
+  // of boolean clauses of solr.
+  private static final int SOURCE_QUERY_SIZE = 500;
+
+  // The sort fields of the redirects grid, for which the pages can be searched after a cursor, and the indexed values
+  // of a redirect
+  private static final Map<String, Function<Content, String>> CURSOR_VALUES = Map.of(
+      SOURCE, content -> content.getString(SOURCE),
+      "creationdate", content -> content.getCreationDate().toInstant().toString());
+
+  private final RedirectPageCursors pageCursors = new RedirectPageCursors();
   private final SolrSearchService solrSearchService;
   private final SitesService sitesService;
   private final ContentRepository contentRepository;
@@ -106,6 +128,7 @@ public class RedirectRepositoryImpl implements RedirectRepository {
     if (redirectAlreadyExists(siteId, source, updateProperties.getSourceParameters())) {
       throw new IllegalArgumentException("duplicated source url");
     }
+    pageCursors.clear();
     String uuid = UUID.randomUUID().toString();
     String documentName = "redirect-" + uuid;
     Content redirect = contentRepository.createChild(getFolderForRedirect(siteId, uuid), documentName, redirectContentType, new HashMap<>());
@@ -125,6 +148,62 @@ public class RedirectRepositoryImpl implements RedirectRepository {
     return convertToRedirect(redirect);
   }
 
+  @Override
+  public List<Redirect> createRedirects(String siteId, List<RedirectUpdateProperties> updatePropertiesList) {
+    Content rootFolder = getRedirectsRootFolder(siteId);
+    List<Content> redirects = new ArrayList<>(updatePropertiesList.size());
+    List<Content> created = new ArrayList<>();
+    List<Content> toBePublished = new ArrayList<>();
+    for (RedirectUpdateProperties updateProperties : updatePropertiesList) {
+      Content redirect = null;
+      try {
+        if (!redirectPermissionService.mayCreate(rootFolder, updateProperties)) {
+          throw new IllegalStateException("User has no rights to create a redirect in site " + siteId);
+        }
+        String uuid = UUID.randomUUID().toString();
+        // All properties are set with the creation, instead of one request per property. A new redirect has no
+        // values to be reset.
+        Map<String, Object> properties = getProperties(null, updateProperties);
+        properties.values().removeIf(Objects::isNull);
+        redirect = contentRepository.createChild(getFolderForRedirect(siteId, uuid), "redirect-" + uuid,
+                redirectContentType, properties);
+        if (redirect.isCheckedOut()) {
+          redirect.checkIn();
+        }
+        created.add(redirect);
+        if (Boolean.TRUE.equals(updateProperties.getActive())) {
+          toBePublished.add(redirect);
+        }
+      } catch (Exception e) {
+        LOG.warn("Could not create redirect with source {} in site {}", updateProperties.getSource(), siteId, e);
+        if (redirect != null) {
+          if (redirect.isCheckedOut()) {
+            redirect.checkIn();
+          }
+          redirect.delete();
+        }
+        redirect = null;
+      }
+      redirects.add(redirect);
+    }
+    Set<Content> unpublished = publish(toBePublished);
+    if (!unpublished.isEmpty()) {
+      // Like a single redirect, which cannot be published, an active redirect is not kept without its publication
+      for (Content redirect : unpublished) {
+        deleteUnpublished(redirect);
+      }
+      redirects.replaceAll(redirect -> unpublished.contains(redirect) ? null : redirect);
+      created.removeAll(unpublished);
+    }
+    pageCursors.clear();
+
+    //Prefetch details for all contents with one call for performance reasons.
+    contentRepository.prefetch(created);
+    return redirects.stream()
+            .map(redirect -> redirect != null ? convertToRedirect(redirect) : null)
+            .collect(Collectors.toList());
+  }
+
   @Override
   public boolean sourceAlreadyExists(String siteId, String redirectId, String source, List<RedirectSourceParameter> sourceParameters) {
     return redirectAlreadyExists(siteId, redirectId, source, sourceParameters);
@@ -135,6 +214,33 @@ public class RedirectRepositoryImpl implements RedirectRepository {
     return redirectAlreadyExists(siteId, source, sourceParameters);
   }
 
+  @Override
+  public Map<String, List<List<RedirectSourceParameter>>> findExistingSources(String siteId, Collection<String> sources) {
+    List<String> escapedSources = sources.stream()
+            .filter(StringUtils::isNotEmpty)
+            .map(source -> ClientUtils.escapeQueryChars(source.toLowerCase(Locale.ROOT)))
+            .distinct()
+            .collect(Collectors.toList());
+
+    Map<String, List<List<RedirectSourceParameter>>> existingSources = new HashMap<>();
+    for (int i = 0; i < escapedSources.size(); i += SOURCE_QUERY_SIZE) {
+      List<String> chunk = escapedSources.subList(i, Math.min(i + SOURCE_QUERY_SIZE, escapedSources.size()));
+      List<String> filterQueries = Arrays.asList("isdeleted:false", "source:(" + String.join(" OR ", chunk) + ")");
+      List<Content> hits = search(siteId, filterQueries, Collections.emptyList(), -1).getHits();
+
+      //Prefetch details for all contents with one call for performance reasons.
+      contentRepository.prefetch(hits);
+      for (Content hit : hits) {
+        String source = hit.getString(SOURCE);
+        if (source != null) {
+          existingSources.computeIfAbsent(source.toLowerCase(Locale.ROOT), key -> new ArrayList<>())
+                  .add(RedirectHelper.getSourceParameters(hit));
+        }
+      }
+    }
+    return existingSources;
+  }
+
   @Override
   public boolean targetIsInvalid(Content target) {
     return !contentRepository.getPublicationService().isPublished(target);
@@ -163,6 +269,7 @@ public class RedirectRepositoryImpl implements RedirectRepository {
         redirect.checkOut();
       }
       updateRedirect(redirect, wasPublished, updateProperties);
+      pageCursors.clear();
     } finally {
       if (redirect.isCheckedOut()) {
         redirect.checkIn();
@@ -191,6 +298,7 @@ public class RedirectRepositoryImpl implements RedirectRepository {
     }
 
     redirect.delete();
+    pageCursors.clear();
   }
 
   @Override
@@ -201,32 +309,69 @@ public class RedirectRepositoryImpl implements RedirectRepository {
     }
 
     String query = StringUtils.isEmpty(StringUtils.trim(search)) ? "source:*" : getSourceQuery(search, exactMatch);
+    List<String> filterQueries = Arrays.asList("isdeleted:false", query);
 
     List<String> sortCriteria;
+    RedirectPageCursors.Query cursorQuery = null;
     if (StringUtils.isNotEmpty(sorter) && StringUtils.isNotEmpty(sortDirection)) {
-      sortCriteria = Collections.singletonList(sorter.toLowerCase() + " " + sortDirection.toLowerCase());
+      String sortField = sorter.toLowerCase();
+      String direction = sortDirection.toLowerCase();
+      // The numeric id decides the order of redirects with the same value, so the pages are stable
+      sortCriteria = Arrays.asList(sortField + " " + direction, "numericid " + direction);
+      if (CURSOR_VALUES.containsKey(sortField)) {
+        cursorQuery = new RedirectPageCursors.Query(getUserId(), siteId, filterQueries, sortField,
+            !"desc".equals(direction), pageSize);
+      }
     } else {
       sortCriteria = Collections.emptyList();
     }
 
-    SearchServiceResult result = search(siteId, Arrays.asList("isdeleted:false", query), sortCriteria, page * pageSize);
-    List<Content> hits = result.getHits();
-    List<Content> relevantContent = new ArrayList<>();
-    //This complicated iteration is a workaround required by the lack of a "start" or "offset" parameter in
-    // com.coremedia.rest.cap.content.search.SearchService.search
-    for (int i = (page - 1) * pageSize; i < Math.min(page * pageSize, hits.size()); i++) {
-      relevantContent.add(hits.get(i));
+    RedirectPageCursors.Cursor cursor = cursorQuery != null && page > 1 ? pageCursors.get(cursorQuery, page) : null;
+    List<Content> relevantContent;
+    Content previousContent = null;
+    int total;
+    if (cursor != null) {
+      // The page is searched after the last redirect of the previous page, so only the redirects of this page are
+      // requested regardless of its depth.
+      List<String> cursorFilterQueries = new ArrayList<>(filterQueries);
+      cursorFilterQueries.add(cursor.toFilterQuery(cursorQuery.sortField(), cursorQuery.ascending()));
+      SearchServiceResult result = search(siteId, cursorFilterQueries, sortCriteria, pageSize);
+      relevantContent = new ArrayList<>(result.getHits());
+      // The total of the search only counts the redirects after the cursor. The redirects before it might have changed
+      // since the cursor was remembered (e.g. by another studio or an import), so they are counted without any hits.
+      total = Math.toIntExact(search(siteId, filterQueries, Collections.emptyList(), 0).getTotal());
+    } else {
+      SearchServiceResult result = search(siteId, filterQueries, sortCriteria, page * pageSize);
+      List<Content> hits = result.getHits();
+      //The hits of the previous pages are skipped, because com.coremedia.rest.cap.content.search.SearchService.search
+      // has no "start" or "offset" parameter. The cursor of the page is remembered, so the following pages are
+      // searched after it.
+      int from = Math.min((page - 1) * pageSize, hits.size());
+      relevantContent = new ArrayList<>(hits.subList(from, Math.min(page * pageSize, hits.size())));
+      previousContent = from > 0 ? hits.get(from - 1) : null;
+      total = Math.toIntExact(result.getTotal());
     }
 
     //Prefetch details for all contents with one call for performance reasons.
-    contentRepository.prefetch(relevantContent);
+    List<Content> prefetched = new ArrayList<>(relevantContent);
+    if (previousContent != null) {
+      prefetched.add(previousContent);
+    }
+    contentRepository.prefetch(prefetched);
+
+    if (cursorQuery != null) {
+      rememberCursor(cursorQuery, page, previousContent);
+      if (relevantContent.size() == pageSize) {
+        rememberCursor(cursorQuery, page + 1, relevantContent.get(relevantContent.size() - 1));
+      }
+    }
 
     List<Redirect> redirects = relevantContent.stream()
         //check the state (isInProduction) in case someone deleted the result but the solr was not notified yet.
         .filter(Content::isInProduction)
         .map(this::convertToRedirect).collect(Collectors.toList());
 
-    return new Pageable(redirects, Math.toIntExact(result.getTotal()));
+    return new Pageable(redirects, total);
   }
 
   @Override
@@ -245,24 +390,37 @@ public class RedirectRepositoryImpl implements RedirectRepository {
     if (StringUtils.isEmpty(source)) {
       return false;
     }
-    List<String> filterQueries = Arrays.asList("isdeleted:false", "source:" + ClientUtils.escapeQueryChars(source.toLowerCase()), "-numericid:" + redirectId);
-    return redirectAlreadyExists(siteId, filterQueries, sourceParameters);
+    List<String> filterQueries = Arrays.asList("isdeleted:false", getDuplicateQuery(source, sourceParameters), "-numericid:" + redirectId);
+    return redirectAlreadyExists(siteId, filterQueries, source, sourceParameters);
   }
 
   private boolean redirectAlreadyExists(String siteId, String source, List<RedirectSourceParameter> sourceParameters) {
     if (StringUtils.isEmpty(source)) {
       return false;
     }
-    List<String> filterQueries = Arrays.asList("isdeleted:false", "source:" + ClientUtils.escapeQueryChars(source.toLowerCase()));
-    return redirectAlreadyExists(siteId, filterQueries, sourceParameters);
+    List<String> filterQueries = Arrays.asList("isdeleted:false", getDuplicateQuery(source, sourceParameters));
+    return redirectAlreadyExists(siteId, filterQueries, source, sourceParameters);
   }
 
-  private boolean redirectAlreadyExists(String siteId, List<String> filterQueries,List<RedirectSourceParameter> sourceParameters) {
-    List<Content> hits = search(siteId, filterQueries, Collections.emptyList(), -1).getHits();
-    // multiple redirects may exist for the same source as long as the source parameters are different
-    return hits.stream()
-            .map(RedirectHelper::getSourceParameters)
-            .anyMatch(parameters -> parameters.size() == sourceParameters.size() && parameters.containsAll(sourceParameters));
+  private boolean redirectAlreadyExists(String siteId, List<String> filterQueries, String source,
+                                        List<RedirectSourceParameter> sourceParameters) {
+    // multiple redirects may exist for the same source as long as the source parameters are different. Both are
+    // compared with the signature of the hits, which are only the duplicates, once all redirects have been indexed
+    // with their signature.
+    String signature = RedirectHelper.getSourceSignature(source, sourceParameters);
+    return search(siteId, filterQueries, Collections.emptyList(), -1).getHits().stream()
+            .anyMatch(hit -> hit.getString(SOURCE) != null
+                    && signature.equals(RedirectHelper.getSourceSignature(hit.getString(SOURCE), RedirectHelper.getSourceParameters(hit))));
+  }
+
+  /**
+   * Returns a query for the redirects with the signature of the given source and parameters. Redirects, which have
+   * been indexed before the signature was fed, are found by their source and compared after loading them.
+   */
+  private String getDuplicateQuery(String source, List<RedirectSourceParameter> sourceParameters) {
+    return SOURCE_SIGNATURE + ":" + ClientUtils.escapeQueryChars(RedirectHelper.getSourceSignature(source, sourceParameters))
+            + " OR (" + SOURCE + ":" + ClientUtils.escapeQueryChars(source.toLowerCase(Locale.ROOT))
+            + " -" + SOURCE_SIGNATURE + ":[* TO *])";
   }
 
   /**
@@ -324,6 +482,7 @@ public class RedirectRepositoryImpl implements RedirectRepository {
         RedirectType.asRedirectType(redirectEntry.getString(REDIRECT_TYPE)),
         redirectEntry.getString(DESCRIPTION),
         redirectEntry.getBoolean(IMPORTED),
+        redirectEntry.getInt(PRIORITY),
         RedirectHelper.getSourceParameters(redirectEntry),
         RedirectHelper.getTargetParameters(redirectEntry)
     );
@@ -337,22 +496,45 @@ public class RedirectRepositoryImpl implements RedirectRepository {
    * @param updateProperties the redirect update properties.
    */
   private void updateRedirect(Content redirect, boolean wasPublished, RedirectUpdateProperties updateProperties) {
-    updateProperty(updateProperties::getDescription, DESCRIPTION, redirect);
-    updateBooleanProperty(updateProperties::getImported, IMPORTED, redirect);
-    updateProperty(updateProperties::getSource, SOURCE, redirect);
-    updateEnumProperty(updateProperties::getRedirectType, REDIRECT_TYPE, redirect);
-    updateEnumProperty(updateProperties::getSourceUrlType, SOURCE_URL_TYPE, redirect);
+    // All properties are set with one request
+    redirect.setProperties(getProperties(redirect, updateProperties));
+
+    Boolean active = updateProperties.getActive();
+    if (active != null) {
+      // if active is set to false, the redirect must be withdrawn
+      publicationHelper.publish(redirect, active);
+    } else if (wasPublished) {
+      publicationHelper.publish(redirect);
+    }
+  }
+
+  /**
+   * Returns the changed properties of a redirect content object.
+   *
+   * @param redirect         the redirect content object, null for a new redirect.
+   * @param updateProperties the redirect update properties.
+   * @return the changed properties.
+   */
+  private Map<String, Object> getProperties(Content redirect, RedirectUpdateProperties updateProperties) {
+    Map<String, Object> properties = new HashMap<>();
+    updateProperty(updateProperties::getDescription, DESCRIPTION, properties);
+    updateBooleanProperty(updateProperties::getImported, IMPORTED, properties);
+    updateProperty(updateProperties::getSource, SOURCE, properties);
+    updateEnumProperty(updateProperties::getRedirectType, REDIRECT_TYPE, properties);
+    updateEnumProperty(updateProperties::getSourceUrlType, SOURCE_URL_TYPE, properties);
+    updateProperty(updateProperties::getPriority, PRIORITY, properties);
 
     if (updateProperties.getTargetLink() != null) {
-      updateLinkProperty(updateProperties::getTargetLink, TARGET_LINK, redirect);
-      redirect.set(TARGET_URL, null);
+      updateLinkProperty(updateProperties::getTargetLink, TARGET_LINK, properties);
+      properties.put(TARGET_URL, null);
     } else if (StringUtils.isNotEmpty(updateProperties.getTargetUrl())) {
-      updateProperty(updateProperties::getTargetUrl, TARGET_URL, redirect);
-      redirect.set(TARGET_LINK, null);
+      updateProperty(updateProperties::getTargetUrl, TARGET_URL, properties);
+      properties.put(TARGET_LINK, null);
     }
 
     if (updateProperties.urlParametersChanged()) {
-      StructBuilder structBuilder = Optional.ofNullable(redirect.getStruct(RedirectParameter.PROPERTY_URL_PARAMS))
+      StructBuilder structBuilder = Optional.ofNullable(redirect)
+              .map(content -> content.getStruct(RedirectParameter.PROPERTY_URL_PARAMS))
               .map(Struct::builder)
               .orElseGet(this::createStructBuilder);
 
@@ -368,15 +550,63 @@ public class RedirectRepositoryImpl implements RedirectRepository {
         structBuilder.declareStructs(RedirectTargetParameter.STRUCT_PROPERTY_TARGET_PARAMS, targetParams);
       }
 
-      redirect.set(RedirectParameter.PROPERTY_URL_PARAMS, structBuilder.build());
+      properties.put(RedirectParameter.PROPERTY_URL_PARAMS, structBuilder.build());
     }
+    return properties;
+  }
 
-    Boolean active = updateProperties.getActive();
-    if (active != null) {
-      // if active is set to false, the redirect must be withdrawn
-      publicationHelper.publish(redirect, active);
-    } else if (wasPublished) {
-      publicationHelper.publish(redirect);
+  /**
+   * Publishes the given new redirects with a single publication, together with their folders, which have not been
+   * published yet. If the publication fails, the redirects are published one by one.
+   *
+   * @param redirects the checked in redirects, which have never been published.
+   * @return the redirects, which could not be published.
+   */
+  private Set<Content> publish(List<Content> redirects) {
+    if (redirects.isEmpty()) {
+      return Collections.emptySet();
+    }
+    try {
+      // getFolderForRedirect creates the sub folders of the redirects without publishing them
+      Set<Content> visited = new HashSet<>();
+      List<Content> toBePublished = new ArrayList<>();
+      for (Content redirect : redirects) {
+        Content folder = redirect.getParent();
+        while (folder != null && visited.add(folder) && !publicationService.isPublished(folder)) {
+          publicationService.approvePlace(folder);
+          toBePublished.add(folder);
+          folder = folder.getParent();
+        }
+      }
+      for (Content redirect : redirects) {
+        publicationService.approvePlace(redirect);
+        publicationService.approve(redirect.getCheckedInVersion());
+        toBePublished.add(redirect);
+      }
+      PublicationSet publicationSet = publicationService.createPublicationSet(toBePublished);
+      publicationService.publish(publicationSet);
+      return Collections.emptySet();
+    } catch (RuntimeException e) {
+      LOG.warn("Could not publish {} redirects at once, publishing them one by one", redirects.size(), e);
+    }
+
+    Set<Content> unpublished = new HashSet<>();
+    for (Content redirect : redirects) {
+      try {
+        publicationHelper.publish(redirect);
+      } catch (RuntimeException e) {
+        LOG.warn("Could not publish redirect {}", redirect.getId(), e);
+        unpublished.add(redirect);
+      }
+    }
+    return unpublished;
+  }
+
+  private void deleteUnpublished(Content redirect) {
+    try {
+      redirect.delete();
+    } catch (RuntimeException e) {
+      LOG.error("Could not delete unpublished redirect {}", redirect.getId(), e);
     }
   }
 
@@ -398,34 +628,51 @@ public class RedirectRepositoryImpl implements RedirectRepository {
     return structBuilder.build();
   }
 
-  private void updateProperty(Supplier<Object> supplier, String property, Content redirect) {
+  private void updateProperty(Supplier<Object> supplier, String property, Map<String, Object> properties) {
     Object value = supplier.get();
     if (value != null) {
-      redirect.set(property, value);
+      properties.put(property, value);
     }
   }
 
-  private void updateEnumProperty(Supplier<Object> supplier, String propertyName, Content redirect) {
+  private void updateEnumProperty(Supplier<Object> supplier, String propertyName, Map<String, Object> properties) {
     Object value = supplier.get();
     if (value != null) {
-      redirect.set(propertyName, value.toString());
+      properties.put(propertyName, value.toString());
     }
   }
 
-  private void updateLinkProperty(Supplier<Content> supplier, String propertyName, Content redirect) {
+  private void updateLinkProperty(Supplier<Content> supplier, String propertyName, Map<String, Object> properties) {
     Content value = supplier.get();
     if (value != null) {
-      redirect.set(propertyName, Collections.singletonList(value));
+      properties.put(propertyName, Collections.singletonList(value));
     }
   }
 
-  private void updateBooleanProperty(Supplier<Boolean> supplier, String propertyName, Content redirect) {
+  private void updateBooleanProperty(Supplier<Boolean> supplier, String propertyName, Map<String, Object> properties) {
     Boolean value = supplier.get();
     if (value != null) {
-      redirect.set(propertyName, Boolean.TRUE.equals(value) ? 1 : 0);
+      properties.put(propertyName, Boolean.TRUE.equals(value) ? 1 : 0);
     }
   }
 
+  /**
+   * Remembers the given redirect as the cursor of the given page, i.e. as the last redirect before the page.
+   */
+  private void rememberCursor(RedirectPageCursors.Query cursorQuery, int page, Content content) {
+    if (content == null || content.isDestroyed()) {
+      return;
+    }
+    String value = CURSOR_VALUES.get(cursorQuery.sortField()).apply(content);
+    if (value != null) {
+      pageCursors.put(cursorQuery, page, new RedirectPageCursors.Cursor(value, IdHelper.parseContentId(content.getId())));
+    }
+  }
+
+  private String getUserId() {
+    return contentRepository.getConnection().getSession().getUser().getId();
+  }
+
   private String getSourceQuery(String search, boolean exactMatch) {
     String escaped = ClientUtils.escapeQueryChars(search.toLowerCase().trim());
     return exactMatch ? "source:" + escaped : "source:*" + escaped + "*";
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 Tallence AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.tallence.core.redirects.studio.rest;
+
+import com.tallence.core.redirects.studio.service.RedirectImportJob;
+
+import java.util.List;
+
+/**
+ * The progress of a redirect import job, used by the studio to poll a running import. The created redirects and the
+ * error messages are returned in pages, the counts always cover the whole import.
+ */
+public class RedirectImportJobRepresentation {
+
+  private final String jobId;
+  private final RedirectImportJob.State state;
+  private final int processed;
+  private final int createdCount;
+  private final int failedCount;
+  private final List<?> created;
+  private final List<?> errorMessages;
+
+  RedirectImportJobRepresentation(RedirectImportJob job, int offset, int limit) {
+    RedirectImportResponse response = job.getResponse();
+    // The state is read first, so the counts of a finished job are complete
+    this.jobId = job.getId();
+    this.state = job.getState();
+    this.processed = response.getProcessed();
+    this.createdCount = response.getCreatedCount();
+    this.failedCount = response.getErrorCount();
+    this.created = response.getCreated(offset, limit);
+    this.errorMessages = response.getErrorMessages(offset, limit);
+  }
+
+  public String getJobId() {
+    return jobId;
+  }
+
+  public RedirectImportJob.State getState() {
+    return state;
+  }
+
+  public boolean isDone() {
+    return state.isDone();
+  }
+
+  public int getProcessed() {
+    return processed;
+  }
+
+  public int getCreatedCount() {
+    return createdCount;
+  }
+
+  public int getFailedCount() {
+    return failedCount;
+  }
+
+  public List<?> getCreated() {
+    return created;
+  }
+
+  public List<?> getErrorMessages() {
+    return errorMessages;
+  }
+}
@@ -22,29 +22,76 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * A redirect import response used by the studio to display the import result.
+ * A redirect import response used by the studio to display the import result. It is filled while the import is
+ * running, so the progress can be read by another thread.
  */
 public class RedirectImportResponse {
 
-  private List<RedirectReference> created = new ArrayList<>();
-  private List<ErrorMessages> errorMessages = new ArrayList<>();
+  private final List<RedirectReference> created = new ArrayList<>();
+  private final List<ErrorMessages> errorMessages = new ArrayList<>();
+  private volatile int processed;
 
-  public List<RedirectReference> getCreated() {
-    return created;
+  /**
+   * Returns a copy of all created redirects.
+   */
+  public synchronized List<RedirectReference> getCreated() {
+    return new ArrayList<>(created);
   }
 
-  public void addCreated(Redirect redirect) {
+  /**
+   * Returns a copy of the created redirects, starting at the given offset.
+   */
+  public synchronized List<RedirectReference> getCreated(int offset, int limit) {
+    return page(created, offset, limit);
+  }
+
+  public synchronized int getCreatedCount() {
+    return created.size();
+  }
+
+  public synchronized void addCreated(Redirect redirect) {
     created.add(new RedirectReference(redirect));
   }
 
-  public List<ErrorMessages> getErrorMessages() {
-    return errorMessages;
+  /**
+   * Returns the number of csv entries, which have been imported or rejected so far.
+   */
+  public int getProcessed() {
+    return processed;
+  }
+
+  public synchronized void addProcessed(int count) {
+    processed += count;
+  }
+
+  /**
+   * Returns a copy of all error messages.
+   */
+  public synchronized List<ErrorMessages> getErrorMessages() {
+    return new ArrayList<>(errorMessages);
+  }
+
+  /**
+   * Returns a copy of the error messages, starting at the given offset.
+   */
+  public synchronized List<ErrorMessages> getErrorMessages(int offset, int limit) {
+    return page(errorMessages, offset, limit);
   }
 
-  public void addErrorMessage(String csvEntry, String errorCode) {
+  public synchronized int getErrorCount() {
+    return errorMessages.size();
+  }
+
+  public synchronized void addErrorMessage(String csvEntry, String errorCode) {
     errorMessages.add(new ErrorMessages(csvEntry, errorCode));
   }
 
+  private static <T> List<T> page(List<T> list, int offset, int limit) {
+    int from = Math.min(Math.max(offset, 0), list.size());
+    int to = Math.min(from + Math.max(limit, 0), list.size());
+    return new ArrayList<>(list.subList(from, to));
+  }
+
   private class ErrorMessages {
     private String csvEntry;
     private String errorCode;
@@ -41,6 +41,7 @@ public class RedirectRepresentation {
   private final RedirectType redirectType;
   private final String siteId;
   private final String description;
+  private final int priority;
   private final List<RedirectParameterRepresentation> sourceParameters;
   private final List<RedirectParameterRepresentation> targetParameters;
 
@@ -54,6 +55,7 @@ public class RedirectRepresentation {
     this.redirectType = redirect.getRedirectType();
     this.siteId = redirect.getSiteId();
     this.description = redirect.getDescription();
+    this.priority = redirect.getPriority();
     this.sourceParameters = convertParamers(redirect.getSourceParameters());
     this.targetParameters = convertParamers(redirect.getTargetParameters());
   }
@@ -94,6 +96,10 @@ public class RedirectRepresentation {
     return description;
   }
 
+  public int getPriority() {
+    return priority;
+  }
+
   public List<RedirectParameterRepresentation> getSourceParameters() {
     return sourceParameters;
   }
@@ -27,13 +27,17 @@ import com.tallence.core.redirects.studio.model.Pageable;
 import com.tallence.core.redirects.studio.model.Redirect;
 import com.tallence.core.redirects.studio.model.RedirectUpdateProperties;
 import com.tallence.core.redirects.studio.repository.RedirectRepository;
-import com.tallence.core.redirects.studio.service.RedirectImporter;
+import com.tallence.core.redirects.studio.service.RedirectImportJob;
+import com.tallence.core.redirects.studio.service.RedirectImportJobService;
 import com.tallence.core.redirects.studio.service.RedirectPermissionService;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -44,15 +48,17 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 import static com.tallence.core.redirects.studio.model.RedirectUpdateProperties.*;
 
 /**
- * The resource handles requests to load, create, validate and upload redirects.
+ * The resource handles requests to load, create, validate and upload redirects and to poll the imports of uploads.
  */
 @RestController
 @RequestMapping(value = "redirects")
@@ -61,7 +67,7 @@ public class RedirectsResource {
   private static final Logger LOG = LoggerFactory.getLogger(RedirectsResource.class);
 
   private final RedirectRepository redirectRepository;
-  private final RedirectImporter redirectImporter;
+  private final RedirectImportJobService redirectImportJobService;
   private final RedirectPermissionService redirectPermissionService;
   private final ContentRepository contentRepository;
   private final LinkResolver linkResolver;
@@ -69,11 +75,11 @@ public class RedirectsResource {
   @Autowired
   public RedirectsResource(RedirectRepository redirectRepository,
                            LinkResolver linkResolver,
-                           RedirectImporter redirectImporter,
+                           RedirectImportJobService redirectImportJobService,
                            RedirectPermissionService redirectPermissionService,
                            ContentRepository contentRepository) {
     this.redirectRepository = redirectRepository;
-    this.redirectImporter = redirectImporter;
+    this.redirectImportJobService = redirectImportJobService;
     this.redirectPermissionService = redirectPermissionService;
     this.contentRepository = contentRepository;
     this.linkResolver = linkResolver;
@@ -118,10 +124,38 @@ public class RedirectsResource {
     return new RedirectReference(redirect);
   }
 
+  /**
+   * Starts the import of the uploaded csv file in the background and returns the id of the import job at once. The
+   * progress can be polled with {@link #getImportJob}.
+   */
   @PostMapping(value = "{siteId}/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-  public RedirectImportResponse uploadCsv(@PathVariable String siteId,
-                                          @RequestParam("file") MultipartFile file) throws IOException {
-    return redirectImporter.importRedirects(siteId, file.getInputStream());
+  public ResponseEntity<Map<String, String>> uploadCsv(@PathVariable String siteId,
+                                                       @RequestParam("file") MultipartFile file) throws IOException {
+    try (InputStream inputStream = file.getInputStream()) {
+      RedirectImportJob job = redirectImportJobService.submit(siteId, inputStream);
+      return ResponseEntity.ok(Map.of("jobId", job.getId()));
+    } catch (RejectedExecutionException e) {
+      LOG.warn("Rejected the upload of a redirect csv file for site {}, too many imports are running.", siteId);
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+  }
+
+  @GetMapping("{siteId}/imports/{jobId}")
+  public ResponseEntity<RedirectImportJobRepresentation> getImportJob(@PathVariable String siteId,
+                                                                      @PathVariable String jobId,
+                                                                      @RequestParam(defaultValue = "0") int offset,
+                                                                      @RequestParam(defaultValue = "100") int limit) {
+    return redirectImportJobService.getJob(siteId, jobId)
+        .map(job -> ResponseEntity.ok(new RedirectImportJobRepresentation(job, offset, limit)))
+        .orElseGet(() -> ResponseEntity.notFound().build());
+  }
+
+  @DeleteMapping("{siteId}/imports/{jobId}")
+  public ResponseEntity<RedirectImportJobRepresentation> cancelImportJob(@PathVariable String siteId,
+                                                                         @PathVariable String jobId) {
+    return redirectImportJobService.cancel(siteId, jobId)
+        .map(job -> ResponseEntity.ok(new RedirectImportJobRepresentation(job, 0, 0)))
+        .orElseGet(() -> ResponseEntity.notFound().build());
   }
 
   @GetMapping("{siteId}/validate")
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2019 Tallence AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.tallence.core.redirects.studio.service;
+
+import com.tallence.core.redirects.studio.rest.RedirectImportResponse;
+
+/**
+ * An import of a csv file, which is running in the background. The {@link RedirectImportResponse} is filled while
+ * the import is running.
+ */
+public class RedirectImportJob {
+
+  /**
+   * The state of an import job.
+   */
+  public enum State {
+    QUEUED, RUNNING, FINISHED, CANCELLED, FAILED;
+
+    public boolean isDone() {
+      return this != QUEUED && this != RUNNING;
+    }
+  }
+
+  private final String id;
+  private final String siteId;
+  private final String userId;
+  private final RedirectImportResponse response = new RedirectImportResponse();
+  private volatile State state = State.QUEUED;
+  private volatile boolean cancelRequested;
+  private volatile long finishedAt;
+
+  RedirectImportJob(String id, String siteId, String userId) {
+    this.id = id;
+    this.siteId = siteId;
+    this.userId = userId;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public String getSiteId() {
+    return siteId;
+  }
+
+  String getUserId() {
+    return userId;
+  }
+
+  public RedirectImportResponse getResponse() {
+    return response;
+  }
+
+  public State getState() {
+    return state;
+  }
+
+  boolean isCancelRequested() {
+    return cancelRequested;
+  }
+
+  void cancel() {
+    cancelRequested = true;
+  }
+
+  /**
+   * Returns the time in milliseconds, at which the job was done, or 0 if it is still queued or running.
+   */
+  long getFinishedAt() {
+    return finishedAt;
+  }
+
+  synchronized boolean start() {
+    if (state != State.QUEUED) {
+      return false;
+    }
+    state = State.RUNNING;
+    return true;
+  }
+
+  synchronized void finish(State state) {
+    this.state = state;
+    this.finishedAt = System.currentTimeMillis();
+  }
+
+  /**
+   * Marks a queued job as cancelled. A running job is only cancelled after its current batch.
+   */
+  synchronized boolean cancelIfQueued() {
+    if (state != State.QUEUED) {
+      return false;
+    }
+    finish(State.CANCELLED);
+    return true;
+  }
+}
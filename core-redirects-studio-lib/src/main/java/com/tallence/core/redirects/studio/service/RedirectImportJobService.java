@@ -0,0 +1,177 @@
+/*
+ * Copyright 2019 Tallence AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.tallence.core.redirects.studio.service;
+
+import com.coremedia.cap.common.CapConnection;
+import com.coremedia.cap.common.CapSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the imports of csv files in the background, so the upload request returns at once and the studio can poll
+ * the progress of the import. The imports are run by a bounded number of threads, further uploads are queued up to
+ * the configured capacity and rejected afterwards.
+ */
+public class RedirectImportJobService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(RedirectImportJobService.class);
+
+  private final RedirectImporter redirectImporter;
+  private final CapConnection capConnection;
+  private final long retentionMillis;
+  private final ThreadPoolExecutor executor;
+  private final ConcurrentMap<String, RedirectImportJob> jobs = new ConcurrentHashMap<>();
+
+  @Autowired
+  public RedirectImportJobService(RedirectImporter redirectImporter, CapConnection capConnection,
+                                  @Value("${core.redirects.import.threads:2}") int threads,
+                                  @Value("${core.redirects.import.queue.capacity:10}") int queueCapacity,
+                                  @Value("${core.redirects.import.retention.minutes:60}") long retentionMinutes) {
+    this.redirectImporter = redirectImporter;
+    this.capConnection = capConnection;
+    this.retentionMillis = TimeUnit.MINUTES.toMillis(retentionMinutes);
+
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+      Thread thread = new Thread(runnable, "redirect-import-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Starts the import of the given csv file. The file is buffered on the disk, so the input stream can be closed
+   * after this method returns.
+   *
+   * @param siteId      the site id.
+   * @param inputStream the input stream for the csv file.
+   * @return the queued job.
+   * @throws IOException                if the file could not be buffered.
+   * @throws RejectedExecutionException if too many imports are already running or queued.
+   */
+  public RedirectImportJob submit(String siteId, InputStream inputStream) throws IOException {
+    purgeFinishedJobs();
+
+    // The session of the current user is used by the import, so the permissions are checked for the uploader
+    CapSession session = capConnection.getSession();
+    RedirectImportJob job = new RedirectImportJob(UUID.randomUUID().toString(), siteId, session.getUser().getId());
+
+    Path file = Files.createTempFile("redirect-import-", ".csv");
+    try {
+      Files.copy(inputStream, file, StandardCopyOption.REPLACE_EXISTING);
+      jobs.put(job.getId(), job);
+      executor.execute(() -> run(job, session, file));
+    } catch (IOException | RejectedExecutionException e) {
+      jobs.remove(job.getId());
+      Files.deleteIfExists(file);
+      throw e;
+    }
+    LOG.info("Queued redirect import {} for site {}.", job.getId(), siteId);
+    return job;
+  }
+
+  /**
+   * Returns the job with the given id, if it belongs to the given site and was started by the current user.
+   */
+  public Optional<RedirectImportJob> getJob(String siteId, String jobId) {
+    purgeFinishedJobs();
+    String userId = capConnection.getSession().getUser().getId();
+    return Optional.ofNullable(jobs.get(jobId))
+        .filter(job -> job.getSiteId().equals(siteId) && job.getUserId().equals(userId));
+  }
+
+  /**
+   * Cancels the job with the given id. A queued job is not started at all, a running job stops after the batch,
+   * which is currently imported. The redirects, which have been created so far, are kept.
+   *
+   * @return the cancelled job, if it belongs to the given site and was started by the current user.
+   */
+  public Optional<RedirectImportJob> cancel(String siteId, String jobId) {
+    Optional<RedirectImportJob> job = getJob(siteId, jobId);
+    job.ifPresent(j -> {
+      j.cancel();
+      if (j.cancelIfQueued()) {
+        LOG.info("Cancelled queued redirect import {}.", jobId);
+      }
+    });
+    return job;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    jobs.values().forEach(RedirectImportJob::cancel);
+    executor.shutdownNow();
+  }
+
+  private void run(RedirectImportJob job, CapSession session, Path file) {
+    try {
+      if (!job.start()) {
+        return;
+      }
+      CapSession previous = session.activate();
+      try (InputStream inputStream = Files.newInputStream(file)) {
+        redirectImporter.importRedirects(job.getSiteId(), inputStream, job.getResponse(), job::isCancelRequested);
+        job.finish(job.isCancelRequested() ? RedirectImportJob.State.CANCELLED : RedirectImportJob.State.FINISHED);
+        LOG.info("Finished redirect import {} with state {}.", job.getId(), job.getState());
+      } finally {
+        // The pool threads are reused, so the session of the uploader must not stay active after the job
+        if (previous != null) {
+          previous.activate();
+        } else {
+          session.deactivate();
+        }
+      }
+    } catch (Exception e) {
+      LOG.error("Redirect import {} failed.", job.getId(), e);
+      job.finish(RedirectImportJob.State.FAILED);
+    } finally {
+      deleteFile(file);
+    }
+  }
+
+  private void purgeFinishedJobs() {
+    long expired = System.currentTimeMillis() - retentionMillis;
+    jobs.values().removeIf(job -> job.getState().isDone() && job.getFinishedAt() < expired);
+  }
+
+  private static void deleteFile(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      LOG.warn("Could not delete the uploaded file {}.", file, e);
+    }
+  }
+}
@@ -27,6 +27,7 @@ import com.tallence.core.redirects.studio.model.RedirectUpdateProperties;
 import com.tallence.core.redirects.studio.repository.RedirectRepository;
 import com.tallence.core.redirects.studio.rest.RedirectImportResponse;
 import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -36,11 +37,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
 
 /**
  * A service to import redirects.
@@ -54,6 +61,9 @@ public class RedirectImporter {
   private static final String CREATION_FAILURE = "creation_failure";
   private static final String PARSING_FAILURE = "parsing_failure";
 
+  // The number of csv entries, which are validated and created together
+  private static final int BATCH_SIZE = 500;
+
   private final RedirectRepository redirectRepository;
   private final ContentRepository contentRepository;
 
@@ -72,72 +82,77 @@ public class RedirectImporter {
    */
   public RedirectImportResponse importRedirects(String siteId, InputStream inputStream) {
     RedirectImportResponse redirectImportResponse = new RedirectImportResponse();
-    try {
-      Iterable<CSVRecord> records = CSVFormat.EXCEL
-          .withDelimiter(';')
-          .withFirstRecordAsHeader()
-          .parse(new InputStreamReader(inputStream));
+    importRedirects(siteId, inputStream, redirectImportResponse, () -> false);
+    return redirectImportResponse;
+  }
 
-      LOG.info("Csv file loaded. Starting to parse redirect csv entries.");
-      Map<String, RedirectUpdateProperties> imports = new HashMap<>();
+  /**
+   * Imports all redirects for the given site. The csv entries are read and imported in batches, without loading the
+   * whole file. The given response is updated after each batch, so the progress can be read while the import is
+   * running. The import stops before the next batch, if it is cancelled, the redirects created so far are kept.
+   *
+   * @param siteId                 the site id.
+   * @param inputStream            the input stream for the csv file.
+   * @param redirectImportResponse the response to be filled.
+   * @param cancelled              returns true, if the import should be stopped.
+   */
+  public void importRedirects(String siteId, InputStream inputStream, RedirectImportResponse redirectImportResponse,
+                              BooleanSupplier cancelled) {
+    try (CSVParser records = CSVFormat.EXCEL
+        .withDelimiter(';')
+        .withFirstRecordAsHeader()
+        .parse(new InputStreamReader(inputStream))) {
+
+      LOG.info("Starting to import redirect csv entries.");
+      // The sources of all entries so far, to detect duplicates within the file
+      Set<ImportKey> sources = new HashSet<>();
+      List<ImportEntry> batch = new ArrayList<>(BATCH_SIZE);
       for (CSVRecord record : records) {
         String csvEntry = getCsvEntry(record);
         if (record.size() < 7) {
           addErrorMessage(redirectImportResponse, csvEntry, INVALID_CSV_ENTRY);
+          redirectImportResponse.addProcessed(1);
         } else {
-          addIfNoDuplicate(siteId, redirectImportResponse, imports, record, csvEntry);
+          addIfNoDuplicate(siteId, redirectImportResponse, sources, batch, record, csvEntry);
         }
-      }
-      LOG.info("Parsed {} redirects. Starting to import redirects.", imports.keySet().size());
-
-      List<String> entries = new ArrayList<>(imports.keySet());
-      for (int i = 0; i < entries.size(); i++) {
-        if (i % 100 == 0) {
-          LOG.info("Processed {} redirects. {} entries left to be imported.", i, imports.size() - i);
+        if (batch.size() == BATCH_SIZE) {
+          if (cancelled.getAsBoolean()) {
+            LOG.info("Cancelled redirect import after {} csv entries.", redirectImportResponse.getProcessed());
+            return;
+          }
+          createRedirects(siteId, batch, redirectImportResponse);
+          batch.clear();
         }
-        String entry = entries.get(i);
-        createRedirect(siteId, entry, imports.get(entry), redirectImportResponse);
       }
+      if (cancelled.getAsBoolean()) {
+        LOG.info("Cancelled redirect import after {} csv entries.", redirectImportResponse.getProcessed());
+        return;
+      }
+      createRedirects(siteId, batch, redirectImportResponse);
 
-      LOG.info("Finished redirect import. Imported {} redirects. Failed: {}.", redirectImportResponse.getCreated().size(), redirectImportResponse.getErrorMessages().size());
-    } catch (IOException | IllegalArgumentException e) {
+      LOG.info("Finished redirect import. Imported {} redirects. Failed: {}.", redirectImportResponse.getCreatedCount(), redirectImportResponse.getErrorCount());
+    } catch (IOException | IllegalArgumentException | UncheckedIOException e) {
       addErrorMessage(redirectImportResponse, "", CREATION_FAILURE);
       LOG.error("Error while processing uploaded file", e);
     }
-
-    return redirectImportResponse;
   }
 
-  private void addIfNoDuplicate(String siteId, RedirectImportResponse redirectImportResponse, Map<String, RedirectUpdateProperties> imports, CSVRecord record, String csvEntry) {
-    //Add to map, if no duplicate sourceUrl
+  private void addIfNoDuplicate(String siteId, RedirectImportResponse redirectImportResponse, Set<ImportKey> sources,
+                                List<ImportEntry> batch, CSVRecord record, String csvEntry) {
+    //Add to batch, if no duplicate sourceUrl
     try {
       RedirectUpdateProperties properties = mapToProperties(siteId, record);
-      if (imports.values().stream().noneMatch(p -> sourcesMatch(properties, p))) {
-        imports.put(csvEntry, properties);
+      if (ImportKey.of(properties).map(sources::add).orElse(true)) {
+        batch.add(new ImportEntry(csvEntry, properties));
       } else {
         addErrorMessage(redirectImportResponse, csvEntry, DUPLICATE_SOURCE);
+        redirectImportResponse.addProcessed(1);
       }
     } catch (JsonProcessingException e) {
       // could not parse source or target paramters
       addErrorMessage(redirectImportResponse, csvEntry, PARSING_FAILURE);
+      redirectImportResponse.addProcessed(1);
     }
-
-
-
-  }
-
-  private boolean sourcesMatch(RedirectUpdateProperties value, RedirectUpdateProperties p) {
-
-    String source1 = Optional.ofNullable(p.getSource()).map(String::trim).orElse(null);
-    String source2 = Optional.ofNullable(value.getSource()).map(String::trim).orElse(null);
-
-
-    if (source1 != null && source1.equalsIgnoreCase(source2)) {
-      List<RedirectSourceParameter> sourceParameters1 = value.getSourceParameters();
-      List<RedirectSourceParameter> sourceParameters2 = p.getSourceParameters();
-      return sourceParameters1.size() == sourceParameters2.size() && sourceParameters2.containsAll(sourceParameters1);
-    }
-    return false;
   }
 
   private RedirectUpdateProperties mapToProperties(String siteId, CSVRecord record) throws JsonProcessingException {
@@ -174,33 +189,67 @@ public class RedirectImporter {
       properties.put(RedirectUpdateProperties.TARGET_PARAMETERS, RedirectHelper.parseRedirectTargetParameters(targetParams.get()));
     }
 
+    // The priority column is optional, to stay compatible with existing csv files
+    if (record.size() > 9 && StringUtils.isNotBlank(record.get(9))) {
+      properties.put(RedirectUpdateProperties.PRIORITY, record.get(9));
+    }
+
     properties.put(RedirectUpdateProperties.IMPORTED, true);
 
     return new RedirectUpdateProperties(properties, redirectRepository, siteId, null);
   }
 
   /**
-   * Creates a redirect for the given {@link RedirectUpdateProperties}. If the csv record is invalid,
-   * corresponding error messages are added to the {@link RedirectImportResponse}.
+   * Creates the redirects for the given entries. Invalid entries are added to the {@link RedirectImportResponse} with
+   * their error messages, the valid ones are created and published together. The entries are validated against the
+   * existing redirects with one lookup for the whole batch.
    *
-   * @param siteId     the site id.
-   * @param csvEntry   the csv record.
-   * @param properties the already created properties.
-   * @param response   the redirect import response.
+   * @param siteId   the site id.
+   * @param entries  the csv entries with their already created properties.
+   * @param response the redirect import response.
    */
-  private void createRedirect(String siteId, String csvEntry, RedirectUpdateProperties properties, RedirectImportResponse response) {
+  private void createRedirects(String siteId, List<ImportEntry> entries, RedirectImportResponse response) {
+    // The existing redirects of the whole batch are looked up at once, instead of one search request per entry
+    Map<String, List<List<RedirectSourceParameter>>> existingSources;
+    try {
+      existingSources = redirectRepository.findExistingSources(siteId,
+          entries.stream().map(entry -> entry.properties().getSource()).collect(Collectors.toList()));
+    } catch (RuntimeException e) {
+      // A failing batch is reported for its entries, the import goes on with the next batch
+      LOG.error("Could not look up the existing sources of {} csv entries", entries.size(), e);
+      entries.forEach(entry -> addErrorMessage(response, entry.csvEntry(), CREATION_FAILURE));
+      response.addProcessed(entries.size());
+      return;
+    }
 
-    Map<String, String> errors = properties.validate();
-    if (errors.isEmpty()) {
+    List<ImportEntry> valid = new ArrayList<>(entries.size());
+    for (ImportEntry entry : entries) {
+      Map<String, String> errors = entry.properties().validate(existingSources);
+      if (errors.isEmpty()) {
+        valid.add(entry);
+      } else {
+        errors.values().forEach(errorCode -> addErrorMessage(response, entry.csvEntry(), errorCode));
+      }
+    }
+
+    if (!valid.isEmpty()) {
       try {
-        Redirect redirect = redirectRepository.createRedirect(siteId, properties);
-        response.addCreated(redirect);
-      } catch (Exception e) {
-        addErrorMessage(response, csvEntry, PARSING_FAILURE);
+        List<Redirect> redirects = redirectRepository.createRedirects(siteId,
+            valid.stream().map(ImportEntry::properties).collect(Collectors.toList()));
+        for (int i = 0; i < valid.size(); i++) {
+          if (redirects.get(i) != null) {
+            response.addCreated(redirects.get(i));
+          } else {
+            addErrorMessage(response, valid.get(i).csvEntry(), PARSING_FAILURE);
+          }
+        }
+      } catch (RuntimeException e) {
+        LOG.error("Could not create {} redirects", valid.size(), e);
+        valid.forEach(entry -> addErrorMessage(response, entry.csvEntry(), CREATION_FAILURE));
       }
-    } else {
-      errors.values().forEach(errorCode -> addErrorMessage(response, csvEntry, errorCode));
     }
+    response.addProcessed(entries.size());
+    LOG.info("Processed {} redirects. Imported {} redirects so far.", response.getProcessed(), response.getCreatedCount());
   }
 
   /**
@@ -243,4 +292,22 @@ public class RedirectImporter {
     LOG.warn("Could not import redirect for csv entry: {}, error code: {}.", csvEntry, errorCode);
     response.addErrorMessage(csvEntry, errorCode);
   }
+
+  /**
+   * A csv entry and its properties.
+   */
+  private record ImportEntry(String csvEntry, RedirectUpdateProperties properties) {
+  }
+
+  /**
+   * The key of a redirect to detect duplicates: the sources are compared case insensitive and the source parameters
+   * regardless of their order.
+   */
+  private record ImportKey(String source, Set<RedirectSourceParameter> sourceParameters) {
+
+    static Optional<ImportKey> of(RedirectUpdateProperties properties) {
+      return Optional.ofNullable(properties.getSource())
+          .map(source -> new ImportKey(source.toLowerCase(Locale.ROOT), new HashSet<>(properties.getSourceParameters())));
+    }
+  }
 }
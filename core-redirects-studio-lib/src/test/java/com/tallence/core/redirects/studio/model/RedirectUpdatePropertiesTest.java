@@ -27,18 +27,21 @@ import java.util.Map;
 
 import static com.tallence.core.redirects.studio.model.RedirectUpdateProperties.ACTIVE;
 import static com.tallence.core.redirects.studio.model.RedirectUpdateProperties.INVALID_ACTIVE_VALUE;
+import static com.tallence.core.redirects.studio.model.RedirectUpdateProperties.INVALID_PRIORITY_VALUE;
 import static com.tallence.core.redirects.studio.model.RedirectUpdateProperties.INVALID_REDIRECT_TYPE_VALUE;
 import static com.tallence.core.redirects.studio.model.RedirectUpdateProperties.INVALID_SOURCE_URL_TYPE_VALUE;
 import static com.tallence.core.redirects.studio.model.RedirectUpdateProperties.INVALID_SOURCE_VALUE;
 import static com.tallence.core.redirects.studio.model.RedirectUpdateProperties.INVALID_SOURCE_WHITESPACE;
 import static com.tallence.core.redirects.studio.model.RedirectUpdateProperties.INVALID_TARGET_LINK;
 import static com.tallence.core.redirects.studio.model.RedirectUpdateProperties.MISSING_TARGET_LINK;
+import static com.tallence.core.redirects.studio.model.RedirectUpdateProperties.PRIORITY;
 import static com.tallence.core.redirects.studio.model.RedirectUpdateProperties.REDIRECT_TYPE;
 import static com.tallence.core.redirects.studio.model.RedirectUpdateProperties.SOURCE;
 import static com.tallence.core.redirects.studio.model.RedirectUpdateProperties.SOURCE_ALREADY_EXISTS;
 import static com.tallence.core.redirects.studio.model.RedirectUpdateProperties.SOURCE_URL_TYPE;
 import static com.tallence.core.redirects.studio.model.RedirectUpdateProperties.TARGET_LINK;
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -101,6 +104,26 @@ public class RedirectUpdatePropertiesTest {
 
   }
 
+  /**
+   * The priority is passed as a number by the studio and as a string by the csv-upload.
+   */
+  @Test
+  public void testUpdateValidationPriority() {
+    Map<String, Object> properties = new HashMap<>();
+    properties.put(PRIORITY, 10);
+    RedirectUpdateProperties updateProperties = new RedirectUpdateProperties(properties, repository, null, "123");
+    assertThat(updateProperties.getPriority(), equalTo(10));
+    assertThat(updateProperties.validate(true).get(PRIORITY), nullValue());
+
+    properties.put(PRIORITY, " -5 ");
+    assertThat(updateProperties.getPriority(), equalTo(-5));
+    assertThat(updateProperties.validate(true).get(PRIORITY), nullValue());
+
+    properties.put(PRIORITY, "high");
+    assertThat(updateProperties.getPriority(), nullValue());
+    assertThat(updateProperties.validate(true).get(PRIORITY), equalTo(INVALID_PRIORITY_VALUE));
+  }
+
   @Test
   public void testUpdateValidationWhitespacesSource() {
     Map<String, Object> properties = new HashMap<>();
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2019 Tallence AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tallence.core.redirects.studio.repository;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test for the {@link RedirectPageCursors}.
+ */
+public class RedirectPageCursorsTest {
+
+  @Test
+  public void testFilterQuery() {
+    RedirectPageCursors.Cursor cursor = new RedirectPageCursors.Cursor("/abc", 42);
+
+    assertEquals("(source:{\\/abc TO *] OR (source:\\/abc AND numericid:{42 TO *]))", cursor.toFilterQuery("source", true));
+    assertEquals("(source:[* TO \\/abc} OR (source:\\/abc AND numericid:[* TO 42}))", cursor.toFilterQuery("source", false));
+  }
+
+  @Test
+  public void testCursors() {
+    RedirectPageCursors cursors = new RedirectPageCursors();
+    RedirectPageCursors.Query query = new RedirectPageCursors.Query("user", "site", List.of("source:*"), "source", true, 20);
+    RedirectPageCursors.Cursor cursor = new RedirectPageCursors.Cursor("/abc", 42);
+    cursors.put(query, 2, cursor);
+
+    assertEquals(cursor, cursors.get(new RedirectPageCursors.Query("user", "site", List.of("source:*"), "source", true, 20), 2));
+    //The cursors of other pages and page sizes are not known
+    assertNull(cursors.get(query, 3));
+    assertNull(cursors.get(new RedirectPageCursors.Query("user", "site", List.of("source:*"), "source", true, 50), 2));
+
+    cursors.clear();
+    assertNull(cursors.get(query, 2));
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2019 Tallence AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tallence.core.redirects.studio.service;
+
+import com.coremedia.cap.common.CapConnection;
+import com.coremedia.cap.common.CapSession;
+import com.coremedia.cap.user.User;
+import com.tallence.core.redirects.studio.rest.RedirectImportResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test for the {@link RedirectImportJobService}.
+ */
+public class RedirectImportJobServiceTest {
+
+  private final CountDownLatch started = new CountDownLatch(1);
+  private User user;
+  private CapSession session;
+  private RedirectImportJobService service;
+
+  @Before
+  public void setUp() {
+    // The import runs until it is cancelled
+    RedirectImporter importer = mock(RedirectImporter.class);
+    doAnswer(invocation -> {
+      RedirectImportResponse response = invocation.getArgument(2);
+      BooleanSupplier cancelled = invocation.getArgument(3);
+      response.addProcessed(1);
+      started.countDown();
+      while (!cancelled.getAsBoolean()) {
+        Thread.sleep(10);
+      }
+      return null;
+    }).when(importer).importRedirects(eq("site"), any(), any(RedirectImportResponse.class), any());
+
+    user = mock(User.class);
+    when(user.getId()).thenReturn("coremedia:///cap/user/1");
+    session = mock(CapSession.class);
+    when(session.getUser()).thenAnswer(invocation -> user);
+    CapConnection capConnection = mock(CapConnection.class);
+    when(capConnection.getSession()).thenReturn(session);
+
+    service = new RedirectImportJobService(importer, capConnection, 1, 1, 60);
+  }
+
+  @After
+  public void tearDown() {
+    service.shutdown();
+  }
+
+  @Test
+  public void testCancel() throws Exception {
+    RedirectImportJob running = service.submit("site", toStream("running"));
+    RedirectImportJob queued = service.submit("site", toStream("queued"));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    //A queued job is cancelled at once, a running job after the current batch
+    service.cancel("site", queued.getId());
+    assertThat(queued.getState(), equalTo(RedirectImportJob.State.CANCELLED));
+    service.cancel("site", running.getId());
+    for (int i = 0; i < 500 && !running.getState().isDone(); i++) {
+      Thread.sleep(10);
+    }
+    assertThat(running.getState(), equalTo(RedirectImportJob.State.CANCELLED));
+    assertThat(running.getResponse().getProcessed(), equalTo(1));
+    //No session was active on the pool thread before, so the session of the uploader is deactivated again
+    verify(session, timeout(1000)).activate();
+    verify(session, timeout(1000)).deactivate();
+  }
+
+  @Test
+  public void testRejected() throws Exception {
+    service.submit("site", toStream("running"));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    service.submit("site", toStream("queued"));
+
+    assertThrows(RejectedExecutionException.class, () -> service.submit("site", toStream("rejected")));
+  }
+
+  @Test
+  public void testGetJob() throws IOException {
+    RedirectImportJob job = service.submit("site", toStream("running"));
+
+    assertTrue(service.getJob("site", job.getId()).isPresent());
+    //Jobs of other sites and other users are not visible
+    assertFalse(service.getJob("otherSite", job.getId()).isPresent());
+    user = mock(User.class);
+    when(user.getId()).thenReturn("coremedia:///cap/user/2");
+    assertFalse(service.getJob("site", job.getId()).isPresent());
+  }
+
+  private ByteArrayInputStream toStream(String csv) {
+    return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+  }
+}
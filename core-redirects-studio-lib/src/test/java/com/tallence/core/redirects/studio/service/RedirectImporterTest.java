@@ -0,0 +1,147 @@
+/*
+ * Copyright 2019 Tallence AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tallence.core.redirects.studio.service;
+
+import com.coremedia.cap.content.ContentRepository;
+import com.tallence.core.redirects.studio.model.Redirect;
+import com.tallence.core.redirects.studio.model.RedirectUpdateProperties;
+import com.tallence.core.redirects.studio.repository.RedirectRepository;
+import com.tallence.core.redirects.studio.rest.RedirectImportResponse;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test for the {@link RedirectImporter}.
+ */
+public class RedirectImporterTest {
+
+  private static final String HEADER = "active;sourceUrlType;source;targetLink;targetUrl;redirectType;description;sourceParameters;targetParameters\n";
+
+  private RedirectRepository repository;
+  private RedirectImporter importer;
+
+  @Before
+  public void setUp() {
+    repository = mock(RedirectRepository.class);
+    when(repository.createRedirects(eq("site"), anyList())).thenAnswer(invocation -> {
+      List<RedirectUpdateProperties> properties = invocation.getArgument(1);
+      return properties.stream().map(p -> mock(Redirect.class)).collect(Collectors.toList());
+    });
+    importer = new RedirectImporter(repository, mock(ContentRepository.class));
+  }
+
+  /**
+   * Tests, that duplicates within the file are detected regardless of the case of the source and the order of the
+   * source parameters.
+   */
+  @Test
+  public void testDuplicates() {
+    String csv = HEADER +
+        "true;PLAIN;/abc;;https://example.org/;ALWAYS;;[];[]\n" +
+        "true;PLAIN;/ABC/;;https://example.org/;ALWAYS;;[];[]\n" +
+        "true;PLAIN;/abc;;https://example.org/;ALWAYS;;[{\"name\":\"a\",\"value\":\"1\",\"operator\":\"EQUALS\"},{\"name\":\"b\",\"value\":\"2\",\"operator\":\"EQUALS\"}];[]\n" +
+        "true;PLAIN;/abc;;https://example.org/;ALWAYS;;[{\"name\":\"b\",\"value\":\"2\",\"operator\":\"EQUALS\"},{\"name\":\"a\",\"value\":\"1\",\"operator\":\"EQUALS\"}];[]\n" +
+        "true;PLAIN;/def\n";
+
+    RedirectImportResponse response = importer.importRedirects("site", toStream(csv));
+
+    assertThat(response.getCreated().size(), equalTo(2));
+    assertThat(response.getErrorMessages().size(), equalTo(3));
+    assertThat(response.getProcessed(), equalTo(5));
+  }
+
+  /**
+   * Tests, that the redirects are created in batches.
+   */
+  @Test
+  public void testBatches() {
+    StringBuilder csv = new StringBuilder(HEADER);
+    for (int i = 0; i < 1200; i++) {
+      csv.append("true;PLAIN;/page-").append(i).append(";;https://example.org/;ALWAYS;;[];[]\n");
+    }
+
+    RedirectImportResponse response = importer.importRedirects("site", toStream(csv.toString()));
+
+    assertThat(response.getCreated().size(), equalTo(1200));
+    assertThat(response.getProcessed(), equalTo(1200));
+    verify(repository, times(3)).createRedirects(eq("site"), anyList());
+  }
+
+  /**
+   * Tests, that the existing sources are looked up once per batch and only redirects with the same source parameters
+   * are rejected.
+   */
+  @Test
+  public void testExistingSources() {
+    when(repository.findExistingSources(eq("site"), anyCollection())).thenReturn(Map.of("/existing", List.of(List.of())));
+    String csv = HEADER +
+        "true;PLAIN;/Existing;;https://example.org/;ALWAYS;;[];[]\n" +
+        "true;PLAIN;/existing;;https://example.org/;ALWAYS;;[{\"name\":\"a\",\"value\":\"1\",\"operator\":\"EQUALS\"}];[]\n" +
+        "true;PLAIN;/new;;https://example.org/;ALWAYS;;[];[]\n";
+
+    RedirectImportResponse response = importer.importRedirects("site", toStream(csv));
+
+    assertThat(response.getCreated().size(), equalTo(2));
+    assertThat(response.getErrorMessages().size(), equalTo(1));
+    verify(repository, times(1)).findExistingSources(eq("site"), anyCollection());
+    verify(repository, never()).sourceAlreadyExists(anyString(), anyString(), anyList());
+  }
+
+  /**
+   * Tests, that the entries of a failing batch are reported as errors and the import goes on with the next batch.
+   */
+  @Test
+  public void testFailingBatch() {
+    when(repository.createRedirects(eq("site"), anyList()))
+        .thenThrow(new IllegalStateException("publication failed"))
+        .thenAnswer(invocation -> {
+          List<RedirectUpdateProperties> properties = invocation.getArgument(1);
+          return properties.stream().map(p -> mock(Redirect.class)).collect(Collectors.toList());
+        });
+    StringBuilder csv = new StringBuilder(HEADER);
+    for (int i = 0; i < 1200; i++) {
+      csv.append("true;PLAIN;/page-").append(i).append(";;https://example.org/;ALWAYS;;[];[]\n");
+    }
+
+    RedirectImportResponse response = importer.importRedirects("site", toStream(csv.toString()));
+
+    assertThat(response.getCreated().size(), equalTo(700));
+    assertThat(response.getErrorMessages().size(), equalTo(500));
+    assertThat(response.getProcessed(), equalTo(1200));
+  }
+
+  private ByteArrayInputStream toStream(String csv) {
+    return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+  }
+}